@@ -0,0 +1,54 @@
+package com.trading.benchmark;
+
+import com.trading.TradingPlatformApplication;
+import com.trading.dto.UserRegistrationRequest;
+import com.trading.model.User;
+import com.trading.service.FinnhubService;
+import com.trading.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.math.BigDecimal;
+
+/**
+ * Starts the full application for benchmarks, on the "bench" profile (in-memory H2)
+ * with the stub quote source in place of Finnhub (bench.quote-latency-ms adds simulated upstream latency).
+ *
+ * Deliberately not a @Configuration class, so the application's component scan never picks it up.
+ */
+public class BenchmarkApplication {
+
+    // The same in-memory H2 database as the JDBC url in application-bench.properties, for the reactive profile
+    public static final String R2DBC_URL = "r2dbc:h2:mem:///bench?options=MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    // Not with trading.quotes.source=replay, which runs the real FinnhubService against recorded ticks
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "trading.quotes.source", havingValue = "finnhub", matchIfMissing = true)
+    public FinnhubService stubFinnhubService(@Value("${bench.quote-latency-ms:0}") long quoteLatencyMillis) {
+        return new StubFinnhubService(quoteLatencyMillis);
+    }
+
+    /**
+     * @param args command-line style overrides, e.g. --spring.main.web-application-type=servlet
+     */
+    public static ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(TradingPlatformApplication.class, BenchmarkApplication.class)
+                .profiles("bench")
+                .run(args);
+    }
+
+    /**
+     * Register a user with a balance large enough that no benchmark runs out of cash
+     */
+    public static User createUser(ConfigurableApplicationContext context, String username) {
+        UserService userService = context.getBean(UserService.class);
+        User user = userService.registerUser(
+                new UserRegistrationRequest(username, username + "@bench.local", "password"));
+        return userService.updateBalance(user.getId(), BigDecimal.valueOf(1_000_000_000_000L));
+    }
+}
@@ -0,0 +1,108 @@
+package com.trading.benchmark;
+
+import com.trading.dto.TradeRequest;
+import com.trading.model.User;
+import com.trading.service.TradingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform vs virtual request threads vs the reactive stack: each operation sends a burst of concurrent HTTP requests to a
+ * running server and waits for all of them. The stub quote source blocks for quoteLatencyMs per quote, like an
+ * uncached Finnhub call, so with a thread pool (Tomcat's default is 200) a larger burst queues behind it.
+ * Client and server share the machine: on few cores, raise quoteLatencyMs so blocking, not CPU, dominates.
+ *
+ * - quote: GET /api/stocks/quote/{symbol}, blocking on the upstream only
+ * - portfolio: GET /api/trading/portfolio/{userId}, a database read plus a quote fetch
+ *
+ * Virtual mode needs a Java 21+ runtime; on older JVMs it runs on platform threads.
+ * Reactive mode serves the same paths from WebFlux and R2DBC on the same in-memory database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentRequestsBenchmark {
+
+    @Param({"platform", "virtual", "reactive"})
+    private String mode;
+
+    @Param({"100", "400", "1600"})
+    private int inFlight;
+
+    @Param({"quote", "portfolio"})
+    private String endpoint;
+
+    @Param({"20"})
+    private long quoteLatencyMs;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "--spring.profiles.active=" + (mode.equals("reactive") ? "reactive" : "default"),
+                "--spring.main.web-application-type=" + (mode.equals("reactive") ? "reactive" : "servlet"),
+                "--spring.r2dbc.url=" + BenchmarkApplication.R2DBC_URL,
+                "--server.port=0",
+                "--server.tomcat.max-connections=" + (inFlight * 2),
+                "--server.tomcat.accept-count=" + inFlight,
+                "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                "--bench.quote-latency-ms=" + quoteLatencyMs);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        String path = "/api/stocks/quote/AAPL";
+        if (endpoint.equals("portfolio")) {
+            User user = BenchmarkApplication.createUser(context, "holder");
+            context.getBean(TradingService.class).buyStock(new TradeRequest(user.getId(), "AAPL", 10));
+            path = "/api/trading/portfolio/" + user.getId();
+        }
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path)).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[inFlight];
+        for (int i = 0; i < inFlight; i++) {
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("HTTP " + response.statusCode());
+                        }
+                        return response;
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+}
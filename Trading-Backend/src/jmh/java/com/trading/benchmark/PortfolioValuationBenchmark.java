@@ -0,0 +1,69 @@
+package com.trading.benchmark;
+
+import com.trading.dto.PortfolioResponse;
+import com.trading.dto.TradeRequest;
+import com.trading.model.User;
+import com.trading.service.TradingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TradingService.getUserPortfolio for a user holding a varying number of positions
+ * (one symbol each), valued with stub quotes.
+ * view=false values every position from its quote on each call; view=true serves the in-memory portfolio view
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioValuationBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int positions;
+
+    @Param({"false", "true"})
+    private boolean view;
+
+    private ConfigurableApplicationContext context;
+    private TradingService tradingService;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("--trading.portfolio.view.enabled=" + view);
+        tradingService = context.getBean(TradingService.class);
+
+        User user = BenchmarkApplication.createUser(context, "holder");
+        userId = user.getId();
+        for (int i = 0; i < positions; i++) {
+            tradingService.buyStock(new TradeRequest(userId, "SYM" + i, 10));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PortfolioResponse> getUserPortfolio() {
+        return tradingService.getUserPortfolio(userId);
+    }
+}
@@ -0,0 +1,80 @@
+package com.trading.benchmark;
+
+import com.trading.dto.PortfolioResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PortfolioResponse.calculateProfitLoss on fixed-point cents, compared with the BigDecimal
+ * arithmetic it replaced (kept here as the baseline)
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfitLossBenchmark {
+
+    private static final long CURRENT_PRICE = 18_234;
+    private static final long AVG_PURCHASE_PRICE = 17_550;
+    private static final int QUANTITY = 37;
+
+    private PortfolioResponse response;
+
+    @Setup
+    public void setUp() {
+        response = new PortfolioResponse();
+        response.setQuantity(QUANTITY);
+        response.setCurrentPrice(BigDecimal.valueOf(182.34));
+        response.setAvgPurchasePrice(BigDecimal.valueOf(175.50));
+    }
+
+    /**
+     * Hot path used by getUserPortfolio: prices already in cents
+     */
+    @Benchmark
+    public PortfolioResponse fixedPoint() {
+        response.calculateProfitLoss(CURRENT_PRICE, AVG_PURCHASE_PRICE);
+        return response;
+    }
+
+    /**
+     * No-arg variant: converts the BigDecimal price fields to cents first
+     */
+    @Benchmark
+    public PortfolioResponse fixedPointFromBigDecimalFields() {
+        response.calculateProfitLoss();
+        return response;
+    }
+
+    @Benchmark
+    public void bigDecimalBaseline(Blackhole blackhole) {
+        BigDecimal currentPrice = BigDecimal.valueOf(182.34);
+        BigDecimal avgPurchasePrice = BigDecimal.valueOf(175.50);
+        BigDecimal currentValue = currentPrice.multiply(BigDecimal.valueOf(QUANTITY));
+        BigDecimal investedAmount = avgPurchasePrice.multiply(BigDecimal.valueOf(QUANTITY));
+        BigDecimal netProfit = currentValue.subtract(investedAmount);
+        double profitPercentage = investedAmount.compareTo(BigDecimal.ZERO) > 0
+                ? netProfit.divide(investedAmount, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100)).doubleValue()
+                : 0.0;
+
+        blackhole.consume(currentValue);
+        blackhole.consume(investedAmount);
+        blackhole.consume(netProfit);
+        blackhole.consume(profitPercentage);
+    }
+}
@@ -0,0 +1,80 @@
+package com.trading.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import com.trading.dto.StockQuote;
+import com.trading.service.FinnhubService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FinnhubService quote fetch and mapping against a local HTTP stub serving a fixed Finnhub /quote body:
+ * uncached (every call goes through WebClient, JSON decoding and mapping) and cached (a cache hit)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuoteMappingBenchmark {
+
+    private static final byte[] QUOTE_BODY =
+            "{\"c\":182.34,\"h\":184.1,\"l\":180.02,\"o\":181.5,\"pc\":180.9,\"t\":1700000000}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private FinnhubService uncached;
+    private FinnhubService cached;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Without TCP_NODELAY the stub's small responses sit behind delayed ACKs and dominate the timing
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/quote", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, QUOTE_BODY.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(QUOTE_BODY);
+            }
+        });
+        server.start();
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        uncached = new FinnhubService(baseUrl, 1000, 2000, 0, 5, 10000, 0, 1000, 0, false, new SimpleMeterRegistry());
+        cached = new FinnhubService(baseUrl, 1000, 2000, 0, 5, 10000, Long.MAX_VALUE, 1000, 0, false, new SimpleMeterRegistry());
+        cached.getStockQuote("AAPL");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Benchmark
+    public StockQuote uncachedQuote() {
+        return uncached.getStockQuote("AAPL");
+    }
+
+    @Benchmark
+    public StockQuote cachedQuote() {
+        return cached.getStockQuote("AAPL");
+    }
+}
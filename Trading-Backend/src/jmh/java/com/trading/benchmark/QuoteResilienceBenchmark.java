@@ -0,0 +1,142 @@
+package com.trading.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.trading.dto.StockQuote;
+import com.trading.service.FinnhubService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FinnhubService under upstream faults, against a local HTTP stub that injects them. Every call misses the cache
+ * (TTL 0), so each one goes upstream unless the circuit breaker is open.
+ *
+ * - slow-tail: 5% of responses take 300 ms; hedging (hedgeDelayMs > 0) should cut the tail percentiles
+ * - errors: 20% of responses are HTTP 500; those calls are served the last quote (max-stale 60 s)
+ * - outage: every response takes 5 s; calls time out (500 ms) until the circuit opens, then fail fast
+ *   and are served stale, with a probe every second
+ *
+ * served/failed count calls that got a quote and calls that got an error (no quote at all).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuoteResilienceBenchmark {
+
+    private static final byte[] QUOTE_BODY =
+            "{\"c\":182.34,\"h\":184.1,\"l\":180.02,\"o\":181.5,\"pc\":180.9,\"t\":1700000000}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"slow-tail", "errors", "outage"})
+    private String fault;
+
+    @Param({"0", "20"})
+    private long hedgeDelayMs;
+
+    // The fault the stub injects now; none until the fallback quote is cached
+    private volatile String injectedFault = "none";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private FinnhubService finnhubService;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long served;
+        public long failed;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // One thread per request, so an injected delay holds up only its own response
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/quote", this::respond);
+        server.start();
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        finnhubService = new FinnhubService(baseUrl, 1000, 500, hedgeDelayMs, 5, 1000,
+                0, 1000, 60_000, false, new SimpleMeterRegistry());
+        // A good quote to fall back on
+        finnhubService.getStockQuote("AAPL");
+        injectedFault = fault;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public StockQuote quote(Outcomes outcomes) {
+        try {
+            StockQuote quote = finnhubService.getStockQuote("AAPL");
+            outcomes.served++;
+            return quote;
+        } catch (RuntimeException e) {
+            outcomes.failed++;
+            return null;
+        }
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            switch (injectedFault) {
+                case "slow-tail" -> {
+                    if (random.nextDouble() < 0.05) {
+                        Thread.sleep(300);
+                    }
+                }
+                case "errors" -> {
+                    if (random.nextDouble() < 0.20) {
+                        exchange.sendResponseHeaders(500, -1);
+                        exchange.close();
+                        return;
+                    }
+                }
+                case "outage" -> Thread.sleep(5000);
+                default -> {
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, QUOTE_BODY.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(QUOTE_BODY);
+        }
+    }
+}
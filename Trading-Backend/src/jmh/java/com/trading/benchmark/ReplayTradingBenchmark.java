@@ -0,0 +1,88 @@
+package com.trading.benchmark;
+
+import com.trading.dto.TradeRequest;
+import com.trading.dto.TradeResponse;
+import com.trading.marketdata.SyntheticTicks;
+import com.trading.service.TradingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Market buys through TradingService across a large universe of symbols, priced by replaying seeded synthetic
+ * tick files (no Finnhub, no random mock prices). The quote cache is off and the replay advances one tick per
+ * quote, and the symbol bought each time comes from a seeded random, so every run sees the same price paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplayTradingBenchmark {
+
+    private static final long SEED = 42;
+
+    @Param({"100", "5000"})
+    private int symbols;
+
+    private Path tickDir;
+    private ConfigurableApplicationContext context;
+    private TradingService tradingService;
+    private List<String> universe;
+    private SplittableRandom random;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tickDir = Files.createTempDirectory("replay-ticks");
+        universe = SyntheticTicks.symbols(symbols);
+        SyntheticTicks.generate(tickDir, universe, 1_000, 1_000, SEED);
+
+        context = BenchmarkApplication.start(
+                "--trading.quotes.source=replay",
+                "--trading.quotes.replay.dir=" + tickDir,
+                "--trading.quotes.replay.speed=max",
+                "--finnhub.cache.ttl-ms=0",
+                "--finnhub.mock.enabled=false");
+        tradingService = context.getBean(TradingService.class);
+        userId = BenchmarkApplication.createUser(context, "trader").getId();
+        random = new SplittableRandom(SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(tickDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public TradeResponse buyStock() {
+        String symbol = universe.get(random.nextInt(universe.size()));
+        return tradingService.buyStock(new TradeRequest(userId, symbol, 1));
+    }
+}
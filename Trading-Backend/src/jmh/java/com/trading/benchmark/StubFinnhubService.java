@@ -0,0 +1,67 @@
+package com.trading.benchmark;
+
+import com.trading.dto.StockQuote;
+import com.trading.service.FinnhubService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local quote source for benchmarks: a fixed, deterministic quote per symbol with no network call,
+ * so measurements reflect the trading code rather than Finnhub latency.
+ * An optional latency blocks the caller on every quote, standing in for an uncached upstream call.
+ */
+public class StubFinnhubService extends FinnhubService {
+
+    private final Map<String, StockQuote> quotes = new ConcurrentHashMap<>();
+    private final long latencyMillis;
+
+    public StubFinnhubService() {
+        this(0);
+    }
+
+    public StubFinnhubService(long latencyMillis) {
+        super("http://localhost", 1000, 2000, 0, 5, 10000, 0, 1, 0, false, new SimpleMeterRegistry());
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public StockQuote getStockQuote(String symbol) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        return quotes.computeIfAbsent(symbol.toUpperCase(), StubFinnhubService::quote);
+    }
+
+    /**
+     * Same quotes for the reactive API; the latency is a timer rather than a blocked thread
+     */
+    @Override
+    public Mono<StockQuote> getStockQuoteReactive(String symbol) {
+        Mono<StockQuote> quote = Mono.fromSupplier(() -> quotes.computeIfAbsent(symbol.toUpperCase(), StubFinnhubService::quote));
+        return latencyMillis > 0 ? quote.delaySubscription(Duration.ofMillis(latencyMillis)) : quote;
+    }
+
+    private static StockQuote quote(String symbol) {
+        double price = 100.0 + Math.floorMod(symbol.hashCode(), 10_000) / 100.0;
+        StockQuote quote = new StockQuote();
+        quote.setSymbol(symbol);
+        quote.setCurrentPrice(price);
+        quote.setHighPrice(price + 1);
+        quote.setLowPrice(price - 1);
+        quote.setOpenPrice(price);
+        quote.setPreviousClose(price);
+        quote.setBuyerPrice(price + 0.10);
+        quote.setSellerPrice(price - 0.10);
+        quote.setTimestamp(System.currentTimeMillis() / 1000);
+        return quote;
+    }
+}
@@ -0,0 +1,78 @@
+package com.trading.benchmark;
+
+import com.trading.dto.SellRequest;
+import com.trading.dto.TradeRequest;
+import com.trading.dto.TradeResponse;
+import com.trading.model.User;
+import com.trading.service.TradingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Market buy and peer-to-peer sell through TradingService, end to end: quote lookup (stub),
+ * row locks, balance/portfolio updates and transaction inserts against in-memory H2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradingBenchmark {
+
+    private static final String SYMBOL = "AAPL";
+
+    private ConfigurableApplicationContext context;
+    private TradingService tradingService;
+
+    private TradeRequest buyRequest;
+    private SellRequest aliceSellsToBob;
+    private SellRequest bobSellsToAlice;
+    private boolean aliceSellsNext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        tradingService = context.getBean(TradingService.class);
+
+        User alice = BenchmarkApplication.createUser(context, "alice");
+        User bob = BenchmarkApplication.createUser(context, "bob");
+
+        // Both sides start with a holding, so sells can alternate direction indefinitely
+        tradingService.buyStock(new TradeRequest(alice.getId(), SYMBOL, 1_000));
+        tradingService.buyStock(new TradeRequest(bob.getId(), SYMBOL, 1_000));
+
+        buyRequest = new TradeRequest(alice.getId(), SYMBOL, 1);
+        aliceSellsToBob = new SellRequest(alice.getId(), SYMBOL, 1, bob.getUsername());
+        bobSellsToAlice = new SellRequest(bob.getId(), SYMBOL, 1, alice.getUsername());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TradeResponse buyStock() {
+        return tradingService.buyStock(buyRequest);
+    }
+
+    @Benchmark
+    public TradeResponse sellStock() {
+        aliceSellsNext = !aliceSellsNext;
+        return tradingService.sellStock(aliceSellsNext ? aliceSellsToBob : bobSellsToAlice);
+    }
+}
@@ -0,0 +1,59 @@
+package com.trading.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram (microseconds) and outcome counts for one endpoint, collected over one measurement interval
+ */
+final class EndpointStats {
+
+    private final String endpoint;
+    private final Recorder latency = new Recorder(3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @param status HTTP status, or 0 if the request failed without a response
+     */
+    void record(long micros, int status) {
+        latency.recordValue(Math.max(1, micros));
+        if (status >= 200 && status < 300) {
+            ok.increment();
+        } else if (status >= 400 && status < 500) {
+            rejected.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Everything recorded since the last call, starting a new interval
+     */
+    Interval next() {
+        Histogram histogram = latency.getIntervalHistogram();
+        return new Interval(endpoint, histogram, ok.sumThenReset(), rejected.sumThenReset(), errors.sumThenReset());
+    }
+
+    /**
+     * @param rejected 4xx responses (validation failures, insufficient balance or shares, ...)
+     * @param errors   5xx responses and requests that got no response
+     */
+    record Interval(String endpoint, Histogram latency, long ok, long rejected, long errors) {
+
+        long requests() {
+            return ok + rejected + errors;
+        }
+    }
+}
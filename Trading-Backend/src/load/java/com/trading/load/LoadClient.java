@@ -0,0 +1,97 @@
+package com.trading.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client for the virtual users, timing every request into its endpoint's {@link EndpointStats}
+ */
+final class LoadClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String baseUrl;
+    private final Map<Workload.Operation, EndpointStats> stats = new EnumMap<>(Workload.Operation.class);
+
+    LoadClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            stats.put(operation, new EndpointStats(operation.endpoint()));
+        }
+    }
+
+    Collection<EndpointStats> getStats() {
+        return stats.values();
+    }
+
+    /**
+     * GET a path, discarding the body
+     */
+    void get(Workload.Operation operation, String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        send(operation, request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    /**
+     * POST a JSON body
+     * @return the response body as JSON (including 4xx bodies), or null if there was no usable response
+     */
+    JsonNode post(Workload.Operation operation, String path, Object body) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+        HttpResponse<byte[]> response = send(operation, request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response == null || response.body() == null || response.body().length == 0) {
+            return null;
+        }
+        try {
+            return mapper.readTree(response.body());
+        } catch (IOException e) {
+            return null; // e.g. a plain-text error message
+        }
+    }
+
+    private <T> HttpResponse<T> send(Workload.Operation operation, HttpRequest request,
+                                     HttpResponse.BodyHandler<T> bodyHandler) {
+        EndpointStats endpoint = stats.get(operation);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<T> response = http.send(request, bodyHandler);
+            endpoint.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), response.statusCode());
+            return response;
+        } catch (IOException e) {
+            endpoint.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), 0);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.trading.load;
+
+import com.trading.TradingPlatformApplication;
+import com.trading.marketdata.SyntheticTicks;
+import com.trading.service.UserService;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Load driver: populations of virtual users running register, buy, sell, portfolio and history requests against
+ * the REST API, reporting throughput, rejection/error rates and latency percentiles per endpoint.
+ *
+ * The run is a series of stages with a growing number of users (e.g. --users=10,50,100), so the point where
+ * throughput stops growing and p99 climbs shows up stage by stage. Each stage ramps up, waits out a warmup,
+ * then measures. Full latency distributions are written per stage and endpoint as HdrHistogram .hgrm files.
+ *
+ * By default an instance is started in-process on the "load" profile (in-memory H2, quotes replayed from
+ * seeded synthetic ticks), and each new user's balance is raised so a long run doesn't drain it. With
+ * --url=http://host:port a running instance is targeted instead.
+ *
+ * Options (--name=value): users, stage-seconds, warmup-seconds, think-ms, mix, symbols, seed, url, report-dir.
+ * Any other --x.y=z option is passed to the embedded application, e.g. --spring.threads.virtual.enabled=true.
+ */
+public final class LoadHarness {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("users", "10,50,100");
+        DEFAULTS.put("stage-seconds", "30");
+        DEFAULTS.put("warmup-seconds", "10");
+        DEFAULTS.put("think-ms", "50");
+        DEFAULTS.put("mix", "buy:30,sell:20,portfolio:30,history:20");
+        DEFAULTS.put("symbols", "200"); // a count of synthetic symbols, or a list such as AAPL,MSFT
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("url", "");
+        DEFAULTS.put("report-dir", "target/load");
+    }
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            if (options.containsKey(pair[0]) && pair.length == 2) {
+                options.put(pair[0], pair[1]);
+            } else if (arg.startsWith("--") && pair[0].contains(".")) {
+                applicationArgs.add(arg);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg + "; options are " + DEFAULTS.keySet());
+            }
+        }
+
+        String symbolsOption = options.get("symbols");
+        boolean syntheticSymbols = symbolsOption.matches("\\d+");
+        List<String> symbols = syntheticSymbols
+                ? SyntheticTicks.symbols(Integer.parseInt(symbolsOption))
+                : Arrays.stream(symbolsOption.split(",")).map(String::trim).toList();
+        long seed = Long.parseLong(options.get("seed"));
+
+        // The services log every trade to stdout; keep the report readable
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("url");
+        Consumer<Long> onRegistered = userId -> { };
+        if (baseUrl.isEmpty()) {
+            if (!syntheticSymbols) {
+                throw new IllegalArgumentException("The embedded instance replays synthetic symbols; pass --symbols=<count>");
+            }
+            applicationArgs.add("--trading.quotes.replay.generate.symbols=" + symbols.size());
+            applicationArgs.add("--trading.quotes.replay.generate.seed=" + seed);
+            context = new SpringApplicationBuilder(TradingPlatformApplication.class)
+                    .profiles("load")
+                    .run(applicationArgs.toArray(new String[0]));
+            baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            UserService userService = context.getBean(UserService.class);
+            onRegistered = userId -> userService.updateBalance(userId, BigDecimal.valueOf(1_000_000_000L));
+        }
+
+        LoadClient client = new LoadClient(baseUrl);
+        Workload workload = new Workload(symbols, Workload.parseMix(options.get("mix")),
+                Long.parseLong(options.get("think-ms")), onRegistered);
+        Path reportDir = Path.of(options.get("report-dir"));
+        Files.createDirectories(reportDir);
+        long stageMillis = Long.parseLong(options.get("stage-seconds")) * 1000;
+        long warmupMillis = Long.parseLong(options.get("warmup-seconds")) * 1000;
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        out.printf("Load run %s against %s: mix %s, think %s ms, %d symbols%n",
+                runId, baseUrl, options.get("mix"), options.get("think-ms"), symbols.size());
+
+        List<VirtualUser> users = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        try {
+            int stage = 0;
+            for (String stageUsers : options.get("users").split(",")) {
+                stage++;
+                int target = Integer.parseInt(stageUsers.trim());
+                while (users.size() < target) {
+                    int index = users.size();
+                    VirtualUser user = new VirtualUser("vu" + runId + "-" + index, client, workload, seed + index);
+                    Thread thread = new Thread(user, "virtual-user-" + index);
+                    thread.setDaemon(true);
+                    users.add(user);
+                    threads.add(thread);
+                    thread.start();
+                }
+                while (users.size() > target) {
+                    users.remove(users.size() - 1).stop();
+                    threads.remove(threads.size() - 1).interrupt();
+                }
+
+                Thread.sleep(warmupMillis);
+                client.getStats().forEach(EndpointStats::next);
+                long start = System.nanoTime();
+                Thread.sleep(stageMillis);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                List<EndpointStats.Interval> intervals = client.getStats().stream().map(EndpointStats::next).toList();
+                report(out, stage, target, seconds, intervals);
+                writeHistograms(reportDir, stage, target, intervals);
+            }
+        } finally {
+            users.forEach(VirtualUser::stop);
+            threads.forEach(Thread::interrupt);
+            if (context != null) {
+                context.close();
+            }
+        }
+        out.printf("Latency distributions written to %s%n", reportDir.toAbsolutePath());
+    }
+
+    private static void report(PrintStream out, int stage, int users, double seconds,
+                               List<EndpointStats.Interval> intervals) {
+        out.printf("%nStage %d: %d users, %.0f s measured%n", stage, users, seconds);
+        out.printf("%-10s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "rejected", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long trades = 0;
+        for (EndpointStats.Interval interval : intervals) {
+            if (interval.requests() == 0) {
+                continue;
+            }
+            Histogram latency = interval.latency();
+            out.printf("%-10s %9d %9.1f %8.2f%% %8.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    interval.endpoint(),
+                    interval.requests(),
+                    interval.requests() / seconds,
+                    100.0 * interval.rejected() / interval.requests(),
+                    100.0 * interval.errors() / interval.requests(),
+                    millis(latency.getValueAtPercentile(50)),
+                    millis(latency.getValueAtPercentile(90)),
+                    millis(latency.getValueAtPercentile(99)),
+                    millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMaxValue()));
+            if (interval.endpoint().equals("buy") || interval.endpoint().equals("sell")) {
+                trades += interval.ok();
+            }
+        }
+        out.printf("Trades/s (successful buys + sells): %.1f%n", trades / seconds);
+    }
+
+    private static void writeHistograms(Path reportDir, int stage, int users,
+                                        List<EndpointStats.Interval> intervals) throws IOException {
+        for (EndpointStats.Interval interval : intervals) {
+            if (interval.requests() == 0) {
+                continue;
+            }
+            Path file = reportDir.resolve("stage" + stage + "-" + users + "u-" + interval.endpoint() + ".hgrm");
+            try (PrintStream stream = new PrintStream(Files.newOutputStream(file))) {
+                // Recorded in microseconds, reported in milliseconds
+                interval.latency().outputPercentileDistribution(stream, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
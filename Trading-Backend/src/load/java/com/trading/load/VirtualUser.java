@@ -0,0 +1,102 @@
+package com.trading.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * One simulated trader: registers, then loops over buy / sell / portfolio / history requests drawn from the
+ * workload mix, pausing for the think time between requests. Sells go to another registered virtual user
+ * (sales are peer to peer) and only sell shares this user bought, so they don't fail for lack of shares.
+ */
+final class VirtualUser implements Runnable {
+
+    private final String username;
+    private final LoadClient client;
+    private final Workload workload;
+    private final SplittableRandom random;
+    private final Map<String, Integer> holdings = new HashMap<>();
+
+    private volatile boolean running = true;
+    private Long userId;
+
+    VirtualUser(String username, LoadClient client, Workload workload, long seed) {
+        this.username = username;
+        this.client = client;
+        this.workload = workload;
+        this.random = new SplittableRandom(seed);
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        if (!register()) {
+            return;
+        }
+        while (running) {
+            switch (workload.nextOperation(random)) {
+                case BUY -> buy();
+                case SELL -> sell();
+                case PORTFOLIO -> client.get(Workload.Operation.PORTFOLIO, "/api/trading/portfolio/" + userId);
+                case HISTORY -> client.get(Workload.Operation.HISTORY, "/api/trading/transactions/" + userId);
+                default -> throw new IllegalStateException();
+            }
+            if (!workload.think()) {
+                return;
+            }
+        }
+    }
+
+    private boolean register() {
+        for (int attempt = 0; attempt < 3 && running; attempt++) {
+            JsonNode user = client.post(Workload.Operation.REGISTER, "/api/users/register", Map.of(
+                    "username", username,
+                    "email", username + "@load.local",
+                    "password", "password"));
+            if (user != null && user.hasNonNull("id")) {
+                userId = user.get("id").asLong();
+                workload.registered(userId, username);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void buy() {
+        String symbol = workload.randomSymbol(random);
+        int quantity = 1 + random.nextInt(5);
+        JsonNode response = client.post(Workload.Operation.BUY, "/api/trading/buy", Map.of(
+                "userId", userId,
+                "symbol", symbol,
+                "quantity", quantity));
+        if (response != null && response.path("success").asBoolean()) {
+            holdings.merge(symbol, quantity, Integer::sum);
+        }
+    }
+
+    private void sell() {
+        String buyer = workload.randomPeer(random, username);
+        if (holdings.isEmpty() || buyer == null) {
+            buy();
+            return;
+        }
+        List<String> held = new ArrayList<>(holdings.keySet());
+        String symbol = held.get(random.nextInt(held.size()));
+        int quantity = 1 + random.nextInt(holdings.get(symbol));
+        JsonNode response = client.post(Workload.Operation.SELL, "/api/trading/sell", Map.of(
+                "userId", userId,
+                "symbol", symbol,
+                "quantity", quantity,
+                "sellerName", buyer));
+        if (response != null && response.path("success").asBoolean()) {
+            holdings.computeIfPresent(symbol, (s, owned) -> owned > quantity ? owned - quantity : null);
+        }
+    }
+}
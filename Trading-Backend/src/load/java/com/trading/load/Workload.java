@@ -0,0 +1,120 @@
+package com.trading.load;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * What the virtual users do: the operation mix, the symbols they trade and the think time between requests.
+ * Also the directory of registered users, which sells pick their buyer from.
+ */
+final class Workload {
+
+    enum Operation {
+        REGISTER, BUY, SELL, PORTFOLIO, HISTORY;
+
+        String endpoint() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final List<String> symbols;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final long thinkMillis;
+    private final Consumer<Long> onRegistered;
+    private final List<String> usernames = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param mix          weight per operation after registering, e.g. buy 30, sell 20, portfolio 30, history 20
+     * @param onRegistered called with each new user's id, e.g. to fund the account
+     */
+    Workload(List<String> symbols, Map<Operation, Integer> mix, long thinkMillis, Consumer<Long> onRegistered) {
+        this.symbols = List.copyOf(symbols);
+        this.thinkMillis = thinkMillis;
+        this.onRegistered = onRegistered;
+        List<Operation> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                weighted.add(entry.getKey());
+                cumulative.add(total);
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The operation mix needs at least one positive weight");
+        }
+        this.operations = weighted.toArray(new Operation[0]);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Parse a mix like "buy:30,sell:20,portfolio:30,history:20"
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            Operation operation = Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+            if (operation == Operation.REGISTER) {
+                throw new IllegalArgumentException("Each virtual user registers once; register can't be in the mix");
+            }
+            weights.put(operation, Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    Operation nextOperation(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    String randomSymbol(SplittableRandom random) {
+        return symbols.get(random.nextInt(symbols.size()));
+    }
+
+    /**
+     * Another registered user, or null if there is none yet
+     */
+    String randomPeer(SplittableRandom random, String self) {
+        int count = usernames.size();
+        if (count < 2) {
+            return null;
+        }
+        String peer = usernames.get(random.nextInt(count));
+        return peer.equals(self) ? usernames.get((usernames.indexOf(peer) + 1) % count) : peer;
+    }
+
+    void registered(Long userId, String username) {
+        onRegistered.accept(userId);
+        usernames.add(username);
+    }
+
+    /**
+     * Pause between requests; false if the virtual user was interrupted and should stop
+     */
+    boolean think() {
+        if (thinkMillis <= 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        try {
+            Thread.sleep(thinkMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
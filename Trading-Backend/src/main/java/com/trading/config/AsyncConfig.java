@@ -0,0 +1,63 @@
+package com.trading.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration for executors used to run blocking calls in parallel.
+ *
+ * With spring.threads.virtual.enabled=true (Java 21+) Tomcat runs each request on its own virtual thread,
+ * and quote fetches below do the same, so blocking on JDBC or Finnhub no longer ties up a pooled thread.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Executor for fanning out quote fetches (e.g. valuing every holding in a portfolio at once)
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public TaskExecutor quoteExecutor(@Value("${trading.quote-executor.pool-size:16}") int poolSize,
+                                      @Value("${trading.quote-executor.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("quote-fetch-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor running price tick listeners (P&L, leaderboard, candles, portfolio view), off the thread that
+     * loaded the quote - for the reactive API a Netty event loop. One thread, so a symbol's ticks apply in order.
+     */
+    @Bean
+    public TaskExecutor tickExecutor(@Value("${trading.tick-executor.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("price-tick-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * One virtual thread per quote fetch. No pool to size: concurrent fetches of a symbol are
+     * already coalesced by the quote cache.
+     */
+    @Bean(name = "quoteExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualQuoteExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("quote-fetch-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
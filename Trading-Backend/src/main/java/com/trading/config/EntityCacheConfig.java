@@ -0,0 +1,135 @@
+package com.trading.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.trading.model.Portfolio;
+import com.trading.model.User;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache for User and Portfolio.
+ *
+ * Entities read by id, users looked up by username and holdings looked up by (userId, symbol) - their natural
+ * ids - are served from bounded in-process Caffeine caches instead of the database. Regions are read-write: an
+ * entity changed by a transaction is locked in the cache from flush until after commit, so readers fall through
+ * to the database in between and never see a value older than the last commit. Reads that lock rows
+ * (SELECT ... FOR UPDATE) always go to the database.
+ *
+ * Each entity can be switched off on its own (trading.entity-cache.user.enabled / portfolio.enabled).
+ * Everything here assumes this instance is the only writer, as for the portfolio view.
+ */
+@Configuration
+@ConditionalOnProperty(name = "trading.entity-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class EntityCacheConfig {
+
+    public static final String USER_REGION = "users";
+    public static final String USERNAME_REGION = "users-by-username"; // see @NaturalIdCache on User
+    public static final String PORTFOLIO_REGION = "portfolio";
+    public static final String HOLDING_REGION = "portfolio-by-user-symbol"; // see @NaturalIdCache on Portfolio
+
+    @Value("${trading.entity-cache.user.enabled:true}")
+    private boolean userEnabled;
+
+    @Value("${trading.entity-cache.user.max-entries:10000}")
+    private long userMaxEntries;
+
+    @Value("${trading.entity-cache.portfolio.enabled:true}")
+    private boolean portfolioEnabled;
+
+    @Value("${trading.entity-cache.portfolio.max-entries:50000}")
+    private long portfolioMaxEntries;
+
+    /**
+     * Cache manager holding the regions; Hibernate uses it instead of creating its own
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("trading-entity-cache"), getClass().getClassLoader());
+        if (userEnabled) {
+            createRegion(cacheManager, USER_REGION, userMaxEntries);
+            createRegion(cacheManager, USERNAME_REGION, userMaxEntries);
+        } else {
+            createDisabledRegion(cacheManager, USERNAME_REGION);
+        }
+        if (portfolioEnabled) {
+            createRegion(cacheManager, PORTFOLIO_REGION, portfolioMaxEntries);
+            createRegion(cacheManager, HOLDING_REGION, portfolioMaxEntries);
+        } else {
+            createDisabledRegion(cacheManager, HOLDING_REGION);
+        }
+        return cacheManager;
+    }
+
+    /**
+     * Regions of the cached entities, each bounded by its max-entries (a disabled entity's natural id region
+     * exists but keeps nothing, so it isn't listed)
+     */
+    public List<String> getCachedRegions() {
+        List<String> regions = new ArrayList<>();
+        if (userEnabled) {
+            regions.add(USER_REGION);
+            regions.add(USERNAME_REGION);
+        }
+        if (portfolioEnabled) {
+            regions.add(PORTFOLIO_REGION);
+            regions.add(HOLDING_REGION);
+        }
+        return regions;
+    }
+
+    /**
+     * Turn on the second-level cache and mark the enabled entities as cached
+     * (hibernate.classcache.* rather than @Cache on the entities, so each can be switched off by property)
+     */
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheProperties(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", entityCacheManager);
+            // Fail on a region that isn't created above instead of silently adding an unbounded one
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            // Hit/miss counts per region (see EntityCacheMetrics)
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            if (userEnabled) {
+                properties.put(AvailableSettings.CLASS_CACHE_PREFIX + "." + User.class.getName(),
+                        "read-write," + USER_REGION);
+            }
+            if (portfolioEnabled) {
+                properties.put(AvailableSettings.CLASS_CACHE_PREFIX + "." + Portfolio.class.getName(),
+                        "read-write," + PORTFOLIO_REGION);
+            }
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        cacheManager.createCache(name, configuration);
+    }
+
+    /**
+     * @NaturalIdCache needs its region to exist even when the entity isn't cached; this one keeps nothing
+     * (entries expire as they are created)
+     */
+    private static void createDisabledRegion(CacheManager cacheManager, String name) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(Duration.ZERO));
+        cacheManager.createCache(name, configuration);
+    }
+}
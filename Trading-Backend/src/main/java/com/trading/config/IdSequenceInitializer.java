@@ -0,0 +1,66 @@
+package com.trading.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences past existing rows on startup.
+ *
+ * Entity ids come from pooled sequences (emulated with *_seq tables on MySQL) rather than IDENTITY columns:
+ * Hibernate can't JDBC-batch inserts whose ids are generated by the insert itself, while a pooled sequence
+ * hands out 50 ids per round trip. The users, portfolio and transactions tables predate this, and databases
+ * created while their ids were IDENTITY columns already hold rows, so without this a fresh sequence would hand
+ * out ids that are taken. Runs before the web server starts accepting requests.
+ */
+@Component
+public class IdSequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    // Must match allocationSize on the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Entity table -> sequence table
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "users", "users_seq",
+            "portfolio", "portfolio_seq",
+            "transactions", "transactions_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory dependency makes sure the schema (and the sequence tables) exist first
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (database == null || !database.toLowerCase().contains("mysql")) {
+            return;
+        }
+
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            if (maxId == null || maxId == 0) {
+                return;
+            }
+            // The pooled optimizer hands out (next_val - ALLOCATION_SIZE, next_val], so next_val must clear maxId by a full block
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?",
+                    maxId + ALLOCATION_SIZE + 1, maxId + ALLOCATION_SIZE);
+            if (updated > 0) {
+                log.info("Advanced id sequence {} past existing max id {}", sequence, maxId);
+            }
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.trading.config;
+
+import com.trading.marketdata.ReplayQuoteSource;
+import com.trading.marketdata.SyntheticTicks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configuration for the quote source used instead of the Finnhub API.
+ *
+ * With trading.quotes.source=replay, quotes are replayed from tick files (see {@link ReplayQuoteSource}),
+ * so runs don't depend on Finnhub or on random mock prices. Missing files can be generated from a fixed seed.
+ */
+@Configuration
+public class MarketDataConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketDataConfig.class);
+
+    /**
+     * @param speed           1 for real time, N for N times faster, or max to advance one tick per quote
+     * @param generateSymbols if above zero, synthetic tick files are written for SYM00000.. up to this many
+     *                        symbols (existing files are kept), reproducibly from the seed
+     */
+    @Bean
+    @ConditionalOnProperty(name = "trading.quotes.source", havingValue = "replay")
+    public ReplayQuoteSource replayQuoteSource(@Value("${trading.quotes.replay.dir:data/ticks}") Path dir,
+                                               @Value("${trading.quotes.replay.speed:1}") String speed,
+                                               @Value("${trading.quotes.replay.loop:true}") boolean loop,
+                                               @Value("${trading.quotes.replay.generate.symbols:0}") int generateSymbols,
+                                               @Value("${trading.quotes.replay.generate.ticks:10000}") int generateTicks,
+                                               @Value("${trading.quotes.replay.generate.interval-ms:1000}") long generateIntervalMillis,
+                                               @Value("${trading.quotes.replay.generate.seed:42}") long seed) throws IOException {
+        if (generateSymbols > 0) {
+            int written = SyntheticTicks.generate(dir, SyntheticTicks.symbols(generateSymbols), generateTicks,
+                    generateIntervalMillis, seed);
+            log.info("Generated {} synthetic tick files in {} (seed {})", written, dir, seed);
+        }
+        ReplayQuoteSource source = new ReplayQuoteSource(dir,
+                speed.equalsIgnoreCase("max") ? 0 : Double.parseDouble(speed), loop);
+        log.info("Replaying quotes for {} symbols from {} at speed {}", source.countSymbols(), dir, speed);
+        return source;
+    }
+}
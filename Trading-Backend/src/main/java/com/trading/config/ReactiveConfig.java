@@ -0,0 +1,104 @@
+package com.trading.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.persistence.Column;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mapping.model.Property;
+import org.springframework.data.mapping.model.SimpleTypeHolder;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.relational.RelationalManagedTypes;
+import org.springframework.data.relational.core.mapping.BasicRelationalPersistentProperty;
+import org.springframework.data.relational.core.mapping.NamingStrategy;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Configuration for the "reactive" profile: WebFlux on Netty with R2DBC repositories.
+ *
+ * The R2DBC repositories map the JPA entity classes, reading table, column and id mappings
+ * from their jakarta.persistence annotations, so both stacks share one schema.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig implements WebFluxConfigurer {
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping("/api/**")
+                .allowedOrigins("*")
+                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedHeaders("*")
+                .maxAge(3600);
+    }
+
+    /**
+     * Spring Boot skips the JDBC DataSource once an R2DBC ConnectionFactory exists; JPA still needs it here
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * R2DBC mapping that honours the entities' JPA annotations: @Table and @Column names, and @Id
+     */
+    @Bean
+    public R2dbcMappingContext r2dbcMappingContext(R2dbcCustomConversions conversions, RelationalManagedTypes managedTypes) {
+        NamingStrategy namingStrategy = new NamingStrategy() {
+            @Override
+            public String getTableName(Class<?> type) {
+                Table table = type.getAnnotation(Table.class);
+                return table != null && !table.name().isEmpty() ? table.name() : NamingStrategy.super.getTableName(type);
+            }
+
+            @Override
+            public String getColumnName(RelationalPersistentProperty property) {
+                Column column = property.findAnnotation(Column.class);
+                return column != null && !column.name().isEmpty() ? column.name() : NamingStrategy.super.getColumnName(property);
+            }
+        };
+        R2dbcMappingContext context = new R2dbcMappingContext(namingStrategy) {
+            @Override
+            protected RelationalPersistentProperty createPersistentProperty(Property property, RelationalPersistentEntity<?> owner,
+                                                                            SimpleTypeHolder simpleTypeHolder) {
+                return new BasicRelationalPersistentProperty(property, owner, simpleTypeHolder, namingStrategy) {
+                    @Override
+                    public boolean isIdProperty() {
+                        return super.isIdProperty() || isAnnotationPresent(Id.class);
+                    }
+                };
+            }
+        };
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.setManagedTypes(managedTypes);
+        return context;
+    }
+
+    /**
+     * Transactions for the R2DBC side. The transaction manager is deliberately not a bean:
+     * a second TransactionManager bean would stop Spring Boot from creating the JPA one.
+     */
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
@@ -0,0 +1,143 @@
+package com.trading.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write routing between the primary database and a read replica.
+ *
+ * The application's DataSource hands out lazy connections: the physical one is fetched on first use, once the
+ * transaction is known to be read-only or not. Read-only transactions (@Transactional(readOnly = true), and
+ * Spring Data's own read methods called outside a transaction) get theirs from {@link ReplicaRoutingDataSource},
+ * which picks the replica unless it is too far behind; everything else stays on the primary. Each side has its
+ * own Hikari pool ("primary", "replica"), so pool usage per route shows up in the hikaricp.connections metrics.
+ *
+ * Reads that seed in-memory state or gate a trade run in read-write transactions to stay on the primary.
+ * Read-only transactions don't add to the second-level cache, which only ever holds what the primary returned.
+ */
+@Configuration
+@ConditionalOnProperty(name = "trading.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Value("${trading.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${trading.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${trading.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${trading.datasource.replica.max-lag-seconds:5}")
+    private long maxLagSeconds;
+
+    @Value("${trading.datasource.replica.lag-check-interval-ms:1000}")
+    private long lagCheckIntervalMillis;
+
+    @Value("${trading.datasource.replica.lag-query:SHOW REPLICA STATUS}")
+    private String lagQuery;
+
+    @Value("${trading.datasource.replica.lag-column:Seconds_Behind_Source}")
+    private String lagColumn;
+
+    /**
+     * The primary pool, configured by spring.datasource.* as without routing
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("trading.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaUrl)
+                .username(replicaUsername)
+                .password(replicaPassword)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             HikariDataSource replicaDataSource) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, maxLagSeconds,
+                lagCheckIntervalMillis, lagQuery, lagColumn);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        ReplicaAwareTransactionManager transactionManager = new ReplicaAwareTransactionManager();
+        // The TransactionManager overload: the PlatformTransactionManager one is deprecated for removal
+        transactionManagerCustomizers.ifAvailable(
+                customizers -> customizers.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+
+    /**
+     * JPA transaction manager whose read-only transactions read the second-level cache but don't put to it,
+     * since what they load may come from a replica that is behind the primary
+     */
+    static class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            super.doBegin(transaction, definition);
+            if (definition.isReadOnly()) {
+                currentSession().setCacheMode(CacheMode.GET);
+            }
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            // Before the session is closed or handed back to an outer scope
+            Session session = currentSession();
+            if (session != null && session.getCacheMode() == CacheMode.GET) {
+                session.setCacheMode(CacheMode.NORMAL);
+            }
+            super.doCleanupAfterCompletion(transaction);
+        }
+
+        private Session currentSession() {
+            EntityManagerHolder holder =
+                    (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+            return holder == null ? null : holder.getEntityManager().unwrap(Session.class);
+        }
+    }
+}
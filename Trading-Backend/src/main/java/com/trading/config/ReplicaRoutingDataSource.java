@@ -0,0 +1,179 @@
+package com.trading.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connections for read-only transactions: from the replica while it is reachable and no more than
+ * max-lag-seconds behind the primary, otherwise from the primary.
+ *
+ * Lag is polled on a background thread with the lag query (SHOW REPLICA STATUS by default). No row means the
+ * database isn't replicating - a standalone copy, as when testing with two local instances - and counts as
+ * current; a NULL lag (replication stopped) or a failed query counts as too far behind. A replica connection
+ * that can't be had in time (pool exhausted or replica down) also falls back to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /** Lag reported while it is unknown */
+    public static final long UNKNOWN_LAG = -1;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagSeconds;
+    private final long checkIntervalMillis;
+    private final String lagQuery;
+    private final String lagColumn;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private volatile long lagSeconds = UNKNOWN_LAG;
+    private volatile boolean replicaCurrent;
+    private volatile boolean running;
+    private Thread lagChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxLagSeconds,
+                                    long checkIntervalMillis, String lagQuery, String lagColumn) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+    }
+
+    /**
+     * Check the lag once, so routing starts from a known state, then keep checking in the background
+     */
+    public void start() {
+        checkLag();
+        if (!replicaCurrent) {
+            log.warn("Read-only transactions start on the primary: replica lag {}", describeLag(lagSeconds));
+        }
+        running = true;
+        lagChecker = new Thread(this::runLagChecks, "replica-lag-check");
+        lagChecker.setDaemon(true);
+        lagChecker.start();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        if (lagChecker != null) {
+            lagChecker.interrupt();
+            lagChecker.join();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * A connection from the replica while it is current and can give one, otherwise from the primary
+     */
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (replicaCurrent) {
+            try {
+                Connection connection = source.connect(replica);
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                log.debug("No replica connection, reading from the primary: {}", e.getMessage());
+            }
+        }
+        primaryReads.increment();
+        return source.connect(primary);
+    }
+
+    /**
+     * Read-only transactions given a replica connection so far
+     */
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    /**
+     * Read-only transactions sent to the primary so far because the replica was behind or unavailable
+     */
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    /**
+     * Replication lag in seconds at the last check, 0 for a replica that isn't replicating,
+     * or {@link #UNKNOWN_LAG} if replication is stopped or the replica couldn't be queried
+     */
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public boolean isReplicaCurrent() {
+        return replicaCurrent;
+    }
+
+    private void runLagChecks() {
+        while (running) {
+            try {
+                Thread.sleep(checkIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            checkLag();
+        }
+    }
+
+    private void checkLag() {
+        long lag;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(lagQuery)) {
+            if (result.next()) {
+                lag = result.getLong(lagColumn);
+                if (result.wasNull()) {
+                    lag = UNKNOWN_LAG;
+                }
+            } else {
+                lag = 0;
+            }
+        } catch (SQLException e) {
+            log.debug("Replica lag check failed: {}", e.getMessage());
+            lag = UNKNOWN_LAG;
+        }
+
+        boolean current = lag != UNKNOWN_LAG && lag <= maxLagSeconds;
+        if (current != replicaCurrent) {
+            if (current) {
+                log.info("Read-only transactions use the replica (lag {} s)", lag);
+            } else {
+                log.warn("Read-only transactions fall back to the primary: replica lag {}", describeLag(lag));
+            }
+        }
+        lagSeconds = lag;
+        replicaCurrent = current;
+    }
+
+    private static String describeLag(long lag) {
+        return lag == UNKNOWN_LAG ? "unknown" : lag + " s";
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,21 @@
+package com.trading.config;
+
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+/**
+ * Configuration for Spring Data repository scanning.
+ *
+ * The reactive (R2DBC) repositories map the JPA entity classes too, so JPA would otherwise
+ * claim them and fail; they are picked up by R2DBC under the "reactive" profile only.
+ */
+@Configuration
+@EnableJpaRepositories(
+        basePackages = "com.trading.repository",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class)
+)
+public class RepositoryConfig {
+}
@@ -0,0 +1,44 @@
+package com.trading.controller;
+
+import com.trading.service.LeaderboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST Controller for user rankings
+ */
+@RestController
+@RequestMapping("/api/leaderboard")
+@Profile("!reactive")
+@Tag(name = "Leaderboard", description = "APIs for ranking users by portfolio value and return")
+public class LeaderboardController {
+
+    // Absent when trading.leaderboard.enabled=false or trading.pnl.enabled=false
+    @Autowired(required = false)
+    private LeaderboardService leaderboardService;
+
+    /**
+     * Get the top users
+     */
+    @GetMapping
+    @Operation(
+        summary = "Get leaderboard",
+        description = "Top users by equity (cash plus holdings at the latest prices) and by return on their holdings. " +
+                "Rankings are kept up to date as trades and price ticks happen, so reading them doesn't scan users."
+    )
+    public ResponseEntity<?> getLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+        if (leaderboardService == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Leaderboard is disabled"
+            ));
+        }
+        return ResponseEntity.ok(leaderboardService.getLeaderboard(limit));
+    }
+}
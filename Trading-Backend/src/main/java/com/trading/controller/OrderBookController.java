@@ -0,0 +1,91 @@
+package com.trading.controller;
+
+import com.trading.dto.LimitOrderRequest;
+import com.trading.dto.OrderResponse;
+import com.trading.service.OrderBookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST Controller for limit order trading through the order book
+ */
+@RestController
+@RequestMapping("/api/orderbook")
+@Profile("!reactive")
+@Tag(name = "Order Book", description = "APIs for placing and cancelling limit orders matched by price-time priority")
+public class OrderBookController {
+
+    // Absent when trading.journal.enabled=false
+    @Autowired(required = false)
+    private OrderBookService orderBookService;
+
+    /**
+     * Submit a limit order
+     */
+    @PostMapping("/orders")
+    @Operation(
+        summary = "Submit a limit order",
+        description = "Place a BUY or SELL limit order. The order matches against resting orders at the best prices first " +
+                "(earliest order first at each price); any remainder rests in the book. Cash or shares are reserved " +
+                "until the order is filled or cancelled; fills are journaled before the response is sent. Requires the trade journal."
+    )
+    public ResponseEntity<?> submitOrder(@Valid @RequestBody LimitOrderRequest request) {
+        if (orderBookService == null) {
+            return disabled();
+        }
+        try {
+            return ResponseEntity.ok(orderBookService.submitOrder(request));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Cancel a resting limit order
+     */
+    @DeleteMapping("/orders/{symbol}/{orderId}")
+    @Operation(summary = "Cancel a limit order", description = "Remove a resting order from the book and release its reservation")
+    public ResponseEntity<?> cancelOrder(@PathVariable String symbol, @PathVariable Long orderId, @RequestParam Long userId) {
+        if (orderBookService == null) {
+            return disabled();
+        }
+        try {
+            OrderResponse response = orderBookService.cancelOrder(symbol, orderId, userId);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Get order book depth
+     */
+    @GetMapping("/{symbol}")
+    @Operation(summary = "Get order book depth", description = "Aggregated bid and ask levels for a symbol, best prices first")
+    public ResponseEntity<?> getOrderBook(@PathVariable String symbol, @RequestParam(defaultValue = "10") int levels) {
+        if (orderBookService == null) {
+            return disabled();
+        }
+        return ResponseEntity.ok(orderBookService.getOrderBook(symbol, Math.max(1, Math.min(levels, 100))));
+    }
+
+    private static ResponseEntity<?> disabled() {
+        return ResponseEntity.badRequest().body(Map.of(
+            "success", false,
+            "message", "Order book requires trading.journal.enabled=true"
+        ));
+    }
+}
@@ -0,0 +1,89 @@
+package com.trading.controller;
+
+import com.trading.dto.CandleSeries;
+import com.trading.dto.QuoteCacheStats;
+import com.trading.dto.StockQuote;
+import com.trading.engine.CandleInterval;
+import com.trading.service.CandleService;
+import com.trading.service.FinnhubService;
+import com.trading.service.QuoteStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Non-blocking Stock API for the "reactive" profile (same paths and responses as StockController)
+ */
+@RestController
+@RequestMapping("/api/stocks")
+@Profile("reactive")
+public class ReactiveStockController {
+
+    @Autowired
+    private FinnhubService finnhubService;
+
+    @Autowired
+    private QuoteStreamService quoteStreamService;
+
+    // Absent when trading.candles.enabled=false
+    @Autowired(required = false)
+    private CandleService candleService;
+
+    @Value("${trading.stream.max-symbols:50}")
+    private int maxStreamSymbols;
+
+    /**
+     * Get stock quote by symbol
+     */
+    @GetMapping("/quote/{symbol}")
+    public Mono<ResponseEntity<StockQuote>> getStockQuote(@PathVariable String symbol) {
+        return finnhubService.getStockQuoteReactive(symbol)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().build()));
+    }
+
+    /**
+     * Stream live stock quotes
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<StockQuote>> streamQuotes(@RequestParam List<String> symbols) {
+        if (symbols.isEmpty() || symbols.size() > maxStreamSymbols) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(quoteStreamService.subscribe(symbols));
+    }
+
+    /**
+     * Get quote cache statistics
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<QuoteCacheStats> getCacheStats() {
+        return ResponseEntity.ok(finnhubService.getCacheStats());
+    }
+
+    /**
+     * Get OHLCV candles
+     */
+    @GetMapping("/{symbol}/candles")
+    public ResponseEntity<CandleSeries> getCandles(@PathVariable String symbol,
+                                                   @RequestParam(defaultValue = "1m") String interval,
+                                                   @RequestParam(defaultValue = "100") int limit) {
+        if (candleService == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<CandleInterval> candleInterval = CandleInterval.fromLabel(interval);
+        if (candleInterval.isEmpty() || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(candleService.getCandles(symbol, candleInterval.get(),
+                Math.min(limit, candleService.getBarsPerInterval())));
+    }
+}
@@ -0,0 +1,77 @@
+package com.trading.controller;
+
+import com.trading.dto.SellRequest;
+import com.trading.dto.TradeRequest;
+import com.trading.dto.TradeResponse;
+import com.trading.service.ReactiveTradingService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking Trading API for the "reactive" profile (same paths and responses as TradingController)
+ */
+@RestController
+@RequestMapping("/api/trading")
+@Profile("reactive")
+public class ReactiveTradingController {
+
+    @Autowired
+    private ReactiveTradingService tradingService;
+
+    /**
+     * Buy stocks
+     */
+    @PostMapping("/buy")
+    public Mono<ResponseEntity<TradeResponse>> buyStock(@Valid @RequestBody TradeRequest request) {
+        return tradingService.buyStock(request)
+                .map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.badRequest()
+                        .body(new TradeResponse(false, e.getMessage(), null, null, null, null, null))));
+    }
+
+    /**
+     * Sell stocks
+     */
+    @PostMapping("/sell")
+    public Mono<ResponseEntity<TradeResponse>> sellStock(@Valid @RequestBody SellRequest request) {
+        return tradingService.sellStock(request)
+                .map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.badRequest()
+                        .body(new TradeResponse(false, e.getMessage(), null, null, null, null, null))));
+    }
+
+    /**
+     * Get user portfolio
+     */
+    @GetMapping("/portfolio/{userId}")
+    public Mono<ResponseEntity<?>> getUserPortfolio(@PathVariable Long userId) {
+        return tradingService.getUserPortfolio(userId)
+                .collectList()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class, e -> Mono.just(badRequest(e)));
+    }
+
+    /**
+     * Get user transaction history, written out as rows are read
+     */
+    @GetMapping("/transactions/{userId}")
+    public Mono<ResponseEntity<?>> getUserTransactions(@PathVariable Long userId) {
+        // Validate the user first so a missing user fails before any output is written
+        return tradingService.requireUser(userId)
+                .<ResponseEntity<?>>thenReturn(ResponseEntity.ok(tradingService.getUserTransactions(userId)))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(badRequest(e)));
+    }
+
+    private static ResponseEntity<?> badRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(Map.of(
+            "success", false,
+            "message", e.getMessage()
+        ));
+    }
+}
@@ -0,0 +1,54 @@
+package com.trading.controller;
+
+import com.trading.dto.UserRegistrationRequest;
+import com.trading.model.User;
+import com.trading.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking User API for the "reactive" profile (same paths and responses as UserController)
+ */
+@RestController
+@RequestMapping("/api/users")
+@Profile("reactive")
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    /**
+     * Register a new user
+     */
+    @PostMapping("/register")
+    public Mono<ResponseEntity<?>> registerUser(@Valid @RequestBody UserRegistrationRequest request) {
+        return userService.registerUser(request)
+                .<ResponseEntity<?>>map(user -> ResponseEntity.status(HttpStatus.CREATED).body(user))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage())));
+    }
+
+    /**
+     * Get user by ID
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<User>> getUserById(@PathVariable Long id) {
+        return userService.getUserById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get user by username
+     */
+    @GetMapping("/username/{username}")
+    public Mono<ResponseEntity<User>> getUserByUsername(@PathVariable String username) {
+        return userService.getUserByUsername(username)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
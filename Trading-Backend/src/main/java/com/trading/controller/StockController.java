@@ -1,24 +1,47 @@
 package com.trading.controller;
 
+import com.trading.dto.CandleSeries;
+import com.trading.dto.QuoteCacheStats;
 import com.trading.dto.StockQuote;
+import com.trading.engine.CandleInterval;
+import com.trading.service.CandleService;
 import com.trading.service.FinnhubService;
+import com.trading.service.QuoteStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
 
 /**
  * REST Controller for Stock Market Data
  */
 @RestController
 @RequestMapping("/api/stocks")
+@Profile("!reactive")
 @Tag(name = "Stock Market", description = "APIs for retrieving stock market data")
 public class StockController {
 
     @Autowired
     private FinnhubService finnhubService;
 
+    @Autowired
+    private QuoteStreamService quoteStreamService;
+
+    // Absent when trading.candles.enabled=false
+    @Autowired(required = false)
+    private CandleService candleService;
+
+    @Value("${trading.stream.max-symbols:50}")
+    private int maxStreamSymbols;
+
     /**
      * Get stock quote by symbol
      */
@@ -35,4 +58,55 @@ public class StockController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    /**
+     * Stream live stock quotes
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream live stock quotes",
+        description = "Server-sent events stream of quote updates for the given symbols (e.g., ?symbols=AAPL,MSFT). " +
+                "Replaces polling the quote endpoint; all subscribers to a symbol share one upstream poll."
+    )
+    public ResponseEntity<Flux<StockQuote>> streamQuotes(@RequestParam List<String> symbols) {
+        if (symbols.isEmpty() || symbols.size() > maxStreamSymbols) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(quoteStreamService.subscribe(symbols));
+    }
+
+    /**
+     * Get quote cache statistics
+     */
+    @GetMapping("/cache/stats")
+    @Operation(
+        summary = "Get quote cache statistics",
+        description = "Hit, miss, coalesced and eviction counters for the per-symbol quote cache"
+    )
+    public ResponseEntity<QuoteCacheStats> getCacheStats() {
+        return ResponseEntity.ok(finnhubService.getCacheStats());
+    }
+
+    /**
+     * Get OHLCV candles
+     */
+    @GetMapping("/{symbol}/candles")
+    @Operation(
+        summary = "Get candles",
+        description = "Most recent OHLCV bars of a symbol, oldest first, at interval 1s, 1m, 5m or 1h, built from the " +
+                "quotes and trades seen since startup. limit is capped at trading.candles.bars-per-interval"
+    )
+    public ResponseEntity<CandleSeries> getCandles(@PathVariable String symbol,
+                                                   @RequestParam(defaultValue = "1m") String interval,
+                                                   @RequestParam(defaultValue = "100") int limit) {
+        if (candleService == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<CandleInterval> candleInterval = CandleInterval.fromLabel(interval);
+        if (candleInterval.isEmpty() || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(candleService.getCandles(symbol, candleInterval.get(),
+                Math.min(limit, candleService.getBarsPerInterval())));
+    }
 }
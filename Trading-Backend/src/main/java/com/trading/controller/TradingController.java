@@ -1,18 +1,32 @@
 package com.trading.controller;
 
+import com.trading.dto.BatchOrderRequest;
+import com.trading.dto.BatchOrderResponse;
+import com.trading.dto.LockStats;
+import com.trading.dto.LotReport;
+import com.trading.dto.PnlUpdate;
 import com.trading.dto.PortfolioResponse;
 import com.trading.dto.SellRequest;
 import com.trading.dto.TradeRequest;
 import com.trading.dto.TradeResponse;
+import com.trading.dto.TransactionPage;
 import com.trading.model.Portfolio;
 import com.trading.model.Transaction;
+import com.trading.service.EntityCacheMetrics;
+import com.trading.service.IdempotencyService;
+import com.trading.service.PnlService;
 import com.trading.service.TradingService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
@@ -22,12 +36,25 @@ import java.util.Map;
  */
 @RestController
 @RequestMapping("/api/trading")
+@Profile("!reactive")
 @Tag(name = "Trading Operations", description = "APIs for buying and selling stocks")
 public class TradingController {
 
     @Autowired
     private TradingService tradingService;
 
+    // Absent when trading.pnl.enabled=false
+    @Autowired(required = false)
+    private PnlService pnlService;
+
+    // Absent when trading.idempotency.enabled=false
+    @Autowired(required = false)
+    private IdempotencyService idempotencyService;
+
+    // Absent when trading.entity-cache.enabled=false
+    @Autowired(required = false)
+    private EntityCacheMetrics entityCacheMetrics;
+
     /**
      * Buy stocks
      */
@@ -36,8 +63,15 @@ public class TradingController {
         summary = "Buy stocks", 
         description = "Purchase stocks. Requires userId, stock symbol, and quantity. Deducts amount from user balance."
     )
-    public ResponseEntity<TradeResponse> buyStock(@Valid @RequestBody TradeRequest request) {
+    public ResponseEntity<TradeResponse> buyStock(
+            @Valid @RequestBody TradeRequest request,
+            @Parameter(description = "Client-chosen key; a retry with the same key returns the first response instead of buying again")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         try {
+            if (idempotencyKey != null && idempotencyService != null) {
+                return replayable(idempotencyService.execute("buy", request.getUserId(), idempotencyKey, request,
+                        inTransaction -> tradingService.buyStock(request, inTransaction)));
+            }
             TradeResponse response = tradingService.buyStock(request);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -54,8 +88,15 @@ public class TradingController {
         summary = "Sell stocks to another user", 
         description = "Peer-to-peer stock transfer. Sells stocks from seller's portfolio and transfers them to buyer's portfolio. Requires userId (seller), stock symbol, quantity, and sellerName (buyer's username who receives the stocks). Buyer must have sufficient balance."
     )
-    public ResponseEntity<TradeResponse> sellStock(@Valid @RequestBody SellRequest request) {
+    public ResponseEntity<TradeResponse> sellStock(
+            @Valid @RequestBody SellRequest request,
+            @Parameter(description = "Client-chosen key; a retry with the same key returns the first response instead of selling again")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         try {
+            if (idempotencyKey != null && idempotencyService != null) {
+                return replayable(idempotencyService.execute("sell", request.getUserId(), idempotencyKey, request,
+                        inTransaction -> tradingService.sellStock(request, inTransaction)));
+            }
             TradeResponse response = tradingService.sellStock(request);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
@@ -64,6 +105,40 @@ public class TradingController {
         }
     }
 
+    /**
+     * A trade response, marked with Idempotent-Replayed: true when it answers an earlier request with the same key
+     */
+    private static ResponseEntity<TradeResponse> replayable(IdempotencyService.Result result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.replayed()) {
+            response.header("Idempotent-Replayed", "true");
+        }
+        return response.body(result.response());
+    }
+
+    /**
+     * Submit a batch of orders
+     */
+    @PostMapping("/orders/batch")
+    @Operation(
+        summary = "Submit a batch of buy/sell orders",
+        description = "Executes many orders in one request. Each order has a type (BUY or SELL) plus the fields of a buy " +
+                "or sell request. Orders are applied in the order given, each symbol is quoted once and the whole batch " +
+                "commits together. Returns one result per order, in the same shape as a buy/sell response; a failed order " +
+                "doesn't stop the others."
+    )
+    public ResponseEntity<?> submitBatch(@Valid @RequestBody BatchOrderRequest request) {
+        try {
+            BatchOrderResponse response = tradingService.executeBatch(request.getOrders());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
     /**
      * Get user portfolio
      */
@@ -89,6 +164,53 @@ public class TradingController {
         }
     }
 
+    /**
+     * Get user's FIFO lots and realized P&L
+     */
+    @GetMapping("/lots/{userId}")
+    @Operation(
+        summary = "Get user lots and realized P&L",
+        description = "Open lots per holding (oldest first, as sells consume them) with FIFO cost basis, " +
+                "realized profit/loss booked by past sells and unrealized profit/loss at current market prices"
+    )
+    public ResponseEntity<?> getUserLots(@PathVariable Long userId) {
+        try {
+            LotReport report = tradingService.getLotReport(userId);
+            return ResponseEntity.ok(report);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of(
+                "success", false,
+                "message", "Error retrieving lots: " + e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Stream live profit/loss
+     */
+    @GetMapping(value = "/pnl/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream live profit/loss",
+        description = "Server-sent events stream of a user's holdings: the current valuation of each, then an update " +
+                "whenever a holding's price ticks or a trade changes it, with the user's total value and net profit"
+    )
+    public ResponseEntity<Flux<PnlUpdate>> streamPnl(@PathVariable Long userId) {
+        // Errors can't carry a JSON body on an event-stream endpoint, so they are a bare 400
+        if (pnlService == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(pnlService.subscribe(userId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Get user transaction history
      */
@@ -113,4 +235,80 @@ public class TradingController {
             ));
         }
     }
+
+    /**
+     * Get one page of user transaction history
+     */
+    @GetMapping("/transactions/{userId}/page")
+    @Operation(
+        summary = "Get transaction history page",
+        description = "Retrieve transactions newest first, one page at a time. Pass the returned nextCursor as " +
+                "the cursor parameter to fetch the next (older) page. Page size is capped."
+    )
+    public ResponseEntity<?> getUserTransactionsPage(@PathVariable Long userId,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size) {
+        try {
+            TransactionPage page = tradingService.getUserTransactionsPage(userId, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Stream full user transaction history
+     */
+    @GetMapping("/transactions/{userId}/stream")
+    @Operation(
+        summary = "Stream transaction history",
+        description = "Retrieve all transactions newest first as a JSON array written row by row while it is read " +
+                "from the database, so very long histories don't need to fit in memory"
+    )
+    public ResponseEntity<?> streamUserTransactions(@PathVariable Long userId) {
+        try {
+            StreamingResponseBody body = tradingService.streamUserTransactions(userId);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Get account lock statistics
+     */
+    @GetMapping("/locks/stats")
+    @Operation(
+        summary = "Get account lock statistics",
+        description = "Row lock acquisitions, lock wait time, and conflict/retry/failure counts for trade execution"
+    )
+    public ResponseEntity<LockStats> getLockStats() {
+        return ResponseEntity.ok(tradingService.getLockStats());
+    }
+
+    /**
+     * Get second-level cache statistics
+     */
+    @GetMapping("/entity-cache/stats")
+    @Operation(
+        summary = "Get entity cache statistics",
+        description = "Hits, misses, puts, hit ratio and size of each second-level cache region (users, usernames, portfolio, holding lookups)"
+    )
+    public ResponseEntity<?> getEntityCacheStats() {
+        if (entityCacheMetrics == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Entity cache is disabled"
+            ));
+        }
+        return ResponseEntity.ok(entityCacheMetrics.getStats());
+    }
 }
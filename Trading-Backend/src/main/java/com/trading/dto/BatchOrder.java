@@ -0,0 +1,41 @@
+package com.trading.dto;
+
+import com.trading.model.Transaction;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one order in a batch: a BUY (as TradeRequest) or a SELL to another user (as SellRequest)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrder {
+
+    @NotNull(message = "Order type is required (BUY or SELL)")
+    private Transaction.TransactionType type;
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    @NotBlank(message = "Stock symbol is required")
+    private String symbol;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    private String sellerName; // SELL only: the BUYER username, as in SellRequest
+
+    public TradeRequest toTradeRequest() {
+        return new TradeRequest(userId, symbol, quantity);
+    }
+
+    public SellRequest toSellRequest() {
+        return new SellRequest(userId, symbol, quantity, sellerName);
+    }
+}
@@ -0,0 +1,22 @@
+package com.trading.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for Batch Order Request
+ * Orders are applied in the order given
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderRequest {
+
+    @NotEmpty(message = "At least one order is required")
+    private List<@Valid BatchOrder> orders;
+}
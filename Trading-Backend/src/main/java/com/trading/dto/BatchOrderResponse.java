@@ -0,0 +1,20 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for Batch Order Response
+ * results holds one TradeResponse per order, in request order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResponse {
+    private int succeeded;
+    private int failed;
+    private List<TradeResponse> results;
+}
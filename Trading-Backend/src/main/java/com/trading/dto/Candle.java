@@ -0,0 +1,22 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for one OHLCV bar
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Candle {
+    private Long time; // bar start, epoch millis
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private Long volume; // shares traded through this application; quotes carry no volume
+}
@@ -0,0 +1,19 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a symbol's most recent candles at one interval, oldest first
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandleSeries {
+    private String symbol;
+    private String interval;
+    private List<Candle> candles;
+}
@@ -0,0 +1,20 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one second-level cache region's counters, used to size the entity caches
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntityCacheStats {
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private double hitRatio; // hits / (hits + misses), 0 before the first lookup
+    private long size; // Entries currently cached (estimated)
+}
@@ -0,0 +1,24 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for one user's place on the leaderboard
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+    private int rank;
+    private Long userId;
+    private String username;
+    private BigDecimal equity; // cashBalance + holdingsValue
+    private BigDecimal cashBalance;
+    private BigDecimal holdingsValue; // holdings at market
+    private BigDecimal netProfit; // holdingsValue - amount invested in them
+    private Double profitPercentage; // (netProfit / invested) * 100
+}
@@ -0,0 +1,21 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the leaderboard: top users by total equity, and by return on their holdings
+ * (only users holding stock are ranked by return)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardResponse {
+    private List<LeaderboardEntry> byEquity;
+    private List<LeaderboardEntry> byReturn;
+    private int rankedUsers;
+    private Long timestamp;
+}
@@ -0,0 +1,40 @@
+package com.trading.dto;
+
+import com.trading.engine.OrderSide;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for a limit order submitted to the order book
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LimitOrderRequest {
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    @NotBlank(message = "Stock symbol is required")
+    private String symbol;
+
+    @NotNull(message = "Side is required (BUY or SELL)")
+    private OrderSide side;
+
+    @NotNull(message = "Limit price is required")
+    @DecimalMin(value = "0.01", message = "Limit price must be at least 0.01")
+    @Digits(integer = 12, fraction = 2, message = "Limit price supports at most 2 decimal places")
+    private BigDecimal price;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+}
@@ -0,0 +1,20 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for account row lock contention counters
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LockStats {
+    private long lockAcquisitions;
+    private double avgLockWaitMillis;
+    private double maxLockWaitMillis;
+    private long conflicts; // Lock timeouts/deadlocks that rolled back an attempt
+    private long retries;
+    private long failures; // Operations that gave up after the last retry
+}
@@ -0,0 +1,22 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one open lot: shares bought in one trade and not sold yet
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotEntry {
+    private Long id;
+    private LocalDateTime openedAt;
+    private Integer quantity;
+    private Integer remainingQuantity;
+    private BigDecimal costPrice;
+}
@@ -0,0 +1,25 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for one symbol in a lot report
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotPosition {
+    private String symbol;
+    private Integer quantity; // shares in open lots
+    private BigDecimal costBasis; // what the shares in open lots cost
+    private BigDecimal currentPrice; // null if it couldn't be quoted in time (unrealized P&L is then 0)
+    private BigDecimal marketValue;
+    private BigDecimal unrealizedPnl; // marketValue - costBasis
+    private BigDecimal realizedPnl; // proceeds of sales - FIFO cost of the shares sold
+    private List<LotEntry> lots; // oldest first, the order sells consume them in
+}
@@ -0,0 +1,23 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for a user's FIFO lot report: open lots and P&L per symbol, and totals across symbols
+ * Sold-out positions are listed too, with no lots, for their realized P&L
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotReport {
+    private Long userId;
+    private List<LotPosition> positions;
+    private BigDecimal realizedPnl;
+    private BigDecimal unrealizedPnl;
+    private Long timestamp;
+}
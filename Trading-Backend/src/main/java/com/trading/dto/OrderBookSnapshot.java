@@ -0,0 +1,29 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for aggregated order book depth, best prices first
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBookSnapshot {
+    private String symbol;
+    private List<Level> bids;
+    private List<Level> asks;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Level {
+        private BigDecimal price;
+        private Long quantity;
+        private Integer orders;
+    }
+}
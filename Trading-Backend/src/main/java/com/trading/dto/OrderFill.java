@@ -0,0 +1,19 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for one execution of an order against the book
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderFill {
+    private Long counterpartyOrderId;
+    private BigDecimal price;
+    private Integer quantity;
+}
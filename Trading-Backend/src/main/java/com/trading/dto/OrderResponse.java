@@ -0,0 +1,33 @@
+package com.trading.dto;
+
+import com.trading.engine.OrderSide;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for the result of submitting or cancelling a limit order
+ * Fills are settled asynchronously, so balances and portfolios reflect them shortly after this response
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderResponse {
+    private Long orderId;
+    private String symbol;
+    private OrderSide side;
+    private BigDecimal price;
+    private Integer quantity;
+    private Integer filledQuantity;
+    private Integer remainingQuantity; // Quantity still resting in the book
+    private OrderStatus status;
+    private String message;
+    private List<OrderFill> fills;
+
+    public enum OrderStatus {
+        OPEN, PARTIALLY_FILLED, FILLED, CANCELLED
+    }
+}
@@ -0,0 +1,28 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for a live profit/loss update of one holding, pushed when its price ticks or a trade changes it
+ * The totals cover all of the user's holdings at the time of the update
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PnlUpdate {
+    private Long userId;
+    private String symbol;
+    private Integer quantity; // 0 once the holding has been sold out
+    private BigDecimal currentPrice;
+    private BigDecimal avgPurchasePrice;
+    private BigDecimal currentValue;
+    private BigDecimal netProfit;
+    private Double profitPercentage;
+    private BigDecimal totalValue; // market value of all the user's holdings
+    private BigDecimal totalNetProfit;
+    private Long timestamp;
+}
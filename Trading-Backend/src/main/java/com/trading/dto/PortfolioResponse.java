@@ -1,5 +1,6 @@
 package com.trading.dto;
 
+import com.trading.util.FixedPoint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -30,18 +31,40 @@ public class PortfolioResponse {
      */
     public void calculateProfitLoss() {
         if (quantity != null && currentPrice != null && avgPurchasePrice != null) {
-            this.currentValue = currentPrice.multiply(BigDecimal.valueOf(quantity));
-            this.investedAmount = avgPurchasePrice.multiply(BigDecimal.valueOf(quantity));
-            this.netProfit = currentValue.subtract(investedAmount);
-            
-            if (investedAmount.compareTo(BigDecimal.ZERO) > 0) {
-                this.profitPercentage = netProfit
-                    .divide(investedAmount, 4, BigDecimal.ROUND_HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .doubleValue();
-            } else {
-                this.profitPercentage = 0.0;
-            }
+            calculateProfitLoss(FixedPoint.fromBigDecimal(currentPrice), FixedPoint.fromBigDecimal(avgPurchasePrice));
         }
     }
+
+    /**
+     * Calculate derived fields from prices in cents
+     * The arithmetic is done on longs; only the resulting fields are BigDecimal
+     */
+    public void calculateProfitLoss(long currentPrice, long avgPurchasePrice) {
+        if (quantity == null) {
+            return;
+        }
+        long investedAmount = FixedPoint.multiply(avgPurchasePrice, quantity);
+
+        this.avgPurchasePrice = FixedPoint.toBigDecimal(avgPurchasePrice);
+        this.investedAmount = FixedPoint.toBigDecimal(investedAmount);
+        applyPrice(currentPrice, investedAmount);
+    }
+
+    /**
+     * Update only the price-dependent fields (currentPrice, currentValue, netProfit, profitPercentage)
+     * for a new current price in cents
+     * @param investedAmount this position's invested amount in cents
+     */
+    public void applyPrice(long currentPrice, long investedAmount) {
+        if (quantity == null) {
+            return;
+        }
+        long currentValue = FixedPoint.multiply(currentPrice, quantity);
+        long netProfit = Math.subtractExact(currentValue, investedAmount);
+
+        this.currentPrice = FixedPoint.toBigDecimal(currentPrice);
+        this.currentValue = FixedPoint.toBigDecimal(currentValue);
+        this.netProfit = FixedPoint.toBigDecimal(netProfit);
+        this.profitPercentage = investedAmount > 0 ? FixedPoint.percentage(netProfit, investedAmount) : 0.0;
+    }
 }
@@ -0,0 +1,22 @@
+package com.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for quote cache counters, used to size the cache TTL and capacity
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteCacheStats {
+    private long hits;
+    private long misses;
+    private long coalesced; // Callers that waited on another caller's in-flight request
+    private long evictions;
+    private long stale; // Expired quotes served because a fresh one couldn't be loaded, or while reloading
+    private int size;
+    private int maxSize;
+    private long ttlMillis;
+}
@@ -0,0 +1,21 @@
+package com.trading.dto;
+
+import com.trading.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for one page of a user's transaction history
+ * Pass nextCursor back as the cursor parameter to get the following (older) page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPage {
+    private List<Transaction> transactions;
+    private String nextCursor; // null when there are no more pages
+    private boolean hasMore;
+}
@@ -0,0 +1,39 @@
+package com.trading.engine;
+
+/**
+ * A resting limit order. Orders at the same price form an intrusive doubly linked list
+ * inside their {@link PriceLevel}, so cancelling any order is O(1).
+ */
+public class BookOrder {
+
+    private final long orderId;
+    private final long userId;
+    private final OrderSide side;
+    private final long price;
+    private final int originalQuantity;
+    private int remainingQuantity;
+
+    PriceLevel level;
+    BookOrder prev;
+    BookOrder next;
+
+    BookOrder(long orderId, long userId, OrderSide side, long price, int quantity) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.side = side;
+        this.price = price;
+        this.originalQuantity = quantity;
+        this.remainingQuantity = quantity;
+    }
+
+    public long getOrderId() { return orderId; }
+    public long getUserId() { return userId; }
+    public OrderSide getSide() { return side; }
+    public long getPrice() { return price; }
+    public int getOriginalQuantity() { return originalQuantity; }
+    public int getRemainingQuantity() { return remainingQuantity; }
+
+    void reduce(int quantity) {
+        remainingQuantity -= quantity;
+    }
+}
@@ -0,0 +1,33 @@
+package com.trading.engine;
+
+import java.util.Optional;
+
+/**
+ * Bar width of an OHLCV candle, with the label used in the candles API
+ */
+public enum CandleInterval {
+    ONE_SECOND("1s", 1_000),
+    ONE_MINUTE("1m", 60_000),
+    FIVE_MINUTES("5m", 300_000),
+    ONE_HOUR("1h", 3_600_000);
+
+    private final String label;
+    private final long millis;
+
+    CandleInterval(String label, long millis) {
+        this.label = label;
+        this.millis = millis;
+    }
+
+    public String getLabel() { return label; }
+    public long getMillis() { return millis; }
+
+    public static Optional<CandleInterval> fromLabel(String label) {
+        for (CandleInterval interval : values()) {
+            if (interval.label.equalsIgnoreCase(label)) {
+                return Optional.of(interval);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,100 @@
+package com.trading.engine;
+
+/**
+ * OHLCV bars of one symbol at one interval, newest last, in a fixed-size ring of parallel primitive arrays.
+ * Once full, each new bar overwrites the oldest, so adding a price never allocates.
+ *
+ * Bars are aligned to the interval (a 1m bar starts on the minute) and only exist for intervals in which a
+ * price was seen; there is no bar for an interval with no quote or trade. A price older than the newest bar
+ * (recorded late by a racing thread) is folded into its own bar if the ring still holds it, without
+ * changing that bar's close.
+ *
+ * Not thread-safe: callers serialize access per symbol.
+ */
+public class CandleRing {
+
+    private final long intervalMillis;
+    private final int capacity;
+    private final long[] start;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final long[] volume;
+    private int head;
+    private int size;
+
+    public CandleRing(long intervalMillis, int capacity) {
+        this.intervalMillis = intervalMillis;
+        this.capacity = capacity;
+        this.start = new long[capacity];
+        this.open = new long[capacity];
+        this.high = new long[capacity];
+        this.low = new long[capacity];
+        this.close = new long[capacity];
+        this.volume = new long[capacity];
+        this.head = capacity - 1;
+    }
+
+    /**
+     * Number of bars held, at most the capacity
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add a price seen at the given time
+     * @param price    price in cents
+     * @param quantity shares traded at that price (0 for a quote)
+     */
+    public void add(long timestamp, long price, long quantity) {
+        long barStart = timestamp - Math.floorMod(timestamp, intervalMillis);
+        if (size == 0 || barStart > start[head]) {
+            head = head + 1 == capacity ? 0 : head + 1;
+            start[head] = barStart;
+            open[head] = price;
+            high[head] = price;
+            low[head] = price;
+            close[head] = price;
+            volume[head] = quantity;
+            if (size < capacity) {
+                size++;
+            }
+            return;
+        }
+        for (int age = 0; age < size; age++) {
+            int i = index(age);
+            if (start[i] == barStart) {
+                high[i] = Math.max(high[i], price);
+                low[i] = Math.min(low[i], price);
+                volume[i] += quantity;
+                if (age == 0) {
+                    close[i] = price;
+                }
+                return;
+            }
+            if (start[i] < barStart) {
+                // Its interval had no bar and the ring has moved past it
+                return;
+            }
+        }
+    }
+
+    // Accessors by age: 0 is the newest bar, size() - 1 the oldest
+
+    /**
+     * Bar start time, epoch millis
+     */
+    public long getStart(int age) { return start[index(age)]; }
+    public long getOpen(int age) { return open[index(age)]; }
+    public long getHigh(int age) { return high[index(age)]; }
+    public long getLow(int age) { return low[index(age)]; }
+    public long getClose(int age) { return close[index(age)]; }
+    public long getVolume(int age) { return volume[index(age)]; }
+
+    private int index(int age) {
+        int i = head - age;
+        return i < 0 ? i + capacity : i;
+    }
+}
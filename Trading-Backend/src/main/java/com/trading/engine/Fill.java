@@ -0,0 +1,20 @@
+package com.trading.engine;
+
+/**
+ * A match between a resting (maker) order and an incoming (taker) order.
+ * Prices are in ticks of the book; the fill executes at the maker's price.
+ *
+ * @param buyLimitPrice limit price of the buy order, used to release any cash reserved above the fill price
+ */
+public record Fill(
+        String symbol,
+        long buyOrderId,
+        long buyUserId,
+        long buyLimitPrice,
+        long sellOrderId,
+        long sellUserId,
+        long price,
+        int quantity,
+        OrderSide takerSide
+) {
+}
@@ -0,0 +1,151 @@
+package com.trading.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory limit order book for a single symbol with price-time priority.
+ * Better-priced orders match first; orders at the same price match in arrival order.
+ *
+ * Not thread-safe: the book is meant to have a single writer (callers serialize access per symbol),
+ * which keeps the matching path free of locks, I/O and database access.
+ */
+public class OrderBook {
+
+    private final String symbol;
+    private final TreeMap<Long, PriceLevel> bids = new TreeMap<>(Comparator.reverseOrder());
+    private final TreeMap<Long, PriceLevel> asks = new TreeMap<>();
+    private final Map<Long, BookOrder> orders = new HashMap<>();
+
+    public OrderBook(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Match an incoming limit order against the opposite side of the book and rest any remainder.
+     * Fills are appended to the given list in execution order, each at the resting order's price.
+     * If the order would trade against another order from the same user, matching stops and the
+     * incoming remainder is cancelled (self-trade prevention).
+     *
+     * @return the resting order, or null if nothing is left to rest
+     */
+    public BookOrder submit(long orderId, long userId, OrderSide side, long price, int quantity, List<Fill> fills) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (orders.containsKey(orderId)) {
+            throw new IllegalArgumentException("Duplicate order id " + orderId);
+        }
+
+        TreeMap<Long, PriceLevel> opposite = side == OrderSide.BUY ? asks : bids;
+        int remaining = quantity;
+
+        matching:
+        while (remaining > 0 && !opposite.isEmpty()) {
+            PriceLevel level = opposite.firstEntry().getValue();
+            long levelPrice = level.getPrice();
+            if (side == OrderSide.BUY ? levelPrice > price : levelPrice < price) {
+                break;
+            }
+
+            while (remaining > 0 && !level.isEmpty()) {
+                BookOrder maker = level.first();
+                if (maker.getUserId() == userId) {
+                    remaining = 0;
+                    break matching;
+                }
+
+                int fillQuantity = Math.min(remaining, maker.getRemainingQuantity());
+                if (side == OrderSide.BUY) {
+                    fills.add(new Fill(symbol, orderId, userId, price,
+                            maker.getOrderId(), maker.getUserId(), levelPrice, fillQuantity, side));
+                } else {
+                    fills.add(new Fill(symbol, maker.getOrderId(), maker.getUserId(), maker.getPrice(),
+                            orderId, userId, levelPrice, fillQuantity, side));
+                }
+
+                level.reduce(maker, fillQuantity);
+                remaining -= fillQuantity;
+                if (maker.getRemainingQuantity() == 0) {
+                    level.remove(maker);
+                    orders.remove(maker.getOrderId());
+                }
+            }
+
+            if (level.isEmpty()) {
+                opposite.pollFirstEntry();
+            }
+        }
+
+        if (remaining == 0) {
+            return null;
+        }
+
+        BookOrder order = new BookOrder(orderId, userId, side, price, remaining);
+        TreeMap<Long, PriceLevel> own = side == OrderSide.BUY ? bids : asks;
+        own.computeIfAbsent(price, PriceLevel::new).append(order);
+        orders.put(orderId, order);
+        return order;
+    }
+
+    /**
+     * Remove a resting order from the book
+     * @return the cancelled order (with its unfilled quantity), or null if it is no longer resting
+     */
+    public BookOrder cancel(long orderId) {
+        BookOrder order = orders.remove(orderId);
+        if (order == null) {
+            return null;
+        }
+        PriceLevel level = order.level;
+        level.remove(order);
+        if (level.isEmpty()) {
+            (order.getSide() == OrderSide.BUY ? bids : asks).remove(level.getPrice());
+        }
+        return order;
+    }
+
+    public BookOrder getOrder(long orderId) {
+        return orders.get(orderId);
+    }
+
+    public int getOrderCount() {
+        return orders.size();
+    }
+
+    /**
+     * Best (highest) bid price, or null when there are no bids
+     */
+    public Long getBestBid() {
+        return bids.isEmpty() ? null : bids.firstKey();
+    }
+
+    /**
+     * Best (lowest) ask price, or null when there are no asks
+     */
+    public Long getBestAsk() {
+        return asks.isEmpty() ? null : asks.firstKey();
+    }
+
+    /**
+     * Top price levels of one side of the book, best price first
+     */
+    public List<PriceLevel> getLevels(OrderSide side, int maxLevels) {
+        List<PriceLevel> levels = new ArrayList<>(Math.min(maxLevels, 64));
+        for (PriceLevel level : (side == OrderSide.BUY ? bids : asks).values()) {
+            if (levels.size() >= maxLevels) {
+                break;
+            }
+            levels.add(level);
+        }
+        return levels;
+    }
+}
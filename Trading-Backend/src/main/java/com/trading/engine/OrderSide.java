@@ -0,0 +1,8 @@
+package com.trading.engine;
+
+/**
+ * Side of a limit order in the order book
+ */
+public enum OrderSide {
+    BUY, SELL
+}
@@ -0,0 +1,25 @@
+package com.trading.engine;
+
+/**
+ * One holder's position in a symbol after a price tick or a trade, valued at the symbol's price.
+ * Amounts are cents. The deltas are the change in the holder's market value and invested amount,
+ * for keeping per-user totals without re-summing their holdings.
+ *
+ * @param quantity 0 when the holding has been sold out
+ */
+public record PnlChange(
+        long userId,
+        String symbol,
+        int quantity,
+        long price,
+        long avgPurchasePrice,
+        long currentValue,
+        long investedAmount,
+        long valueDelta,
+        long investedDelta
+) {
+
+    public long netProfit() {
+        return currentValue - investedAmount;
+    }
+}
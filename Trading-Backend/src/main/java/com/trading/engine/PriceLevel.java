@@ -0,0 +1,66 @@
+package com.trading.engine;
+
+/**
+ * All resting orders at one price, in arrival (time priority) order
+ */
+public class PriceLevel {
+
+    private final long price;
+    private BookOrder head;
+    private BookOrder tail;
+    private long totalQuantity;
+    private int orderCount;
+
+    PriceLevel(long price) {
+        this.price = price;
+    }
+
+    public long getPrice() { return price; }
+    public long getTotalQuantity() { return totalQuantity; }
+    public int getOrderCount() { return orderCount; }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    BookOrder first() {
+        return head;
+    }
+
+    void append(BookOrder order) {
+        order.level = this;
+        order.prev = tail;
+        order.next = null;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+        totalQuantity += order.getRemainingQuantity();
+        orderCount++;
+    }
+
+    void remove(BookOrder order) {
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        totalQuantity -= order.getRemainingQuantity();
+        orderCount--;
+        order.level = null;
+        order.prev = null;
+        order.next = null;
+    }
+
+    void reduce(BookOrder order, int quantity) {
+        order.reduce(quantity);
+        totalQuantity -= quantity;
+    }
+}
@@ -0,0 +1,145 @@
+package com.trading.engine;
+
+import com.trading.util.FixedPoint;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reverse index entry for one symbol: every user holding it, with their quantity, average price and
+ * current valuation. A price tick revalues only these holders, so its cost is O(holders of the symbol).
+ *
+ * Holders are valued at the last tick's price; before the first tick, each at their own average price.
+ * Position updates carry a sequence number and an update older than the holder's current one is ignored,
+ * so updates that reach the index out of order can't roll a holding back. A holder who sells out is removed,
+ * leaving only a tombstone with the sell's sequence so a late, older update can't recreate the holding;
+ * tombstones are dropped once the symbol has seen {@link #TOMBSTONE_WINDOW} later sequence numbers.
+ *
+ * Not thread-safe: callers serialize access per symbol.
+ */
+public class SymbolHolders {
+
+    /**
+     * How far (in sequence numbers) an update may trail the newest one and still be recognised as stale
+     * after its holder sold out. Updates are applied right after their trade commits, so they trail by
+     * roughly the number of trades committing concurrently.
+     */
+    static final long TOMBSTONE_WINDOW = 100_000;
+
+    private final String symbol;
+    private long price = -1;
+    private final Map<Long, Holder> holders = new HashMap<>();
+    private final Map<Long, Long> soldOutSequences = new HashMap<>();
+    private long highestSequence;
+    private long nextPruneAt;
+
+    public SymbolHolders(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() { return symbol; }
+    public int getHolderCount() { return holders.size(); }
+
+    /**
+     * Last tick's price in cents, or -1 before the first tick
+     */
+    public long getPrice() {
+        return price;
+    }
+
+    /**
+     * Sold-out holders still remembered to reject late updates
+     */
+    int getTombstoneCount() { return soldOutSequences.size(); }
+
+    /**
+     * Set a user's position (quantity 0 removes it) as of the given sequence number
+     * @return the holder's new valuation (quantity 0 once sold out), or null if the update is older than what
+     *         the index already has or sells out a holding the index doesn't have
+     */
+    public PnlChange setPosition(long sequence, long userId, int quantity, long avgPurchasePrice) {
+        Holder holder = holders.get(userId);
+        long known = holder != null ? holder.sequence : soldOutSequences.getOrDefault(userId, Long.MIN_VALUE);
+        if (sequence <= known) {
+            return null;
+        }
+        advance(sequence);
+        if (quantity == 0) {
+            soldOutSequences.put(userId, sequence);
+            if (holder == null) {
+                return null;
+            }
+            holders.remove(userId);
+        } else if (holder == null) {
+            soldOutSequences.remove(userId);
+            holder = new Holder(userId);
+            holders.put(userId, holder);
+        }
+        long oldValue = holder.currentValue;
+        long oldInvested = holder.investedAmount;
+
+        holder.sequence = sequence;
+        holder.quantity = quantity;
+        holder.avgPurchasePrice = avgPurchasePrice;
+        holder.investedAmount = FixedPoint.multiply(avgPurchasePrice, quantity);
+        holder.currentValue = FixedPoint.multiply(price < 0 ? avgPurchasePrice : price, quantity);
+        return holder.toChange(symbol, price, holder.currentValue - oldValue, holder.investedAmount - oldInvested);
+    }
+
+    /**
+     * Note the newest sequence seen, pruning tombstones that fell out of the window every half window
+     */
+    private void advance(long sequence) {
+        highestSequence = Math.max(highestSequence, sequence);
+        if (highestSequence >= nextPruneAt) {
+            long cutoff = highestSequence - TOMBSTONE_WINDOW;
+            soldOutSequences.values().removeIf(soldAt -> soldAt < cutoff);
+            nextPruneAt = highestSequence + TOMBSTONE_WINDOW / 2;
+        }
+    }
+
+    /**
+     * Revalue every holder at a new price, appending a change for each holder whose value moved
+     */
+    public void tick(long newPrice, List<PnlChange> changes) {
+        if (newPrice == price) {
+            return;
+        }
+        price = newPrice;
+        for (Holder holder : holders.values()) {
+            long value = FixedPoint.multiply(newPrice, holder.quantity);
+            long delta = value - holder.currentValue;
+            if (delta != 0) {
+                holder.currentValue = value;
+                changes.add(holder.toChange(symbol, newPrice, delta, 0));
+            }
+        }
+    }
+
+    /**
+     * Current valuation of a user's holding, or null if they don't hold the symbol
+     */
+    public PnlChange get(long userId) {
+        Holder holder = holders.get(userId);
+        return holder == null ? null : holder.toChange(symbol, price, 0, 0);
+    }
+
+    private static final class Holder {
+        private final long userId;
+        private long sequence = Long.MIN_VALUE;
+        private int quantity;
+        private long avgPurchasePrice;
+        private long investedAmount;
+        private long currentValue;
+
+        private Holder(long userId) {
+            this.userId = userId;
+        }
+
+        private PnlChange toChange(String symbol, long price, long valueDelta, long investedDelta) {
+            return new PnlChange(userId, symbol, quantity, price < 0 ? avgPurchasePrice : price, avgPurchasePrice,
+                    currentValue, investedAmount, valueDelta, investedDelta);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.trading.journal;
+
+/**
+ * One entry in the trade journal. Money fields are whole cents.
+ *
+ * @param userId         account the event applies to (the seller for TRANSFER/FILL)
+ * @param counterpartyId buyer for TRANSFER/FILL, otherwise 0
+ * @param price          price per share in cents (average price for POSITION_SNAPSHOT)
+ * @param amount         total cash moved in cents, or the new balance for ACCOUNT_OPENED/BALANCE_SET
+ */
+public record JournalEvent(
+        long sequence,
+        EventType type,
+        long timestamp,
+        long userId,
+        long counterpartyId,
+        String symbol,
+        int quantity,
+        long price,
+        long amount
+) {
+
+    /**
+     * Stored by ordinal, so new types must only ever be added at the end
+     */
+    public enum EventType {
+        ACCOUNT_OPENED,
+        ACCOUNT_CLOSED,
+        BALANCE_SET,
+        POSITION_SNAPSHOT,
+        BUY,
+        TRANSFER,
+        FILL;
+
+        private static final EventType[] VALUES = values();
+
+        static EventType fromCode(int code) {
+            if (code < 0 || code >= VALUES.length) {
+                throw new IllegalArgumentException("Unknown journal event type " + code);
+            }
+            return VALUES[code];
+        }
+    }
+
+    /**
+     * Same event with the sequence number assigned by the journal
+     */
+    public JournalEvent withSequence(long sequence) {
+        return new JournalEvent(sequence, type, timestamp, userId, counterpartyId, symbol, quantity, price, amount);
+    }
+}
@@ -0,0 +1,127 @@
+package com.trading.journal;
+
+import com.trading.util.FixedPoint;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory balances and holdings rebuilt from the trade journal. Money is whole cents.
+ *
+ * Each account is guarded by its own monitor: callers that apply live events must hold the monitors
+ * of every account the event touches. Replay runs single-threaded before the ledger is shared.
+ */
+public class LedgerState {
+
+    private final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+
+    public Account getAccount(long userId) {
+        return accounts.get(userId);
+    }
+
+    public boolean hasAccount(long userId) {
+        return accounts.containsKey(userId);
+    }
+
+    /**
+     * Apply an event that has already been validated and written to the journal
+     */
+    public void apply(JournalEvent event) {
+        switch (event.type()) {
+            case ACCOUNT_OPENED -> accounts.put(event.userId(), new Account(event.userId(), event.amount()));
+            case ACCOUNT_CLOSED -> accounts.remove(event.userId());
+            case BALANCE_SET -> require(event.userId()).balance = event.amount();
+            case POSITION_SNAPSHOT -> {
+                Account account = require(event.userId());
+                account.positions.put(event.symbol(), new Position(event.quantity(), event.price()));
+            }
+            case BUY -> {
+                Account buyer = require(event.userId());
+                buyer.balance -= event.amount();
+                buyer.addShares(event.symbol(), event.quantity(), event.price(), event.amount());
+            }
+            case TRANSFER, FILL -> {
+                Account seller = require(event.userId());
+                Account buyer = require(event.counterpartyId());
+                buyer.balance -= event.amount();
+                seller.balance += event.amount();
+                seller.removeShares(event.symbol(), event.quantity());
+                buyer.addShares(event.symbol(), event.quantity(), event.price(), event.amount());
+            }
+        }
+    }
+
+    private Account require(long userId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            throw new IllegalStateException("Journal event references unknown account " + userId);
+        }
+        return account;
+    }
+
+    /**
+     * A user's balance and holdings
+     */
+    public static class Account {
+
+        private final long userId;
+        private long balance;
+        private final Map<String, Position> positions = new HashMap<>();
+
+        Account(long userId, long balance) {
+            this.userId = userId;
+            this.balance = balance;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public long getBalance() {
+            return balance;
+        }
+
+        public int getQuantity(String symbol) {
+            Position position = positions.get(symbol);
+            return position == null ? 0 : position.quantity;
+        }
+
+        public Position getPosition(String symbol) {
+            return positions.get(symbol);
+        }
+
+        /**
+         * Re-weights the average price the same way PositionService does (cents, rounded half up),
+         * so the ledger and the projected portfolio rows agree
+         */
+        private void addShares(String symbol, int quantity, long price, long totalCost) {
+            Position existing = positions.get(symbol);
+            if (existing == null) {
+                positions.put(symbol, new Position(quantity, price));
+                return;
+            }
+            positions.put(symbol, new Position(existing.quantity + quantity,
+                    FixedPoint.averagePrice(existing.avgPrice, existing.quantity, totalCost, quantity)));
+        }
+
+        private void removeShares(String symbol, int quantity) {
+            Position existing = positions.get(symbol);
+            int remaining = (existing == null ? 0 : existing.quantity) - quantity;
+            if (remaining < 0) {
+                throw new IllegalStateException("Journal event sells more " + symbol + " than account " + userId + " holds");
+            }
+            if (remaining == 0) {
+                positions.remove(symbol);
+            } else {
+                positions.put(symbol, new Position(remaining, existing.avgPrice));
+            }
+        }
+    }
+
+    /**
+     * Quantity held and average purchase price in cents
+     */
+    public record Position(int quantity, long avgPrice) {
+    }
+}
@@ -0,0 +1,350 @@
+package com.trading.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal written through a memory-mapped file.
+ *
+ * Record layout: [int payloadLength][int crc32(payload)][payload]. A zero length marks the end of
+ * the journal; a record that is cut short or fails its checksum (a torn write from a crash) is
+ * treated as the end too and overwritten by the next append.
+ *
+ * Appends only copy bytes into the mapping. Durability comes from a flusher thread that forces the
+ * mapping to disk and then wakes every writer whose record is covered, so concurrent writers share
+ * one fsync (group commit).
+ */
+public class TradeJournal implements Closeable {
+
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_PAYLOAD_SIZE = 1024;
+
+    private final FileChannel channel;
+    private final long windowSize;
+    private final boolean sync;
+    private final long groupCommitDelayNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushRequested = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_PAYLOAD_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long writePosition;
+    private long nextSequence = 1;
+
+    private long writtenSequence;
+    private long durableSequence;
+
+    private volatile boolean running = true;
+    private final Thread flusher;
+    private Consumer<JournalEvent> appendListener = event -> { };
+
+    private TradeJournal(FileChannel channel, long windowSize, boolean sync, long groupCommitDelayMicros) {
+        this.channel = channel;
+        this.windowSize = windowSize;
+        this.sync = sync;
+        this.groupCommitDelayNanos = TimeUnit.MICROSECONDS.toNanos(groupCommitDelayMicros);
+        this.flusher = new Thread(this::runFlusher, "trade-journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * Open (or create) a journal, replaying every intact record to the handler before returning
+     *
+     * @param windowSize             bytes mapped at a time; the file grows one window at a time
+     * @param sync                   force each group of records to disk before acknowledging it
+     * @param groupCommitDelayMicros how long the flusher waits for more writers before forcing
+     */
+    public static TradeJournal open(Path path, long windowSize, boolean sync, long groupCommitDelayMicros,
+                                    Consumer<JournalEvent> replayHandler) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        TradeJournal journal = new TradeJournal(channel, windowSize, sync, groupCommitDelayMicros);
+        journal.recover(replayHandler);
+        journal.flusher.start();
+        return journal;
+    }
+
+    /**
+     * Receive every appended event (with its sequence) in sequence order.
+     * Called while the journal lock is held, so the listener must be quick and must not append.
+     */
+    public void setAppendListener(Consumer<JournalEvent> appendListener) {
+        lock.lock();
+        try {
+            this.appendListener = appendListener;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write an event into the journal. The record is visible to replay once its bytes are in the
+     * mapping, but is only guaranteed to survive power loss after {@link #awaitDurable(long)}.
+     *
+     * @return the sequence number assigned to the event
+     */
+    public long append(JournalEvent event) {
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Trade journal is closed");
+            }
+            long sequence = nextSequence;
+            JournalEvent sequenced = event.withSequence(sequence);
+            int length = encode(sequenced);
+
+            crc.reset();
+            crc.update(scratch.array(), 0, length);
+
+            ensureWindow(writePosition, HEADER_SIZE + length);
+            int offset = (int) (writePosition - windowStart);
+            window.put(offset + HEADER_SIZE, scratch, 0, length);
+            window.putInt(offset + 4, (int) crc.getValue());
+            // Length goes in last: until it is written the record reads as end-of-journal
+            window.putInt(offset, length);
+
+            writePosition += HEADER_SIZE + length;
+            nextSequence++;
+            writtenSequence = sequence;
+            flushRequested.signal();
+            appendListener.accept(sequenced);
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Block until the record with the given sequence (and every record before it) is on disk
+     */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (!running) {
+                    throw new IllegalStateException("Trade journal closed before sequence " + sequence + " was flushed");
+                }
+                flushRequested.signal();
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sequence number of the last record appended (0 when the journal is empty)
+     */
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sequence number of the last record known to be on disk; never ahead of {@link #getLastSequence()}
+     */
+    public long getDurableSequence() {
+        lock.lock();
+        try {
+            return durableSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            running = false;
+            flushRequested.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (window != null) {
+                window.force();
+            }
+            durableSequence = writtenSequence;
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        channel.close();
+    }
+
+    private void runFlusher() {
+        while (true) {
+            MappedByteBuffer target;
+            long sequence;
+            lock.lock();
+            try {
+                while (running && writtenSequence == durableSequence) {
+                    flushRequested.awaitUninterruptibly();
+                }
+                if (!running) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Give concurrent writers a moment to join this flush
+            if (groupCommitDelayNanos > 0) {
+                LockSupport.parkNanos(groupCommitDelayNanos);
+            }
+
+            lock.lock();
+            try {
+                target = window;
+                sequence = writtenSequence;
+            } finally {
+                lock.unlock();
+            }
+
+            // Forced outside the lock so appends continue while the disk write is in flight.
+            // Records in earlier windows were forced when the window moved on.
+            if (sync) {
+                target.force();
+            }
+
+            lock.lock();
+            try {
+                durableSequence = Math.max(durableSequence, sequence);
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Scan the journal from the start, replaying intact records and positioning the writer after the last one
+     */
+    private void recover(Consumer<JournalEvent> replayHandler) throws IOException {
+        long position = 0;
+        long fileSize = channel.size();
+        while (position + HEADER_SIZE <= fileSize) {
+            ensureWindow(position, HEADER_SIZE);
+            int offset = (int) (position - windowStart);
+            int length = window.getInt(offset);
+            if (length <= 0 || length > MAX_PAYLOAD_SIZE || position + HEADER_SIZE + length > fileSize) {
+                break;
+            }
+            int checksum = window.getInt(offset + 4);
+
+            ensureWindow(position, HEADER_SIZE + length);
+            offset = (int) (position - windowStart);
+            scratch.clear();
+            window.get(offset + HEADER_SIZE, scratch.array(), 0, length);
+            crc.reset();
+            crc.update(scratch.array(), 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            JournalEvent event = decode(length);
+            replayHandler.accept(event);
+            nextSequence = event.sequence() + 1;
+            position += HEADER_SIZE + length;
+        }
+
+        // Clear any torn record so its bytes can't be mistaken for data after the next append
+        if (position + HEADER_SIZE <= fileSize) {
+            int tail = (int) Math.min(HEADER_SIZE + MAX_PAYLOAD_SIZE, fileSize - position);
+            ensureWindow(position, tail);
+            int offset = (int) (position - windowStart);
+            for (int i = 0; i < tail; i++) {
+                window.put(offset + i, (byte) 0);
+            }
+        }
+
+        writePosition = position;
+        writtenSequence = nextSequence - 1;
+        durableSequence = writtenSequence;
+    }
+
+    /**
+     * Make sure [position, position + length) is inside the current mapping, mapping a new window
+     * starting at position if not. The old window is forced first so nothing is left unflushed.
+     */
+    private void ensureWindow(long position, int length) {
+        if (window != null && position >= windowStart && position + length <= windowStart + windowSize) {
+            return;
+        }
+        try {
+            if (window != null && sync) {
+                window.force();
+            }
+            window = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(windowSize, length));
+            windowStart = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map trade journal at offset " + position, e);
+        }
+    }
+
+    private int encode(JournalEvent event) {
+        byte[] symbol = event.symbol() == null ? new byte[0] : event.symbol().getBytes(StandardCharsets.UTF_8);
+        scratch.clear();
+        scratch.putLong(event.sequence());
+        scratch.put((byte) event.type().ordinal());
+        scratch.putLong(event.timestamp());
+        scratch.putLong(event.userId());
+        scratch.putLong(event.counterpartyId());
+        scratch.putInt(event.quantity());
+        scratch.putLong(event.price());
+        scratch.putLong(event.amount());
+        scratch.putShort((short) symbol.length);
+        scratch.put(symbol);
+        return scratch.position();
+    }
+
+    private JournalEvent decode(int length) {
+        scratch.position(0).limit(length);
+        long sequence = scratch.getLong();
+        JournalEvent.EventType type = JournalEvent.EventType.fromCode(scratch.get());
+        long timestamp = scratch.getLong();
+        long userId = scratch.getLong();
+        long counterpartyId = scratch.getLong();
+        int quantity = scratch.getInt();
+        long price = scratch.getLong();
+        long amount = scratch.getLong();
+        byte[] symbol = new byte[scratch.getShort()];
+        scratch.get(symbol);
+        return new JournalEvent(sequence, type, timestamp, userId, counterpartyId,
+                symbol.length == 0 ? null : new String(symbol, StandardCharsets.UTF_8),
+                quantity, price, amount);
+    }
+}
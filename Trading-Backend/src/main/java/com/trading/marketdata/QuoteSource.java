@@ -0,0 +1,16 @@
+package com.trading.marketdata;
+
+import com.trading.dto.StockQuote;
+
+import java.util.Optional;
+
+/**
+ * Source of quotes used in place of the Finnhub API (see FinnhubService)
+ */
+public interface QuoteSource {
+
+    /**
+     * Current quote for a symbol (upper case), or empty if the source has no data for it
+     */
+    Optional<StockQuote> getQuote(String symbol);
+}
@@ -0,0 +1,154 @@
+package com.trading.marketdata;
+
+import com.trading.dto.StockQuote;
+import com.trading.util.FixedPoint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Quote source replaying recorded ticks, one {@link TickFile} per symbol ({@code <dir>/<SYMBOL>.ticks}).
+ *
+ * With a speed above zero, every symbol's series is replayed against one clock started when the source is
+ * created: at speed 1 a recording plays in real time, at 60 an hour of it plays in a minute. With speed 0
+ * (as fast as possible) each quote of a symbol advances it by one tick, so the prices seen depend only on the
+ * order of requests, which makes runs reproducible. At the end of a recording it starts over, or holds its
+ * last price if loop is off.
+ *
+ * Files are mapped on a symbol's first quote; a symbol without a file has no quotes. Only symbols made of
+ * A-Z, 0-9 and '.' are looked up, and a missing file isn't remembered, so a file added later is picked up and
+ * requests for made-up symbols don't grow the cache.
+ */
+public class ReplayQuoteSource implements QuoteSource {
+
+    private static final String FILE_SUFFIX = ".ticks";
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9.]+");
+
+    private final Path dir;
+    private final double speed;
+    private final boolean loop;
+    private final long startedAt = System.currentTimeMillis();
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    /**
+     * @param speed replay rate relative to the recording's own timing; 0 replays one tick per quote
+     */
+    public ReplayQuoteSource(Path dir, double speed, boolean loop) {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Replay speed must be 0 (as fast as possible) or positive");
+        }
+        this.dir = dir;
+        this.speed = speed;
+        this.loop = loop;
+    }
+
+    public static Path tickPath(Path dir, String symbol) {
+        return dir.resolve(symbol + FILE_SUFFIX);
+    }
+
+    @Override
+    public Optional<StockQuote> getQuote(String symbol) {
+        if (!SYMBOL.matcher(symbol).matches()) {
+            return Optional.empty();
+        }
+        // open returns null for a symbol without a file, which computeIfAbsent doesn't store
+        return Optional.ofNullable(series.computeIfAbsent(symbol, this::open)).map(this::nextQuote);
+    }
+
+    /**
+     * Number of tick files in the directory
+     */
+    public long countSymbols() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (var files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX)).count();
+        }
+    }
+
+    private Series open(String symbol) {
+        Path path = tickPath(dir, symbol);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return new Series(symbol, TickFile.open(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private StockQuote nextQuote(Series replay) {
+        TickFile ticks = replay.ticks;
+        int index;
+        if (speed == 0) {
+            long next = replay.cursor.getAndIncrement();
+            index = (int) (loop ? next % ticks.size() : Math.min(next, ticks.size() - 1));
+        } else {
+            long first = ticks.timestamp(0);
+            long span = ticks.timestamp(ticks.size() - 1) - first;
+            long elapsed = (long) ((System.currentTimeMillis() - startedAt) * speed);
+            long offset = loop ? elapsed % (span + 1) : Math.min(elapsed, span);
+            index = ticks.floorIndex(first + offset);
+        }
+        return replay.quote(index);
+    }
+
+    /**
+     * A symbol's ticks and its session so far: open is the first tick replayed, high/low track every tick quoted
+     */
+    private static final class Series {
+        private final String symbol;
+        private final TickFile ticks;
+        private final AtomicLong cursor = new AtomicLong();
+        private final long open;
+        private long high;
+        private long low;
+
+        Series(String symbol, TickFile ticks) {
+            this.symbol = symbol;
+            this.ticks = ticks;
+            this.open = ticks.price(0);
+            this.high = open;
+            this.low = open;
+        }
+
+        StockQuote quote(int index) {
+            long price = ticks.price(index);
+            long sessionHigh;
+            long sessionLow;
+            synchronized (this) {
+                high = Math.max(high, price);
+                low = Math.min(low, price);
+                sessionHigh = high;
+                sessionLow = low;
+            }
+            double current = dollars(price);
+            double spread = current * 0.001; // 0.1% spread, as for Finnhub quotes
+            StockQuote quote = new StockQuote();
+            quote.setSymbol(symbol);
+            quote.setCurrentPrice(current);
+            quote.setHighPrice(dollars(sessionHigh));
+            quote.setLowPrice(dollars(sessionLow));
+            quote.setOpenPrice(dollars(open));
+            quote.setPreviousClose(dollars(open));
+            quote.setBuyerPrice(current + spread);
+            quote.setSellerPrice(current - spread);
+            quote.setTimestamp(ticks.timestamp(index) / 1000);
+            return quote;
+        }
+
+        private static double dollars(long cents) {
+            return (double) cents / FixedPoint.ONE;
+        }
+    }
+}
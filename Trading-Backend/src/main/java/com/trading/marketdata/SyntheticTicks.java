@@ -0,0 +1,73 @@
+package com.trading.marketdata;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates tick files with random-walk price paths (geometric Brownian motion), for replay without recordings.
+ *
+ * Each symbol's path depends only on the seed and the symbol, so a given seed always produces the same files,
+ * whatever the number or order of symbols generated alongside it.
+ */
+public final class SyntheticTicks {
+
+    private static final double SECONDS_PER_YEAR = 252 * 6.5 * 3600; // trading seconds
+
+    private SyntheticTicks() {
+    }
+
+    /**
+     * Symbols SYM00000, SYM00001, ... for generating a large universe
+     */
+    public static List<String> symbols(int count) {
+        List<String> symbols = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            symbols.add(String.format("SYM%05d", i));
+        }
+        return symbols;
+    }
+
+    /**
+     * Write {@code <dir>/<SYMBOL>.ticks} for each symbol that doesn't have a tick file yet
+     * @param ticks          ticks per symbol
+     * @param intervalMillis time between ticks
+     * @return number of files written
+     */
+    public static int generate(Path dir, List<String> symbols, int ticks, long intervalMillis, long seed)
+            throws IOException {
+        int written = 0;
+        for (String symbol : symbols) {
+            Path path = ReplayQuoteSource.tickPath(dir, symbol);
+            if (Files.exists(path)) {
+                continue;
+            }
+            SplittableRandom random = new SplittableRandom(seed * 31 + symbol.hashCode());
+            // Starting prices spread log-uniformly over $5-$500, annual volatility 15%-60%
+            double price = 5 * Math.pow(100, random.nextDouble());
+            double volatility = 0.15 + 0.45 * random.nextDouble();
+            double stepVolatility = volatility * Math.sqrt(intervalMillis / 1000.0 / SECONDS_PER_YEAR);
+
+            long[] timestamps = new long[ticks];
+            long[] prices = new long[ticks];
+            long start = 1_700_000_000_000L;
+            for (int i = 0; i < ticks; i++) {
+                timestamps[i] = start + i * intervalMillis;
+                prices[i] = Math.max(1, Math.round(price * 100));
+                price *= Math.exp(stepVolatility * gaussian(random) - stepVolatility * stepVolatility / 2);
+            }
+            TickFile.write(path, timestamps, prices);
+            written++;
+        }
+        return written;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17
+        double u = 1.0 - random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
@@ -0,0 +1,104 @@
+package com.trading.marketdata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One symbol's recorded price series, read through a read-only memory mapping.
+ *
+ * Layout: [int magic][int version][long count] then count records of [long timestampMillis][long priceCents],
+ * in timestamp order. Reads use absolute positions only, so one instance can be shared by any number of threads;
+ * the pages are loaded by the OS on first touch, so opening a file costs nothing per tick.
+ */
+public class TickFile {
+
+    private static final int MAGIC = 0x5449434B; // "TICK"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+
+    private TickFile(MappedByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * Map a tick file; the file can be closed (or replaced) afterwards without affecting the mapping
+     */
+    public static TickFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " tick file: " + path);
+            }
+            long count = buffer.getLong(8);
+            if (count < 1 || HEADER_SIZE + count * RECORD_SIZE > buffer.capacity()) {
+                throw new IOException("Tick file " + path + " is empty or truncated");
+            }
+            return new TickFile(buffer, (int) count);
+        }
+    }
+
+    /**
+     * Write a series as a tick file, replacing any existing file
+     * @param timestamps epoch millis, ascending
+     * @param prices     cents
+     */
+    public static void write(Path path, long[] timestamps, long[] prices) throws IOException {
+        if (timestamps.length != prices.length || timestamps.length == 0) {
+            throw new IllegalArgumentException("Need the same, non-zero number of timestamps and prices");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + timestamps.length * RECORD_SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(timestamps.length);
+        for (int i = 0; i < timestamps.length; i++) {
+            buffer.putLong(timestamps[i]).putLong(prices[i]);
+        }
+        buffer.flip();
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long timestamp(int index) {
+        return buffer.getLong(HEADER_SIZE + index * RECORD_SIZE);
+    }
+
+    public long price(int index) {
+        return buffer.getLong(HEADER_SIZE + index * RECORD_SIZE + 8);
+    }
+
+    /**
+     * Index of the last tick at or before the given time; 0 if the time is before the first tick
+     */
+    public int floorIndex(long timestampMillis) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (timestamp(mid) <= timestampMillis) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,82 @@
+package com.trading.model;
+
+import com.trading.dto.TradeResponse;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * IdempotencyRecord Entity - The response a buy/sell returned for an Idempotency-Key, replayed to retries
+ * Inserted in the trade's own transaction, so a trade and its key are committed together or not at all
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        // Serves the purge of expired keys
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord implements Persistable<String> {
+
+    // Endpoint, user and client key, e.g. "buy:42:3f0c..."
+    @Id
+    @Column(length = 160)
+    private String id;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash; // SHA-256 of the request body, so a key reused for another request is caught
+
+    @Column(nullable = false)
+    private Boolean success;
+
+    @Column(length = 500)
+    private String message;
+
+    private String symbol;
+
+    private Integer quantity;
+
+    private BigDecimal price;
+
+    private BigDecimal totalAmount;
+
+    private BigDecimal remainingBalance;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Always inserted, never updated: lets save() insert without reading the row first
+    @Transient
+    private boolean stored;
+
+    public IdempotencyRecord(String id, String requestHash, TradeResponse response) {
+        this.id = id;
+        this.requestHash = requestHash;
+        this.success = response.isSuccess();
+        this.message = response.getMessage();
+        this.symbol = response.getSymbol();
+        this.quantity = response.getQuantity();
+        this.price = response.getPrice();
+        this.totalAmount = response.getTotalAmount();
+        this.remainingBalance = response.getRemainingBalance();
+    }
+
+    public TradeResponse toResponse() {
+        return new TradeResponse(success, message, symbol, quantity, price, totalAmount, remainingBalance);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
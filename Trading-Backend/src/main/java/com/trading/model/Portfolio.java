@@ -4,27 +4,35 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * Portfolio Entity - Represents user's stock holdings
+ * A user holds at most one row per symbol; (userId, symbol) is its natural id
+ * Cached in the second-level cache, by id and by (userId, symbol), when enabled (see EntityCacheConfig)
  */
 @Entity
 @Table(name = "portfolio")
+@NaturalIdCache(region = "portfolio-by-user-symbol")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Portfolio {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "portfolio_seq")
+    @SequenceGenerator(name = "portfolio_seq", sequenceName = "portfolio_seq", allocationSize = 50)
     private Long id;
 
+    @NaturalId
     @Column(nullable = false)
     private Long userId;
 
+    @NaturalId
     @Column(nullable = false)
     private String symbol; // Stock symbol (e.g., AAPL, GOOGL)
 
@@ -0,0 +1,47 @@
+package com.trading.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * PositionLot Entity - Shares bought in one trade that the user still holds (a tax lot)
+ * Opened on every buy and consumed oldest first on sells; a lot is deleted once all its shares are sold
+ */
+@Entity
+@Table(name = "position_lots", indexes = {
+        // Serves the FIFO scan of a user's open lots of a symbol
+        @Index(name = "idx_position_lots_user_symbol", columnList = "user_id, symbol, opened_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionLot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "position_lots_seq")
+    @SequenceGenerator(name = "position_lots_seq", sequenceName = "position_lots_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(nullable = false)
+    private Integer quantity; // Shares bought
+
+    @Column(name = "remaining_quantity", nullable = false)
+    private Integer remainingQuantity; // Shares not yet sold
+
+    @Column(name = "cost_price", nullable = false)
+    private BigDecimal costPrice; // Price paid per share
+
+    @Column(name = "opened_at", nullable = false)
+    private LocalDateTime openedAt = LocalDateTime.now();
+}
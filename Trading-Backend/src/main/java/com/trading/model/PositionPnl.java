@@ -0,0 +1,48 @@
+package com.trading.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.NaturalId;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * PositionPnl Entity - Running FIFO totals for one user's position in one symbol
+ * Updated with the lots in every trade's transaction, so a P&L report reads these instead of the history.
+ * Kept after the position is sold out, to carry its realized P&L. (userId, symbol) is its natural id.
+ */
+@Entity
+@Table(name = "position_pnl")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PositionPnl {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "position_pnl_seq")
+    @SequenceGenerator(name = "position_pnl_seq", sequenceName = "position_pnl_seq", allocationSize = 50)
+    private Long id;
+
+    @NaturalId
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @NaturalId
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(name = "open_quantity", nullable = false)
+    private Integer openQuantity = 0; // Shares in open lots (equals the portfolio quantity)
+
+    @Column(name = "open_cost", nullable = false)
+    private BigDecimal openCost = BigDecimal.ZERO; // What the shares in open lots cost (FIFO cost basis)
+
+    @Column(name = "realized_pnl", nullable = false)
+    private BigDecimal realizedPnl = BigDecimal.ZERO; // Sale proceeds minus the FIFO cost of the shares sold
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -12,14 +12,18 @@ import java.time.LocalDateTime;
  * Transaction Entity - Records all buy/sell transactions
  */
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Serves history reads and keyset pagination on (transactionDate, id) per user
+        @Index(name = "idx_transactions_user_date_id", columnList = "user_id, transaction_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -1,27 +1,37 @@
 package com.trading.model;
 
+import com.trading.service.AccountEventPublisher;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * User Entity - Represents a trader in the platform
+ * Changes are published as AccountChangedEvents (see AccountEventPublisher)
+ * Cached in the second-level cache, by id and by username, when enabled (see EntityCacheConfig)
  */
 @Entity
 @Table(name = "users")
+@EntityListeners(AccountEventPublisher.class)
+@NaturalIdCache(region = "users-by-username")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
+    // Never changes once registered, so username -> id can be cached
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String username;
 
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,13 +13,16 @@ import java.util.Optional;
  * Repository for Portfolio entity operations
  */
 @Repository
-public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
+public interface PortfolioRepository extends JpaRepository<Portfolio, Long>, PortfolioRepositoryCustom {
     
     // Get all portfolio items for a user ordered by symbol
     @Query("SELECT p FROM Portfolio p WHERE p.userId = ?1 ORDER BY p.symbol ASC")
     List<Portfolio> findByUserId(Long userId);
     
     Optional<Portfolio> findByUserIdAndSymbol(Long userId, String symbol);
+
+    // Load several users' holdings of several symbols in a single query
+    List<Portfolio> findByUserIdInAndSymbolIn(Collection<Long> userIds, Collection<String> symbols);
     
     boolean existsByUserIdAndSymbol(Long userId, String symbol);
 }
@@ -0,0 +1,18 @@
+package com.trading.repository;
+
+import com.trading.model.Portfolio;
+
+import java.util.Optional;
+
+/**
+ * Holding lookups by (userId, symbol), the natural id, which can be served from the second-level cache
+ */
+public interface PortfolioRepositoryCustom {
+
+    /**
+     * A user's holding of a symbol
+     * Unlike findByUserIdAndSymbol this doesn't flush pending changes first, so use it before the transaction
+     * modifies any holding
+     */
+    Optional<Portfolio> findHolding(Long userId, String symbol);
+}
@@ -0,0 +1,30 @@
+package com.trading.repository;
+
+import com.trading.model.Portfolio;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Implementation of the natural id lookups
+ * Hibernate resolves (userId, symbol) from the natural id cache when Portfolio is cached, else with a query
+ * Transactional so the Session is open when called outside a trade (the shared EntityManager's unwrap
+ * would otherwise hand out a closed one), and read-write so such lookups are served by the primary
+ */
+@Transactional
+public class PortfolioRepositoryImpl implements PortfolioRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Portfolio> findHolding(Long userId, String symbol) {
+        return entityManager.unwrap(Session.class).byNaturalId(Portfolio.class)
+                .using("userId", userId)
+                .using("symbol", symbol)
+                .loadOptional();
+    }
+}
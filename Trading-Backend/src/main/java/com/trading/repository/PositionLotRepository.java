@@ -0,0 +1,28 @@
+package com.trading.repository;
+
+import com.trading.model.PositionLot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for open position lots
+ */
+@Repository
+public interface PositionLotRepository extends JpaRepository<PositionLot, Long> {
+
+    // A user's open lots of a symbol, oldest first (the order sells consume them in)
+    @Query("SELECT l FROM PositionLot l WHERE l.userId = ?1 AND l.symbol = ?2 ORDER BY l.openedAt, l.id")
+    List<PositionLot> findOpenLots(Long userId, String symbol);
+
+    // All of a user's open lots, grouped by symbol, oldest first
+    @Query("SELECT l FROM PositionLot l WHERE l.userId = ?1 ORDER BY l.symbol, l.openedAt, l.id")
+    List<PositionLot> findOpenLotsByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM PositionLot l WHERE l.userId = ?1 AND l.symbol = ?2")
+    int deleteOpenLots(Long userId, String symbol);
+}
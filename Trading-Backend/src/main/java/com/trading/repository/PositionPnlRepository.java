@@ -0,0 +1,16 @@
+package com.trading.repository;
+
+import com.trading.model.PositionPnl;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for per-position FIFO P&L totals
+ */
+@Repository
+public interface PositionPnlRepository extends JpaRepository<PositionPnl, Long>, PositionPnlRepositoryCustom {
+
+    List<PositionPnl> findByUserIdOrderBySymbol(Long userId);
+}
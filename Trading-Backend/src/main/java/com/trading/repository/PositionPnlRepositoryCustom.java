@@ -0,0 +1,18 @@
+package com.trading.repository;
+
+import com.trading.model.PositionPnl;
+
+import java.util.Optional;
+
+/**
+ * Position totals lookup by (userId, symbol), the natural id
+ */
+public interface PositionPnlRepositoryCustom {
+
+    /**
+     * A user's totals for a symbol
+     * Resolved from the persistence context when the transaction already has them (e.g. an earlier order of
+     * a batch), without flushing, so the batch's writes still go out together at commit
+     */
+    Optional<PositionPnl> findPosition(Long userId, String symbol);
+}
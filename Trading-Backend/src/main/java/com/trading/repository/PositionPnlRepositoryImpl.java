@@ -0,0 +1,28 @@
+package com.trading.repository;
+
+import com.trading.model.PositionPnl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Implementation of the natural id lookup
+ * Transactional for the same reason as PortfolioRepositoryImpl; in practice always called inside a trade
+ */
+@Transactional
+public class PositionPnlRepositoryImpl implements PositionPnlRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<PositionPnl> findPosition(Long userId, String symbol) {
+        return entityManager.unwrap(Session.class).byNaturalId(PositionPnl.class)
+                .using("userId", userId)
+                .using("symbol", symbol)
+                .loadOptional();
+    }
+}
@@ -0,0 +1,33 @@
+package com.trading.repository;
+
+import com.trading.model.Portfolio;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Reactive (R2DBC) repository for Portfolio, used by the "reactive" profile
+ */
+@Repository
+public interface ReactivePortfolioRepository extends R2dbcRepository<Portfolio, Long> {
+
+    // Get all portfolio items for a user ordered by symbol
+    @Query("SELECT * FROM portfolio WHERE user_id = :userId ORDER BY symbol ASC")
+    Flux<Portfolio> findByUserId(Long userId);
+
+    // Load several users' holdings of one symbol in a single query
+    Flux<Portfolio> findByUserIdInAndSymbol(Collection<Long> userIds, String symbol);
+
+    Mono<Portfolio> findByUserIdAndSymbol(Long userId, String symbol);
+
+    @Modifying
+    @Query("UPDATE portfolio SET quantity = :quantity, avg_purchase_price = :avgPurchasePrice, updated_at = :updatedAt WHERE id = :id")
+    Mono<Integer> updatePosition(Long id, int quantity, BigDecimal avgPurchasePrice, LocalDateTime updatedAt);
+}
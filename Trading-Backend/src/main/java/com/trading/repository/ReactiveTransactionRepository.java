@@ -0,0 +1,18 @@
+package com.trading.repository;
+
+import com.trading.model.Transaction;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive (R2DBC) repository for Transaction, used by the "reactive" profile
+ */
+@Repository
+public interface ReactiveTransactionRepository extends R2dbcRepository<Transaction, Long> {
+
+    // Get all transactions for a user ordered by transaction date (newest first)
+    @Query("SELECT * FROM transactions WHERE user_id = :userId ORDER BY transaction_date DESC, id DESC")
+    Flux<Transaction> findByUserId(Long userId);
+}
@@ -0,0 +1,38 @@
+package com.trading.repository;
+
+import com.trading.model.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Reactive (R2DBC) repository for User, used by the "reactive" profile
+ */
+@Repository
+public interface ReactiveUserRepository extends R2dbcRepository<User, Long> {
+
+    Mono<User> findByUsername(String username);
+
+    Mono<Boolean> existsByUsername(String username);
+
+    Mono<Boolean> existsByEmail(String email);
+
+    // Load users with row locks held until the transaction ends, in ascending id order
+    @Query("SELECT * FROM users WHERE id IN (:ids) ORDER BY id ASC FOR UPDATE")
+    Flux<User> findAllByIdForUpdate(Collection<Long> ids);
+
+    // Resolve a username to an id without loading (or locking) the user
+    @Query("SELECT id FROM users WHERE username = :username")
+    Mono<Long> findIdByUsername(String username);
+
+    @Modifying
+    @Query("UPDATE users SET balance = :balance, updated_at = :updatedAt WHERE id = :id")
+    Mono<Integer> updateBalance(Long id, BigDecimal balance, LocalDateTime updatedAt);
+}
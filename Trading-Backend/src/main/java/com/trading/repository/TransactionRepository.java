@@ -1,17 +1,19 @@
 package com.trading.repository;
 
 import com.trading.model.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Repository for Transaction entity operations
  */
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
     
     // Get all transactions for a user ordered by transaction date (newest first)
     @Query("SELECT t FROM Transaction t WHERE t.userId = ?1 ORDER BY t.transactionDate DESC")
@@ -20,4 +22,14 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // Get transactions for a specific symbol ordered by date
     @Query("SELECT t FROM Transaction t WHERE t.userId = ?1 AND t.symbol = ?2 ORDER BY t.transactionDate DESC")
     List<Transaction> findByUserIdAndSymbol(Long userId, String symbol);
+
+    // Keyset pagination on (transactionDate, id), newest first: first page
+    @Query("SELECT t FROM Transaction t WHERE t.userId = ?1 ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageByUserId(Long userId, Pageable pageable);
+
+    // Keyset pagination on (transactionDate, id), newest first: page after the given (transactionDate, id)
+    @Query("SELECT t FROM Transaction t WHERE t.userId = ?1 " +
+           "AND (t.transactionDate < ?2 OR (t.transactionDate = ?2 AND t.id < ?3)) " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageByUserIdBefore(Long userId, LocalDateTime transactionDate, Long id, Pageable pageable);
 }
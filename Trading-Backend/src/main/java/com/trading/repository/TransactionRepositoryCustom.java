@@ -0,0 +1,20 @@
+package com.trading.repository;
+
+import com.trading.model.Transaction;
+
+import java.util.function.Consumer;
+
+/**
+ * Custom Transaction queries that can't be expressed as Spring Data query methods
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Visit a user's transactions newest first, reading rows from the database as they are consumed.
+     * Each row is detached after the action runs, so memory stays flat regardless of history length.
+     * Must be called inside a transaction.
+     *
+     * @param fetchSize JDBC fetch size hint (Integer.MIN_VALUE streams row by row on MySQL)
+     */
+    void forEachByUserId(Long userId, int fetchSize, Consumer<Transaction> action);
+}
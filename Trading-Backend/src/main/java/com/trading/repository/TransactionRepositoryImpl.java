@@ -0,0 +1,34 @@
+package com.trading.repository;
+
+import com.trading.model.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the custom Transaction queries
+ */
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void forEachByUserId(Long userId, int fetchSize, Consumer<Transaction> action) {
+        try (Stream<Transaction> rows = entityManager
+                .createQuery("SELECT t FROM Transaction t WHERE t.userId = :userId " +
+                        "ORDER BY t.transactionDate DESC, t.id DESC", Transaction.class)
+                .setParameter("userId", userId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            rows.forEach(transaction -> {
+                action.accept(transaction);
+                entityManager.detach(transaction);
+            });
+        }
+    }
+}
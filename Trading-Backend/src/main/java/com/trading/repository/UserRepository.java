@@ -1,22 +1,40 @@
 package com.trading.repository;
 
 import com.trading.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository for User entity operations
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     
     Optional<User> findByEmail(String email);
     
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+
+    // Load users with row locks (SELECT ... FOR UPDATE) held until the transaction ends.
+    // Rows are locked in ascending id order, in a single round trip.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN ?1 ORDER BY u.id ASC")
+    List<User> findAllByIdForUpdate(Collection<Long> ids);
+
+    // Resolve several usernames to ids in one query, without loading the users
+    List<UsernameId> findByUsernameIn(Collection<String> usernames);
+
+    interface UsernameId {
+        Long getId();
+
+        String getUsername();
+    }
 }
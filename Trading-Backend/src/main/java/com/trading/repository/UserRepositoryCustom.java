@@ -0,0 +1,23 @@
+package com.trading.repository;
+
+import com.trading.model.User;
+
+import java.util.Optional;
+
+/**
+ * User lookups by username, the natural id, which can be served from the second-level cache
+ *
+ * Matching follows the username column's collation, as the derived query these replace did: on MySQL
+ * (case-insensitive) "alice" finds "Alice", on H2 (the bench and load profiles) only the exact spelling
+ * does. The natural id cache is keyed by the spelling looked up, so a spelling it hasn't seen is resolved
+ * by a query, never from another spelling's entry, and can't give a different answer than the database.
+ */
+public interface UserRepositoryCustom {
+
+    Optional<User> findByUsername(String username);
+
+    /**
+     * Resolve a username to an id without loading (or locking) the user
+     */
+    Optional<Long> findIdByUsername(String username);
+}
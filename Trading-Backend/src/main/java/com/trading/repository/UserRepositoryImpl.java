@@ -0,0 +1,34 @@
+package com.trading.repository;
+
+import com.trading.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Implementation of the natural id lookups
+ * Hibernate resolves the username from the natural id cache when User is cached, else with a query on username
+ * Transactional so the Session is open when called outside a trade (the shared EntityManager's unwrap
+ * would otherwise hand out a closed one), and read-write so such lookups are served by the primary
+ */
+@Transactional
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(username);
+    }
+
+    @Override
+    public Optional<Long> findIdByUsername(String username) {
+        // An uninitialized proxy: only the id is resolved, the row itself isn't read
+        User reference = entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).getReference(username);
+        return Optional.ofNullable(reference).map(User::getId);
+    }
+}
@@ -0,0 +1,17 @@
+package com.trading.service;
+
+/**
+ * Published by AccountEventPublisher whenever a user row is inserted, updated or deleted, from inside
+ * the writing transaction. Carries the account's state after the change.
+ *
+ * @param balance cash balance in cents
+ * @param closed  true when the user has been deleted
+ */
+public record AccountChangedEvent(
+        long sequence,
+        Long userId,
+        String username,
+        long balance,
+        boolean closed
+) {
+}
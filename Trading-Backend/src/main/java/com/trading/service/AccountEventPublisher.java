@@ -0,0 +1,50 @@
+package com.trading.service;
+
+import com.trading.model.User;
+import com.trading.util.FixedPoint;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JPA entity listener on {@link User} publishing an {@link AccountChangedEvent} for every change to a user row,
+ * so balance changes are seen whichever path (trade, settlement, journal projection, admin update) makes them.
+ *
+ * Callbacks run when the change is flushed, inside its transaction; updates are flushed while the writer still
+ * holds the user's row lock, so sequence orders the changes to one account. Hibernate gets this listener
+ * from Spring, which is what lets it be autowired.
+ */
+public class AccountEventPublisher {
+
+    private static final AtomicLong changeSequence = new AtomicLong();
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Sequence number of the latest published account change
+     */
+    public static long lastChangeSequence() {
+        return changeSequence.get();
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onSaved(User user) {
+        publish(user, false);
+    }
+
+    @PostRemove
+    void onRemoved(User user) {
+        publish(user, true);
+    }
+
+    private void publish(User user, boolean closed) {
+        eventPublisher.publishEvent(new AccountChangedEvent(changeSequence.incrementAndGet(), user.getId(),
+                user.getUsername(), FixedPoint.fromBigDecimal(user.getBalance()), closed));
+    }
+}
@@ -0,0 +1,126 @@
+package com.trading.service;
+
+import com.trading.dto.LockStats;
+import com.trading.model.User;
+import com.trading.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Service for locking user accounts during balance and portfolio mutations.
+ *
+ * Every write path locks the user rows it touches before reading balances or holdings,
+ * always in ascending user id order, so crossing trades (A sells to B while B sells to A)
+ * queue behind each other instead of deadlocking. Holding a user's row lock also guards
+ * that user's portfolio rows, since all portfolio writes happen under it.
+ */
+@Service
+public class AccountLockService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${trading.locking.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${trading.locking.retry-backoff-ms:10}")
+    private long retryBackoffMillis;
+
+    private final AtomicLong lockAcquisitions = new AtomicLong();
+    private final AtomicLong lockWaitNanos = new AtomicLong();
+    private final AtomicLong maxLockWaitNanos = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public AccountLockService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Lock the given users' rows in ascending id order
+     * Must be called inside a transaction; locks are held until it ends
+     * @return locked users keyed by id, in the order they were locked; users that don't exist are absent
+     */
+    public Map<Long, User> lockUsers(Long... userIds) {
+        List<Long> ordered = Arrays.stream(userIds).distinct().sorted().toList();
+        long start = System.nanoTime();
+        List<User> users = userRepository.findAllByIdForUpdate(ordered);
+        recordLockWait(System.nanoTime() - start);
+
+        Map<Long, User> locked = new LinkedHashMap<>();
+        users.forEach(user -> locked.put(user.getId(), user));
+        return locked;
+    }
+
+    /**
+     * Lock a single user's row
+     */
+    public Optional<User> lockUser(Long userId) {
+        return Optional.ofNullable(lockUsers(userId).get(userId));
+    }
+
+    /**
+     * Run work in a new transaction, retrying with jittered backoff when it loses a lock
+     * (lock wait timeout or deadlock). Each attempt starts from a fresh transaction.
+     */
+    public <T> T executeWithRetry(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    failures.incrementAndGet();
+                    throw new RuntimeException("Trade could not be completed due to concurrent activity on the account. Please retry.", e);
+                }
+                retries.incrementAndGet();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public LockStats getStats() {
+        long acquisitions = lockAcquisitions.get();
+        double avgWaitMillis = acquisitions == 0 ? 0.0 : lockWaitNanos.get() / 1_000_000.0 / acquisitions;
+        return new LockStats(
+                acquisitions,
+                avgWaitMillis,
+                maxLockWaitNanos.get() / 1_000_000.0,
+                conflicts.get(),
+                retries.get(),
+                failures.get()
+        );
+    }
+
+    private void recordLockWait(long nanos) {
+        lockAcquisitions.incrementAndGet();
+        lockWaitNanos.addAndGet(nanos);
+        maxLockWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void backoff(int attempt) {
+        long maxSleep = retryBackoffMillis * attempt;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxSleep / 2, maxSleep + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying trade", e);
+        }
+    }
+}
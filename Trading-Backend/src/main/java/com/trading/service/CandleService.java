@@ -0,0 +1,128 @@
+package com.trading.service;
+
+import com.trading.dto.Candle;
+import com.trading.dto.CandleSeries;
+import com.trading.engine.CandleInterval;
+import com.trading.engine.CandleRing;
+import com.trading.util.FixedPoint;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service aggregating prices into per-symbol OHLCV candles at every {@link CandleInterval}.
+ *
+ * Every quote loaded from upstream ({@link PriceTickEvent}) and every trade completed through this instance
+ * adds its price to the symbol's current bars; trades also add their quantity to the volume. Each symbol keeps
+ * a fixed number of bars per interval in {@link CandleRing}s allocated on its first price, so recording a price
+ * allocates nothing and a read allocates only the response. History is in memory only and starts empty.
+ *
+ * New symbols are ignored once max-symbols are tracked, which bounds memory to
+ * max-symbols x intervals x bars-per-interval bars of 48 bytes each.
+ */
+@Service
+@ConditionalOnProperty(name = "trading.candles.enabled", havingValue = "true", matchIfMissing = true)
+public class CandleService {
+
+    private static final CandleInterval[] INTERVALS = CandleInterval.values();
+
+    private final int barsPerInterval;
+    private final int maxSymbols;
+    private final Map<String, SymbolCandles> candles = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public CandleService(@Value("${trading.candles.bars-per-interval:500}") int barsPerInterval,
+                         @Value("${trading.candles.max-symbols:200}") int maxSymbols,
+                         MeterRegistry meterRegistry) {
+        this.barsPerInterval = barsPerInterval;
+        this.maxSymbols = maxSymbols;
+
+        Gauge.builder("trading.candles.symbols", candles, Map::size)
+                .description("Symbols with candles held in memory")
+                .register(meterRegistry);
+        FunctionCounter.builder("trading.candles.dropped", dropped, AtomicLong::get)
+                .description("Prices not recorded because max-symbols other symbols were already tracked")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onPriceTick(PriceTickEvent tick) {
+        record(tick.symbol(), tick.timestamp(), tick.price(), 0);
+    }
+
+    /**
+     * Add a completed trade's price and volume
+     * @param price price in cents
+     */
+    public void recordTrade(String symbol, long price, int quantity) {
+        record(symbol, System.currentTimeMillis(), price, quantity);
+    }
+
+    /**
+     * A symbol's most recent candles, oldest first; empty if no price has been seen for it
+     * @param limit number of candles, capped at bars-per-interval
+     */
+    public CandleSeries getCandles(String symbol, CandleInterval interval, int limit) {
+        String key = symbol.toUpperCase();
+        SymbolCandles symbolCandles = candles.get(key);
+        if (symbolCandles == null) {
+            return new CandleSeries(key, interval.getLabel(), List.of());
+        }
+        synchronized (symbolCandles) {
+            CandleRing ring = symbolCandles.rings[interval.ordinal()];
+            int count = Math.min(limit, ring.size());
+            List<Candle> result = new ArrayList<>(count);
+            for (int age = count - 1; age >= 0; age--) {
+                result.add(new Candle(
+                        ring.getStart(age),
+                        FixedPoint.toBigDecimal(ring.getOpen(age)),
+                        FixedPoint.toBigDecimal(ring.getHigh(age)),
+                        FixedPoint.toBigDecimal(ring.getLow(age)),
+                        FixedPoint.toBigDecimal(ring.getClose(age)),
+                        ring.getVolume(age)
+                ));
+            }
+            return new CandleSeries(key, interval.getLabel(), result);
+        }
+    }
+
+    public int getBarsPerInterval() {
+        return barsPerInterval;
+    }
+
+    private void record(String symbol, long timestamp, long price, long quantity) {
+        SymbolCandles symbolCandles = candles.get(symbol);
+        if (symbolCandles == null) {
+            if (candles.size() >= maxSymbols) {
+                dropped.incrementAndGet();
+                return;
+            }
+            symbolCandles = candles.computeIfAbsent(symbol, key -> new SymbolCandles(barsPerInterval));
+        }
+        synchronized (symbolCandles) {
+            for (CandleRing ring : symbolCandles.rings) {
+                ring.add(timestamp, price, quantity);
+            }
+        }
+    }
+
+    private static class SymbolCandles {
+        private final CandleRing[] rings = new CandleRing[INTERVALS.length];
+
+        SymbolCandles(int barsPerInterval) {
+            for (CandleInterval interval : INTERVALS) {
+                rings[interval.ordinal()] = new CandleRing(interval.getMillis(), barsPerInterval);
+            }
+        }
+    }
+}
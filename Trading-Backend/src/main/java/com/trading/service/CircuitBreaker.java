@@ -0,0 +1,81 @@
+package com.trading.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker for an upstream dependency, tripped by consecutive failures.
+ *
+ * Closed: calls go through. After failureThreshold failures in a row it opens, and calls are
+ * rejected without reaching the upstream for openMillis. Then one probe call is let through
+ * (half-open): a success closes the circuit, a failure opens it for another openMillis.
+ * A probe that never reports back (e.g. cancelled) doesn't wedge the breaker: another
+ * probe is allowed once openMillis has passed again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long retryAt;
+
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Whether a call may go upstream now; every permitted call must report {@link #onSuccess} or {@link #onFailure}
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now >= retryAt) {
+            state = State.HALF_OPEN;
+            retryAt = now + openMillis;
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            retryAt = System.currentTimeMillis() + openMillis;
+            opened.incrementAndGet();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Times the circuit has opened
+     */
+    public long getOpened() {
+        return opened.get();
+    }
+
+    /**
+     * Calls rejected while open
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,78 @@
+package com.trading.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.trading.config.EntityCacheConfig;
+import com.trading.dto.EntityCacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Second-level cache counters per region, exported through the Actuator metrics/prometheus endpoints:
+ * - trading.entity.cache{region, result}: lookups that hit or missed, and entries put
+ * - trading.entity.cache.size{region}: entries currently cached
+ */
+@Component
+@ConditionalOnProperty(name = "trading.entity-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class EntityCacheMetrics {
+
+    private final Statistics statistics;
+    private final CacheManager cacheManager;
+    private final List<String> regions;
+
+    public EntityCacheMetrics(EntityManagerFactory entityManagerFactory, CacheManager entityCacheManager,
+                              EntityCacheConfig entityCacheConfig, MeterRegistry meterRegistry) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.cacheManager = entityCacheManager;
+        this.regions = List.copyOf(entityCacheConfig.getCachedRegions());
+        for (String region : regions) {
+            regionCounter(meterRegistry, region, "hit", EntityCacheStats::getHits);
+            regionCounter(meterRegistry, region, "miss", EntityCacheStats::getMisses);
+            regionCounter(meterRegistry, region, "put", EntityCacheStats::getPuts);
+            Gauge.builder("trading.entity.cache.size", this, metrics -> metrics.getStats(region).getSize())
+                    .description("Entries in a second-level cache region")
+                    .tag("region", region)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Counters for every region in use (disabled entities have none)
+     */
+    public List<EntityCacheStats> getStats() {
+        return regions.stream().map(this::getStats).toList();
+    }
+
+    private EntityCacheStats getStats(String region) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        long hits = regionStatistics.getHitCount();
+        long misses = regionStatistics.getMissCount();
+        long lookups = hits + misses;
+        return new EntityCacheStats(
+                region,
+                hits,
+                misses,
+                regionStatistics.getPutCount(),
+                lookups == 0 ? 0.0 : (double) hits / lookups,
+                cacheManager.getCache(region).unwrap(Cache.class).estimatedSize()
+        );
+    }
+
+    private void regionCounter(MeterRegistry meterRegistry, String region, String result,
+                               ToDoubleFunction<EntityCacheStats> count) {
+        FunctionCounter.builder("trading.entity.cache", this, metrics -> count.applyAsDouble(metrics.getStats(region)))
+                .description("Second-level cache lookups by result, and entries put")
+                .tags("region", region, "result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,65 +1,351 @@
 package com.trading.service;
 
+import com.trading.dto.QuoteCacheStats;
 import com.trading.dto.StockQuote;
+import com.trading.marketdata.QuoteSource;
+import com.trading.util.FixedPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Service for integrating with Finnhub API to get live stock data
+ * Every quote loaded into the cache is also published as a {@link PriceTickEvent}, on the tick executor
+ *
+ * Upstream calls are bounded by connect/response timeouts and go through a circuit breaker, which rejects
+ * them without a network call while Finnhub keeps failing. Optionally, a call still unanswered after
+ * hedge-delay-ms is raced against a second request. A quote that can't be fetched is served from the cache
+ * if it is no older than finnhub.cache.max-stale-ms; failing that, it is mock data only if finnhub.mock.enabled,
+ * otherwise the caller gets an error rather than a made-up price. Mock quotes aren't cached.
+ *
+ * With trading.quotes.source=replay, quotes come from recorded ticks (see {@link QuoteSource}) instead of Finnhub.
  */
 @Service
-public class FinnhubService {
+public class FinnhubService implements ApplicationEventPublisherAware {
+
+    private static final Logger log = LoggerFactory.getLogger(FinnhubService.class);
 
     private final WebClient webClient;
+    private final QuoteCache quoteCache;
+    private final CircuitBreaker circuitBreaker;
+    private final long hedgeDelayMillis;
+    private final MeterRegistry meterRegistry;
+    private final Timer fetchSuccess;
+    private final Timer fetchError;
+    private final Timer fetchRejected;
+    private final Timer fetchNoQuote;
+    private final Counter hedgedRequests;
+    private final Counter mockServed;
 
     @Value("${finnhub.api.key}")
     private String apiKey;
 
-    public FinnhubService(@Value("${finnhub.api.base-url}") String baseUrl) {
+    // Serve mock data when no real or acceptably stale quote is available
+    @Value("${finnhub.mock.enabled:false}")
+    private boolean mockEnabled;
+
+    // Absent unless trading.quotes.source=replay
+    @Autowired(required = false)
+    private QuoteSource quoteSource;
+
+    @Autowired
+    @Qualifier("tickExecutor")
+    private Executor tickExecutor;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    // Latest tick per symbol not yet handed to listeners; a symbol has at most one drain queued
+    private final Map<String, PriceTickEvent> pendingTicks = new ConcurrentHashMap<>();
+    private final Counter droppedTicks;
+
+    public FinnhubService(@Value("${finnhub.api.base-url}") String baseUrl,
+                          @Value("${finnhub.client.connect-timeout-ms:1000}") int connectTimeoutMillis,
+                          @Value("${finnhub.client.response-timeout-ms:2000}") long responseTimeoutMillis,
+                          @Value("${finnhub.client.hedge-delay-ms:0}") long hedgeDelayMillis,
+                          @Value("${finnhub.circuit.failure-threshold:5}") int circuitFailureThreshold,
+                          @Value("${finnhub.circuit.open-ms:10000}") long circuitOpenMillis,
+                          @Value("${finnhub.cache.ttl-ms:1000}") long cacheTtlMillis,
+                          @Value("${finnhub.cache.max-size:1000}") int cacheMaxSize,
+                          @Value("${finnhub.cache.max-stale-ms:0}") long cacheMaxStaleMillis,
+                          @Value("${finnhub.cache.stale-while-revalidate:false}") boolean staleWhileRevalidate,
+                          MeterRegistry meterRegistry) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMillis));
         this.webClient = WebClient.builder()
                 .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
+        this.quoteCache = new QuoteCache(cacheTtlMillis, cacheMaxSize, cacheMaxStaleMillis, staleWhileRevalidate);
+        this.circuitBreaker = new CircuitBreaker(circuitFailureThreshold, circuitOpenMillis);
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.meterRegistry = meterRegistry;
+        this.fetchSuccess = fetchTimer("success");
+        this.fetchError = fetchTimer("error");
+        this.fetchRejected = fetchTimer("rejected");
+        this.fetchNoQuote = fetchTimer("no_quote");
+        this.hedgedRequests = Counter.builder("finnhub.quote.hedged")
+                .description("Second requests sent because the first was slower than the hedge delay")
+                .register(meterRegistry);
+        this.mockServed = Counter.builder("finnhub.quote.mock")
+                .description("Mock quotes served in place of unavailable upstream quotes")
+                .register(meterRegistry);
+        this.droppedTicks = Counter.builder("finnhub.quote.ticks.dropped")
+                .description("Price ticks dropped because the tick executor's queue was full")
+                .register(meterRegistry);
+        registerCacheMeters();
+        registerCircuitMeters();
     }
 
     /**
      * Get real-time stock quote for a symbol
+     * Served from the quote cache; concurrent misses for a symbol share one upstream call
      * @param symbol Stock symbol (e.g., AAPL, GOOGL)
      * @return StockQuote object with current price and other details
+     * @throws RuntimeException if no quote is available and mock data is disabled
      */
     public StockQuote getStockQuote(String symbol) {
+        String upperSymbol = symbol.toUpperCase();
         try {
-            var response = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/quote")
-                            .queryParam("symbol", symbol.toUpperCase())
-                            .queryParam("token", apiKey)
-                            .build())
-                    .retrieve()
-                    .bodyToMono(FinnhubQuoteResponse.class)
-                    .block();
-
-            if (response != null) {
-                StockQuote quote = new StockQuote();
-                quote.setSymbol(symbol.toUpperCase());
-                quote.setCurrentPrice(response.getC());
-                quote.setHighPrice(response.getH());
-                quote.setLowPrice(response.getL());
-                quote.setOpenPrice(response.getO());
-                quote.setPreviousClose(response.getPc());
-                quote.setTimestamp(response.getT());
-                // Calculate buyer and seller prices based on spread
-                double spread = response.getC() * 0.001; // 0.1% spread
-                quote.setBuyerPrice(response.getC() + spread); // Ask price (higher)
-                quote.setSellerPrice(response.getC() - spread); // Bid price (lower)
-                return quote;
+            return quoteCache.get(upperSymbol, this::loadQuote);
+        } catch (RuntimeException e) {
+            return fallbackQuote(upperSymbol, e);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #getStockQuote}, for the reactive API.
+     * Shares the quote cache (and its in-flight fetches) with blocking callers.
+     */
+    public Mono<StockQuote> getStockQuoteReactive(String symbol) {
+        String upperSymbol = symbol.toUpperCase();
+        return Mono.fromFuture(() -> quoteCache.getAsync(upperSymbol, this::loadQuote))
+                .onErrorResume(e -> Mono.fromSupplier(() -> fallbackQuote(upperSymbol, e)));
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Get quote cache hit/miss/coalesce counters
+     */
+    public QuoteCacheStats getCacheStats() {
+        return quoteCache.getStats();
+    }
+
+    /**
+     * Cache loader: fetch a quote and publish it as a tick
+     */
+    private CompletableFuture<StockQuote> loadQuote(String symbol) {
+        return fetchStockQuote(symbol).map(this::publishTick).toFuture();
+    }
+
+    /**
+     * Fetch a quote from Finnhub (or the configured quote source), bypassing the cache
+     * Fails if the circuit is open, the request times out or errors, or the response is empty.
+     * A response without a price fails with {@link NoQuoteException}; Finnhub did answer, so that doesn't
+     * count against the circuit breaker.
+     */
+    private Mono<StockQuote> fetchStockQuote(String symbol) {
+        if (quoteSource != null) {
+            return Mono.fromSupplier(() -> quoteSource.getQuote(symbol)
+                    .orElseThrow(() -> new RuntimeException("No recorded ticks for " + symbol)));
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            if (!circuitBreaker.tryAcquire()) {
+                fetchRejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return Mono.error(new RuntimeException("Finnhub circuit breaker is open"));
             }
-        } catch (Exception e) {
-            System.err.println("Error fetching stock quote: " + e.getMessage());
+            return hedgedRequest(symbol)
+                    .switchIfEmpty(Mono.error(() -> new RuntimeException("Empty response from Finnhub")))
+                    .map(response -> toStockQuote(symbol, response))
+                    .doOnSuccess(quote -> {
+                        circuitBreaker.onSuccess();
+                        fetchSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    })
+                    .doOnError(e -> {
+                        if (e instanceof NoQuoteException) {
+                            circuitBreaker.onSuccess();
+                            fetchNoQuote.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            return;
+                        }
+                        circuitBreaker.onFailure();
+                        fetchError.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    });
+        });
+    }
+
+    /**
+     * The quote request, raced against a second one sent if the first hasn't answered within the hedge delay.
+     * Hedging trims tail latency at the cost of extra upstream calls (which count against the API rate limit).
+     */
+    private Mono<FinnhubQuoteResponse> hedgedRequest(String symbol) {
+        if (hedgeDelayMillis <= 0) {
+            return requestQuote(symbol);
         }
-        
-        // Return mock data if API fails or key is not configured
-        return getMockStockQuote(symbol);
+        Mono<FinnhubQuoteResponse> hedge = Mono.delay(Duration.ofMillis(hedgeDelayMillis))
+                .then(Mono.defer(() -> {
+                    hedgedRequests.increment();
+                    return requestQuote(symbol);
+                }));
+        return Mono.firstWithValue(requestQuote(symbol), hedge);
+    }
+
+    private Mono<FinnhubQuoteResponse> requestQuote(String symbol) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/quote")
+                        .queryParam("symbol", symbol.toUpperCase())
+                        .queryParam("token", apiKey)
+                        .build())
+                .retrieve()
+                .bodyToMono(FinnhubQuoteResponse.class);
+    }
+
+    /**
+     * Map a Finnhub response to a quote
+     * Finnhub answers an unknown symbol with a zero price rather than an error, so a missing or non-positive
+     * price is refused instead of becoming a quote that trades at 0
+     */
+    private StockQuote toStockQuote(String symbol, FinnhubQuoteResponse response) {
+        if (response.getC() == null || response.getC() <= 0) {
+            throw new NoQuoteException("Finnhub has no price for " + symbol.toUpperCase());
+        }
+        StockQuote quote = new StockQuote();
+        quote.setSymbol(symbol.toUpperCase());
+        quote.setCurrentPrice(response.getC());
+        quote.setHighPrice(response.getH());
+        quote.setLowPrice(response.getL());
+        quote.setOpenPrice(response.getO());
+        quote.setPreviousClose(response.getPc());
+        quote.setTimestamp(response.getT());
+        // Calculate buyer and seller prices based on spread
+        double spread = response.getC() * 0.001; // 0.1% spread
+        quote.setBuyerPrice(response.getC() + spread); // Ask price (higher)
+        quote.setSellerPrice(response.getC() - spread); // Bid price (lower)
+        return quote;
+    }
+
+    /**
+     * No fresh or acceptably stale quote: serve mock data if enabled, else fail.
+     * A symbol Finnhub has no price for always fails; a made-up price would let it be traded.
+     */
+    private StockQuote fallbackQuote(String symbol, Throwable e) {
+        if (!mockEnabled || isNoQuote(e)) {
+            throw new RuntimeException("Quote for " + symbol + " is unavailable: " + e.getMessage());
+        }
+        log.warn("Serving mock quote for {}: {}", symbol, e.getMessage());
+        mockServed.increment();
+        return publishTick(getMockStockQuote(symbol));
+    }
+
+    private static boolean isNoQuote(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NoQuoteException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queue a quote's tick for the listeners. The loading thread (a Netty event loop when the quote was
+     * fetched from Finnhub) only hands the tick over; ticks of a symbol arriving before the previous one
+     * was delivered replace it, so only its latest price is applied.
+     */
+    private StockQuote publishTick(StockQuote quote) {
+        if (eventPublisher != null && quote.getCurrentPrice() != null && quote.getCurrentPrice() > 0) {
+            String symbol = quote.getSymbol();
+            PriceTickEvent tick = new PriceTickEvent(symbol,
+                    FixedPoint.fromDouble(quote.getCurrentPrice()), System.currentTimeMillis());
+            if (pendingTicks.put(symbol, tick) == null) {
+                try {
+                    tickExecutor.execute(() -> deliverTick(symbol));
+                } catch (RejectedExecutionException e) {
+                    pendingTicks.remove(symbol);
+                    droppedTicks.increment();
+                    log.warn("Dropped price tick for {}: tick executor is full", symbol);
+                }
+            }
+        }
+        return quote;
+    }
+
+    private void deliverTick(String symbol) {
+        PriceTickEvent tick = pendingTicks.remove(symbol);
+        if (tick == null) {
+            return;
+        }
+        try {
+            eventPublisher.publishEvent(tick);
+        } catch (RuntimeException e) {
+            log.error("Price tick listener failed for {}", symbol, e);
+        }
+    }
+
+    /**
+     * Upstream call time by outcome: success, no_quote (answered without a price), error (failed or timed out)
+     * or rejected (circuit open, no call made)
+     */
+    private Timer fetchTimer(String outcome) {
+        return Timer.builder("finnhub.quote.fetch")
+                .description("Time spent fetching a quote from Finnhub")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void registerCacheMeters() {
+        cacheCounter("hit", QuoteCacheStats::getHits);
+        cacheCounter("miss", QuoteCacheStats::getMisses);
+        cacheCounter("coalesced", QuoteCacheStats::getCoalesced);
+        cacheCounter("eviction", QuoteCacheStats::getEvictions);
+        cacheCounter("stale", QuoteCacheStats::getStale);
+        Gauge.builder("finnhub.quote.cache.size", quoteCache, cache -> cache.getStats().getSize())
+                .description("Quotes currently cached")
+                .register(meterRegistry);
+    }
+
+    private void cacheCounter(String result, ToDoubleFunction<QuoteCacheStats> count) {
+        FunctionCounter.builder("finnhub.quote.cache", quoteCache, cache -> count.applyAsDouble(cache.getStats()))
+                .description("Quote cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private void registerCircuitMeters() {
+        Gauge.builder("finnhub.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Finnhub circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        FunctionCounter.builder("finnhub.circuit.opened", circuitBreaker, CircuitBreaker::getOpened)
+                .description("Times the Finnhub circuit breaker opened")
+                .register(meterRegistry);
     }
 
     /**
@@ -135,6 +421,16 @@ public class FinnhubService {
         return quote;
     }
 
+    /**
+     * Upstream answered, but without a price for the symbol (unknown or not trading).
+     * Not cached, not a circuit breaker failure, and never replaced by a mock quote.
+     */
+    private static class NoQuoteException extends RuntimeException {
+        NoQuoteException(String message) {
+            super(message);
+        }
+    }
+
     /**
      * Inner class to map Finnhub API response
      */
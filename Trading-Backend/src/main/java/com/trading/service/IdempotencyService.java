@@ -0,0 +1,294 @@
+package com.trading.service;
+
+import com.trading.dto.TradeResponse;
+import com.trading.model.IdempotencyRecord;
+import com.trading.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Idempotency-Key handling for buy and sell, so a client retrying a slow trade doesn't trade twice.
+ *
+ * Keys are scoped to the endpoint and user. The first request with a key runs the trade; a duplicate arriving
+ * while it runs waits on the same future, and one arriving later gets the stored response - neither touches the
+ * database or fetches a quote. Results are held in a bounded in-memory map (claimed with putIfAbsent, no locks)
+ * and in the idempotency_keys table, which is written in the trade's own transaction and covers restarts,
+ * entries evicted from memory and other instances. A key reused with a different request body is refused.
+ *
+ * Only responses are kept, rejections (e.g. insufficient balance) included. A trade that throws changed
+ * nothing, so its key is released and a retry runs it again. In journal mode the key is stored after the trade,
+ * which is durable by then: if that store fails the key is never released, but kept in memory (not evicted
+ * before retention) so retries are still answered with the response.
+ */
+@Service
+@Profile("!reactive")
+@ConditionalOnProperty(name = "trading.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxEntries;
+    private final long retentionMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Keys of completed trades whose record couldn't be stored: memory is their only copy
+    private final Set<String> unstored = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong restored = new AtomicLong();
+    private final AtomicLong mismatched = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong storeFailures = new AtomicLong();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${trading.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${trading.idempotency.retention-hours:24}") long retentionHours,
+                              MeterRegistry meterRegistry) {
+        this.recordRepository = recordRepository;
+        // Read-write, so stored keys are read from the primary even with replica reads on
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxEntries = maxEntries;
+        this.retentionMillis = retentionHours * 3_600_000;
+
+        outcomeCounter(meterRegistry, "executed", executed);
+        outcomeCounter(meterRegistry, "joined", joined);
+        outcomeCounter(meterRegistry, "replayed", replayed);
+        outcomeCounter(meterRegistry, "restored", restored);
+        outcomeCounter(meterRegistry, "mismatched", mismatched);
+        FunctionCounter.builder("trading.idempotency.evictions", evictions, AtomicLong::get)
+                .description("Completed keys dropped from memory (still answered from the table)")
+                .register(meterRegistry);
+        FunctionCounter.builder("trading.idempotency.store.failures", storeFailures, AtomicLong::get)
+                .description("Keys of completed trades that couldn't be stored (kept in memory only)")
+                .register(meterRegistry);
+        Gauge.builder("trading.idempotency.keys", entries, Map::size)
+                .description("Idempotency keys held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drop stored keys past their retention
+     */
+    @PostConstruct
+    void purgeExpired() {
+        int purged = transactionTemplate.execute(status -> recordRepository.deleteCreatedBefore(cutoff()));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Run a trade at most once per key
+     * @param endpoint "buy" or "sell"
+     * @param request  the request body, compared with the first request's to catch a reused key
+     * @param trade    runs the trade; must pass its response to the given consumer inside the trade's transaction
+     *                 (before commit) so the key is stored with it, or may leave it to be stored afterwards
+     */
+    public Result execute(String endpoint, Long userId, String key, Object request,
+                          Function<Consumer<TradeResponse>, TradeResponse> trade) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = endpoint + ":" + userId + ":" + key;
+        String requestHash = hash(request);
+
+        Entry entry = new Entry(requestHash, new CompletableFuture<>(), System.currentTimeMillis());
+        Entry existing = entries.putIfAbsent(id, entry);
+        if (existing != null) {
+            checkSameRequest(existing.requestHash(), requestHash);
+            if (existing.response().isDone()) {
+                replayed.incrementAndGet();
+            } else {
+                joined.incrementAndGet();
+            }
+            return new Result(await(existing.response()), true);
+        }
+
+        try {
+            Optional<IdempotencyRecord> stored = findStored(id);
+            if (stored.isPresent()) {
+                checkSameRequest(stored.get().getRequestHash(), requestHash);
+                restored.incrementAndGet();
+                return complete(entry, stored.get().toResponse(), true);
+            }
+
+            executed.incrementAndGet();
+            AtomicBoolean saved = new AtomicBoolean();
+            TradeResponse response;
+            try {
+                response = trade.apply(tradeResponse -> {
+                    recordRepository.save(new IdempotencyRecord(id, requestHash, tradeResponse));
+                    saved.set(true);
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another instance committed the same key first; this trade was rolled back with the insert
+                IdempotencyRecord winner = findStored(id).orElseThrow(() -> e);
+                checkSameRequest(winner.getRequestHash(), requestHash);
+                return complete(entry, winner.toResponse(), true);
+            }
+            if (!saved.get()) {
+                storeAfterTrade(id, requestHash, response);
+            }
+            return complete(entry, response, false);
+        } catch (RuntimeException e) {
+            // The trade didn't complete, so nothing was committed: release the key so a retry runs the trade,
+            // and fail the requests waiting on it
+            entries.remove(id, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Store the key of a trade that wasn't in a database transaction (journal mode) right after it.
+     * The trade is already durable, so a failure here must not release the key: a retry would trade again.
+     */
+    private void storeAfterTrade(String id, String requestHash, TradeResponse response) {
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> recordRepository.save(new IdempotencyRecord(id, requestHash, response)));
+        } catch (RuntimeException e) {
+            unstored.add(id);
+            storeFailures.incrementAndGet();
+            log.error("Failed to store idempotency key {} of a completed trade; it is kept in memory only", id, e);
+        }
+    }
+
+    private Result complete(Entry entry, TradeResponse response, boolean replay) {
+        entry.response().complete(response);
+        evictIfNeeded();
+        return new Result(response, replay);
+    }
+
+    /**
+     * The stored response for a key, unless it is past retention (the row is then deleted and the key reused)
+     */
+    private Optional<IdempotencyRecord> findStored(String id) {
+        return transactionTemplate.execute(status -> {
+            Optional<IdempotencyRecord> stored = recordRepository.findById(id);
+            if (stored.isPresent() && stored.get().getCreatedAt().isBefore(cutoff())) {
+                recordRepository.delete(stored.get());
+                return Optional.empty();
+            }
+            return stored;
+        });
+    }
+
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            mismatched.incrementAndGet();
+            throw new RuntimeException(HEADER + " was already used for a different request");
+        }
+    }
+
+    /**
+     * Keep the map within maxEntries: expired results go first, then the oldest; in-flight trades and keys that
+     * couldn't be stored are never dropped before retention.
+     * Only runs when the map is over capacity, so the scan cost is off the common path.
+     */
+    private void evictIfNeeded() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.entrySet().removeIf(mapEntry -> {
+            boolean expired = mapEntry.getValue().response().isDone() && now - mapEntry.getValue().createdAt() >= retentionMillis;
+            if (expired) {
+                unstored.remove(mapEntry.getKey());
+                evictions.incrementAndGet();
+            }
+            return expired;
+        });
+        while (entries.size() > maxEntries) {
+            String oldest = null;
+            long oldestCreatedAt = Long.MAX_VALUE;
+            for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                Entry candidate = mapEntry.getValue();
+                if (candidate.response().isDone() && candidate.createdAt() < oldestCreatedAt
+                        && !unstored.contains(mapEntry.getKey())) {
+                    oldestCreatedAt = candidate.createdAt();
+                    oldest = mapEntry.getKey();
+                }
+            }
+            if (oldest == null || entries.remove(oldest) == null) {
+                break;
+            }
+            evictions.incrementAndGet();
+        }
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minusNanos(retentionMillis * 1_000_000);
+    }
+
+    private static String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static TradeResponse await(CompletableFuture<TradeResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void outcomeCounter(MeterRegistry meterRegistry, String outcome, AtomicLong count) {
+        FunctionCounter.builder("trading.idempotency.requests", count, AtomicLong::get)
+                .description("Requests with an Idempotency-Key, by how they were answered")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A trade's response, and whether it was replayed rather than produced by this request
+     */
+    public record Result(TradeResponse response, boolean replayed) {
+    }
+
+    private record Entry(String requestHash, CompletableFuture<TradeResponse> response, long createdAt) {
+    }
+}
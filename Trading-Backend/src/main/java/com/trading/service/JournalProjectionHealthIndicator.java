@@ -0,0 +1,33 @@
+package com.trading.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health check "journalProjection": down once an event failed to project, since the users, portfolio and
+ * transactions tables then disagree with the journal
+ */
+@Component
+@ConditionalOnProperty(name = "trading.journal.enabled", havingValue = "true")
+public class JournalProjectionHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private JournalService journalService;
+
+    @Override
+    public Health health() {
+        JournalService.ProjectionHalt halt = journalService.getProjectionHalt();
+        if (halt == null) {
+            return Health.up().build();
+        }
+        return Health.down()
+                .withDetail("haltedAtSequence", halt.sequence())
+                .withDetail("userId", halt.userId())
+                .withDetail("counterpartyId", halt.counterpartyId())
+                .withDetail("error", String.valueOf(halt.error()))
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.trading.service;
+
+import com.trading.journal.JournalEvent;
+import com.trading.model.JournalCheckpoint;
+import com.trading.model.Portfolio;
+import com.trading.model.Transaction;
+import com.trading.model.User;
+import com.trading.repository.JournalCheckpointRepository;
+import com.trading.repository.PortfolioRepository;
+import com.trading.repository.UserRepository;
+import com.trading.util.FixedPoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Service applying trade journal events to the users, portfolio and transactions tables.
+ * In journal mode these tables are a projection of the journal: they are written here, after the
+ * trade has been acknowledged, instead of on the trade path.
+ */
+@Service
+@ConditionalOnProperty(name = "trading.journal.enabled", havingValue = "true")
+public class JournalProjectionService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private AccountLockService accountLockService;
+
+    /**
+     * Last journal sequence already applied to the database (0 if nothing has been projected)
+     * Not read-only: replay starts from it, so it must come from the primary, never a lagging replica
+     */
+    @Transactional
+    public long getCheckpoint() {
+        return checkpointRepository.findById(JournalCheckpoint.SINGLETON_ID)
+                .map(JournalCheckpoint::getLastSequence)
+                .orElse(0L);
+    }
+
+    /**
+     * Apply a batch of events (in sequence order) and advance the checkpoint in one transaction
+     */
+    @Transactional
+    public void project(List<JournalEvent> events) {
+        Long[] userIds = events.stream()
+                .flatMap(event -> Stream.of(event.userId(), event.counterpartyId()))
+                .filter(userId -> userId != 0)
+                .toArray(Long[]::new);
+        Map<Long, User> users = accountLockService.lockUsers(userIds);
+        events.forEach(event -> apply(event, users));
+        saveCheckpoint(events.get(events.size() - 1).sequence());
+    }
+
+    private void apply(JournalEvent event, Map<Long, User> users) {
+        switch (event.type()) {
+            // Opened accounts and snapshots mirror rows that already exist in the database
+            case ACCOUNT_OPENED, POSITION_SNAPSHOT -> {
+            }
+            case ACCOUNT_CLOSED -> {
+                User user = users.get(event.userId());
+                if (user != null) {
+                    userRepository.delete(user);
+                    users.remove(event.userId());
+                }
+            }
+            case BALANCE_SET -> {
+                User user = requireUser(users, event.userId());
+                user.setBalance(FixedPoint.toBigDecimal(event.amount()));
+                user.setUpdatedAt(toDateTime(event.timestamp()));
+            }
+            case BUY -> {
+                User buyer = requireUser(users, event.userId());
+                buyer.setBalance(FixedPoint.toBigDecimal(FixedPoint.fromBigDecimal(buyer.getBalance()) - event.amount()));
+                buyer.setUpdatedAt(toDateTime(event.timestamp()));
+                positionService.addShares(buyer.getId(), event.symbol(), event.quantity(), event.price(), event.amount());
+                recordTransaction(event, buyer.getId(), Transaction.TransactionType.BUY, null);
+            }
+            case TRANSFER, FILL -> {
+                User seller = requireUser(users, event.userId());
+                User buyer = requireUser(users, event.counterpartyId());
+                buyer.setBalance(FixedPoint.toBigDecimal(FixedPoint.fromBigDecimal(buyer.getBalance()) - event.amount()));
+                buyer.setUpdatedAt(toDateTime(event.timestamp()));
+                seller.setBalance(FixedPoint.toBigDecimal(FixedPoint.fromBigDecimal(seller.getBalance()) + event.amount()));
+                seller.setUpdatedAt(toDateTime(event.timestamp()));
+
+                Portfolio sellerPortfolio = portfolioRepository.findByUserIdAndSymbol(seller.getId(), event.symbol())
+                        .orElseThrow(() -> new RuntimeException("Stock not found in seller's portfolio"));
+                positionService.removeShares(sellerPortfolio, event.quantity(), event.price());
+                positionService.addShares(buyer.getId(), event.symbol(), event.quantity(), event.price(), event.amount());
+
+                if (event.type() == JournalEvent.EventType.TRANSFER) {
+                    recordTransaction(event, seller.getId(), Transaction.TransactionType.SELL, buyer.getUsername() + " (sold to)");
+                    recordTransaction(event, buyer.getId(), Transaction.TransactionType.BUY, "(bought from userId " + seller.getId() + ")");
+                } else {
+                    recordTransaction(event, seller.getId(), Transaction.TransactionType.SELL, "(order book, sold to userId " + buyer.getId() + ")");
+                    recordTransaction(event, buyer.getId(), Transaction.TransactionType.BUY, "(order book, bought from userId " + seller.getId() + ")");
+                }
+            }
+        }
+    }
+
+    private void recordTransaction(JournalEvent event, Long userId, Transaction.TransactionType type, String sellerName) {
+        Transaction transaction = positionService.recordTransaction(userId, event.symbol(), type, event.quantity(),
+                event.price(), event.amount(), sellerName);
+        // Date the transaction when the trade happened, not when it was projected
+        transaction.setTransactionDate(toDateTime(event.timestamp()));
+    }
+
+    private void saveCheckpoint(long sequence) {
+        JournalCheckpoint checkpoint = checkpointRepository.findById(JournalCheckpoint.SINGLETON_ID)
+                .orElseGet(JournalCheckpoint::new);
+        checkpoint.setLastSequence(Math.max(checkpoint.getLastSequence(), sequence));
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    private static User requireUser(Map<Long, User> users, long userId) {
+        User user = users.get(userId);
+        if (user == null) {
+            throw new RuntimeException("User " + userId + " not found");
+        }
+        return user;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,439 @@
+package com.trading.service;
+
+import com.trading.engine.Fill;
+import com.trading.journal.JournalEvent;
+import com.trading.journal.LedgerState;
+import com.trading.journal.TradeJournal;
+import com.trading.model.Portfolio;
+import com.trading.model.User;
+import com.trading.repository.PortfolioRepository;
+import com.trading.repository.UserRepository;
+import com.trading.util.FixedPoint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Service making the trade journal the system of record for balances and holdings.
+ *
+ * A trade is validated against the in-memory ledger under the accounts' monitors (taken in user id
+ * order), appended to the journal and applied to the ledger, then acknowledged once the journal has
+ * forced it to disk. The users, portfolio and transactions tables are brought up to date afterwards
+ * by a projection thread, so the database is no longer written on the trade path.
+ *
+ * On startup the ledger is rebuilt by replaying the journal; events the database has not seen yet
+ * (past the projection checkpoint) are projected again. Users present in the database but not in the
+ * journal (for example on first start) are seeded into it from their current rows.
+ *
+ * An event that can't be projected halts projection rather than being skipped, since every later event
+ * would be applied on top of a database that disagrees with the journal. Trading carries on against the
+ * ledger; the checkpoint stays before the event, the halt is reported by the journalProjection health
+ * check and trading.journal.projection.halted, and projection resumes from the event on the next start.
+ */
+@Service
+@ConditionalOnProperty(name = "trading.journal.enabled", havingValue = "true")
+public class JournalService {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JournalProjectionService projectionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trading.journal.path:data/trade-journal.dat}")
+    private String journalPath;
+
+    @Value("${trading.journal.window-size-mb:64}")
+    private long windowSizeMb;
+
+    @Value("${trading.journal.sync:true}")
+    private boolean sync;
+
+    @Value("${trading.journal.group-commit-delay-us:0}")
+    private long groupCommitDelayMicros;
+
+    @Value("${trading.journal.projection-batch-size:500}")
+    private int projectionBatchSize;
+
+    private final LedgerState ledger = new LedgerState();
+    private final Set<Long> closedAccounts = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<JournalEvent> projectionQueue = new LinkedBlockingQueue<>();
+
+    private TradeJournal journal;
+    private volatile boolean running;
+    private Thread projectionThread;
+    private volatile ProjectionHalt projectionHalt;
+
+    /**
+     * Result of a journaled trade
+     *
+     * @param reason   short snake_case rejection reason (null on success), used as a metric tag
+     * @param balance  the requesting user's balance in cents after the trade (unchanged if rejected)
+     * @param sequence journal sequence of the trade, 0 if rejected
+     */
+    public record Outcome(boolean success, String reason, String message, long balance, long sequence) {
+
+        static Outcome accepted(String message, long balance, long sequence) {
+            return new Outcome(true, null, message, balance, sequence);
+        }
+
+        static Outcome rejected(String reason, String message, long balance) {
+            return new Outcome(false, reason, message, balance, 0);
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        long checkpoint = projectionService.getCheckpoint();
+        journal = TradeJournal.open(Path.of(journalPath), windowSizeMb * 1024 * 1024, sync, groupCommitDelayMicros,
+                event -> {
+                    ledger.apply(event);
+                    if (event.type() == JournalEvent.EventType.ACCOUNT_CLOSED) {
+                        closedAccounts.add(event.userId());
+                    }
+                    if (event.sequence() > checkpoint) {
+                        projectionQueue.add(event);
+                    }
+                });
+        log.info("Trade journal replayed: lastSequence={}, checkpoint={}, pending projection={}",
+                journal.getLastSequence(), checkpoint, projectionQueue.size());
+
+        journal.setAppendListener(projectionQueue::add);
+        seedMissingAccounts();
+
+        Gauge.builder("trading.journal.projection.halted", this, service -> service.projectionHalt == null ? 0 : 1)
+                .description("1 once an event failed to project and projection stopped before it")
+                .register(meterRegistry);
+        Gauge.builder("trading.journal.projection.pending", projectionQueue, BlockingQueue::size)
+                .description("Journaled events waiting to be projected to the database")
+                .register(meterRegistry);
+
+        running = true;
+        projectionThread = new Thread(this::runProjection, "journal-projection");
+        projectionThread.setDaemon(true);
+        projectionThread.start();
+    }
+
+    /**
+     * Stop taking new batches, project whatever is still queued, then close the journal
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        projectionThread.interrupt();
+        projectionThread.join(TimeUnit.SECONDS.toMillis(10));
+        journal.close();
+    }
+
+    /**
+     * Market buy: debit the buyer and add the shares to their holding
+     */
+    public Outcome buy(long userId, String symbol, int quantity, long price) {
+        long amount = FixedPoint.multiply(price, quantity);
+        Outcome outcome = withAccounts(userId, userId, (buyer, same) -> {
+            // Cash reserved by open limit orders is not available
+            long available = buyer.getBalance() - reservationService.getReservedCash(userId);
+            if (available < amount) {
+                return Outcome.rejected("insufficient_balance", "Insufficient balance", buyer.getBalance());
+            }
+            long sequence = append(JournalEvent.EventType.BUY, userId, 0, symbol, quantity, price, amount);
+            return Outcome.accepted("Stock purchased successfully", buyer.getBalance(), sequence);
+        });
+        awaitDurable(outcome);
+        return outcome;
+    }
+
+    /**
+     * Peer-to-peer sale: move the shares from seller to buyer and the cash from buyer to seller
+     * Outcome balance is the seller's
+     */
+    public Outcome transfer(long sellerId, long buyerId, String symbol, int quantity, long price) {
+        Outcome outcome = transferLocked(JournalEvent.EventType.TRANSFER, sellerId, buyerId, symbol, quantity, price);
+        awaitDurable(outcome);
+        return outcome;
+    }
+
+    /**
+     * Settle order book fills, waiting for a single journal flush covering all of them
+     * Fills draw on cash and shares already reserved for their orders, so reservations are not checked
+     */
+    public List<Outcome> settleFills(List<Fill> fills) {
+        List<Outcome> outcomes = new ArrayList<>(fills.size());
+        long lastSequence = 0;
+        for (Fill fill : fills) {
+            Outcome outcome;
+            try {
+                outcome = transferLocked(JournalEvent.EventType.FILL, fill.sellUserId(), fill.buyUserId(),
+                        fill.symbol(), fill.quantity(), fill.price());
+            } catch (RuntimeException e) {
+                outcome = Outcome.rejected("exception", e.getMessage(), 0);
+            }
+            outcomes.add(outcome);
+            lastSequence = Math.max(lastSequence, outcome.sequence());
+        }
+        if (lastSequence > 0) {
+            journal.awaitDurable(lastSequence);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Add a newly registered user's account to the journal
+     */
+    public void openAccount(long userId, BigDecimal balance) {
+        long sequence = append(JournalEvent.EventType.ACCOUNT_OPENED, userId, 0, null, 0, 0, FixedPoint.fromBigDecimal(balance));
+        journal.awaitDurable(sequence);
+    }
+
+    /**
+     * Overwrite a user's balance
+     */
+    public Outcome setBalance(long userId, BigDecimal balance) {
+        long amount = FixedPoint.fromBigDecimal(balance);
+        Outcome outcome = withAccounts(userId, userId, (account, same) -> {
+            long sequence = append(JournalEvent.EventType.BALANCE_SET, userId, 0, null, 0, 0, amount);
+            return Outcome.accepted("Balance updated", account.getBalance(), sequence);
+        });
+        awaitDurable(outcome);
+        return outcome;
+    }
+
+    /**
+     * Remove a user's account; the user row is deleted when the event is projected
+     */
+    public void closeAccount(long userId) {
+        Outcome outcome = withAccounts(userId, userId, (account, same) -> {
+            closedAccounts.add(userId);
+            long sequence = append(JournalEvent.EventType.ACCOUNT_CLOSED, userId, 0, null, 0, 0, 0);
+            return Outcome.accepted("Account closed", 0, sequence);
+        });
+        awaitDurable(outcome);
+    }
+
+    /**
+     * Reserve cash for a limit buy against the ledger balance, under the account's monitor so a market trade
+     * can't spend the same cash between the balance read and the reservation
+     */
+    public void reserveCash(long userId, long amount) {
+        LedgerState.Account account = requireAccount(userId);
+        synchronized (account) {
+            reservationService.reserveCash(userId, amount, account.getBalance());
+        }
+    }
+
+    /**
+     * Reserve shares for a limit sell against the ledger quantity, under the account's monitor
+     */
+    public void reserveShares(long userId, String symbol, int quantity) {
+        LedgerState.Account account = requireAccount(userId);
+        synchronized (account) {
+            int held = account.getQuantity(symbol);
+            if (held == 0) {
+                throw new RuntimeException("Stock not found in seller's portfolio");
+            }
+            reservationService.reserveShares(userId, symbol, quantity, held);
+        }
+    }
+
+    private Outcome transferLocked(JournalEvent.EventType type, long sellerId, long buyerId,
+                                   String symbol, int quantity, long price) {
+        if (sellerId == buyerId) {
+            throw new RuntimeException("Invalid transaction: You cannot sell stocks to yourself. Please specify a different buyer.");
+        }
+        boolean checkReservations = type == JournalEvent.EventType.TRANSFER;
+        long amount = FixedPoint.multiply(price, quantity);
+
+        return withAccounts(sellerId, buyerId, (seller, buyer) -> {
+            int held = seller.getQuantity(symbol);
+            if (held == 0) {
+                throw new RuntimeException("Stock not found in seller's portfolio");
+            }
+            int availableQuantity = checkReservations ? held - reservationService.getReservedShares(sellerId, symbol) : held;
+            if (availableQuantity < quantity) {
+                return Outcome.rejected("insufficient_quantity", "Insufficient stock quantity. Available: " + availableQuantity, seller.getBalance());
+            }
+
+            long availableBalance = checkReservations
+                    ? buyer.getBalance() - reservationService.getReservedCash(buyerId)
+                    : buyer.getBalance();
+            if (availableBalance < amount) {
+                return Outcome.rejected("insufficient_buyer_balance", "Buyer userId " + buyerId + " has insufficient balance. Required: "
+                        + FixedPoint.toBigDecimal(amount) + ", Available: " + FixedPoint.toBigDecimal(availableBalance), seller.getBalance());
+            }
+
+            long sequence = append(type, sellerId, buyerId, symbol, quantity, price, amount);
+            return Outcome.accepted("Stock transferred", seller.getBalance(), sequence);
+        });
+    }
+
+    /**
+     * Run work holding both accounts' monitors, taken in user id order so crossing trades can't deadlock
+     */
+    private <T> T withAccounts(long userId, long counterpartyId, BiFunction<LedgerState.Account, LedgerState.Account, T> work) {
+        LedgerState.Account account = requireAccount(userId);
+        LedgerState.Account counterparty = requireAccount(counterpartyId);
+        LedgerState.Account first = userId <= counterpartyId ? account : counterparty;
+        LedgerState.Account second = first == account ? counterparty : account;
+        synchronized (first) {
+            synchronized (second) {
+                // The account may have been closed while we waited for its monitor
+                if (ledger.getAccount(userId) != account || ledger.getAccount(counterpartyId) != counterparty) {
+                    throw new RuntimeException("User not found");
+                }
+                return work.apply(account, counterparty);
+            }
+        }
+    }
+
+    /**
+     * Append an event and apply it to the ledger; callers hold the monitors of every account it touches
+     */
+    private long append(JournalEvent.EventType type, long userId, long counterpartyId,
+                        String symbol, int quantity, long price, long amount) {
+        JournalEvent event = new JournalEvent(0, type, System.currentTimeMillis(), userId, counterpartyId,
+                symbol, quantity, price, amount);
+        long sequence = journal.append(event);
+        ledger.apply(event);
+        return sequence;
+    }
+
+    private void awaitDurable(Outcome outcome) {
+        if (outcome.sequence() > 0) {
+            journal.awaitDurable(outcome.sequence());
+        }
+    }
+
+    private LedgerState.Account requireAccount(long userId) {
+        LedgerState.Account account = ledger.getAccount(userId);
+        if (account == null) {
+            throw new RuntimeException("User not found");
+        }
+        return account;
+    }
+
+    /**
+     * Journal the balance and holdings of every user the journal doesn't know yet
+     */
+    private void seedMissingAccounts() {
+        long lastSequence = 0;
+        int seeded = 0;
+        // Read-write transactions, so the accounts are read from the primary even with replica reads on
+        TransactionTemplate primary = new TransactionTemplate(transactionManager);
+        for (User user : primary.execute(status -> userRepository.findAll())) {
+            if (ledger.hasAccount(user.getId()) || closedAccounts.contains(user.getId())) {
+                continue;
+            }
+            lastSequence = append(JournalEvent.EventType.ACCOUNT_OPENED, user.getId(), 0, null, 0, 0,
+                    FixedPoint.fromBigDecimal(user.getBalance()));
+            for (Portfolio portfolio : primary.execute(status -> portfolioRepository.findByUserId(user.getId()))) {
+                lastSequence = append(JournalEvent.EventType.POSITION_SNAPSHOT, user.getId(), 0, portfolio.getSymbol(),
+                        portfolio.getQuantity(), FixedPoint.fromBigDecimal(portfolio.getAvgPurchasePrice()), 0);
+            }
+            seeded++;
+        }
+        if (lastSequence > 0) {
+            journal.awaitDurable(lastSequence);
+            log.info("Seeded {} accounts into the trade journal", seeded);
+        }
+    }
+
+    /**
+     * Why projection stopped, or null while it is running
+     */
+    public ProjectionHalt getProjectionHalt() {
+        return projectionHalt;
+    }
+
+    private void runProjection() {
+        List<JournalEvent> batch = new ArrayList<>(projectionBatchSize);
+        while (running || !projectionQueue.isEmpty()) {
+            try {
+                JournalEvent first = projectionQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                projectionQueue.drainTo(batch, projectionBatchSize - 1);
+                if (projectionHalt != null) {
+                    // Past the checkpoint, so replayed from the journal on the next start
+                    continue;
+                }
+                // Never let the database get ahead of what the journal has made durable
+                journal.awaitDurable(batch.get(batch.size() - 1).sequence());
+                projectBatch(batch);
+            } catch (InterruptedException e) {
+                // Shutdown requested: keep looping until the queue is drained
+            } catch (RuntimeException e) {
+                halt(batch.get(0), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Project a batch in one transaction; if that fails, project event by event so the events before a bad
+     * one still reach the database. Projection halts at an event that fails on its own.
+     */
+    private void projectBatch(List<JournalEvent> batch) {
+        try {
+            projectionService.project(batch);
+        } catch (RuntimeException batchError) {
+            for (JournalEvent event : batch) {
+                try {
+                    projectionService.project(List.of(event));
+                } catch (RuntimeException e) {
+                    halt(event, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void halt(JournalEvent event, RuntimeException e) {
+        log.error("Journal projection halted at event {}; the database is behind the journal until this is fixed " +
+                "and the application restarted", event, e);
+        projectionHalt = new ProjectionHalt(event.sequence(), event.userId(), event.counterpartyId(), e.getMessage());
+    }
+
+    /**
+     * The event projection stopped at, the accounts it touches (counterparty 0 if none) and its error
+     */
+    public record ProjectionHalt(long sequence, long userId, long counterpartyId, String error) {
+    }
+}
@@ -0,0 +1,301 @@
+package com.trading.service;
+
+import com.trading.dto.LeaderboardEntry;
+import com.trading.dto.LeaderboardResponse;
+import com.trading.model.User;
+import com.trading.repository.UserRepository;
+import com.trading.util.FixedPoint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service ranking users by total equity (cash plus holdings at market) and by return on their holdings.
+ *
+ * Every user is kept in two ordered sets, one per ranking. A user is re-positioned (O(log users)) when
+ * their balance changes ({@link AccountChangedEvent}) or their holdings are revalued by a trade or price
+ * tick (see {@link PnlService}), so reading the top N walks N entries whatever the number of users.
+ *
+ * The sets are only touched by one writer thread. Balance and holdings changes (from request threads
+ * after commit, and from the tick thread) are queued per user, the latest balance replacing an older
+ * one, and applied in batches; after each batch the top entries are published as an immutable snapshot
+ * for readers. Neither traders nor readers wait on a re-rank. Each re-position reads the user's current
+ * holdings value, so it doesn't matter in which order the changes arrive.
+ */
+@Service
+@Profile("!reactive")
+@ConditionalOnProperty(name = {"trading.pnl.enabled", "trading.leaderboard.enabled"}, havingValue = "true", matchIfMissing = true)
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final Comparator<Standing> BY_EQUITY = Comparator
+            .comparingLong(Standing::equity).reversed()
+            .thenComparingLong(Standing::userId);
+
+    private static final Comparator<Standing> BY_RETURN = Comparator
+            .comparingDouble(Standing::profitPercentage).reversed()
+            .thenComparing(Comparator.comparingLong(Standing::equity).reversed())
+            .thenComparingLong(Standing::userId);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PnlService pnlService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trading.leaderboard.max-size:100}")
+    private int maxSize;
+
+    private final Map<Long, Standing> standings = new HashMap<>();
+    private final TreeSet<Standing> byEquity = new TreeSet<>(BY_EQUITY);
+    private final TreeSet<Standing> byReturn = new TreeSet<>(BY_RETURN);
+    private final Set<Long> closedAccounts = new HashSet<>();
+
+    private final Map<Long, AccountChangedEvent> pendingAccounts = new ConcurrentHashMap<>();
+    private final Set<Long> pendingHoldings = ConcurrentHashMap.newKeySet();
+    private final Semaphore changesQueued = new Semaphore(0);
+
+    private volatile Rankings rankings = new Rankings(List.of(), List.of(), 0, System.currentTimeMillis());
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Rank every user at startup, after the P&L index is built, then start the writer.
+     * Changes arriving meanwhile are queued and applied on top of the initial ranking.
+     */
+    @PostConstruct
+    void build() {
+        pnlService.addHoldingsListener(this::onHoldingsChanged);
+        long sequence = AccountEventPublisher.lastChangeSequence();
+        // Balances from the primary (read-write transaction), not a replica that may be behind
+        List<User> users = new TransactionTemplate(transactionManager).execute(status -> userRepository.findAll());
+        for (User user : users) {
+            update(sequence, user.getId(), user.getUsername(), FixedPoint.fromBigDecimal(user.getBalance()));
+        }
+        publishRankings();
+        log.info("Leaderboard built: {} users", users.size());
+
+        Gauge.builder("trading.leaderboard.pending", this,
+                        service -> service.pendingAccounts.size() + service.pendingHoldings.size())
+                .description("Users with a balance or holdings change waiting to be re-ranked")
+                .register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::runWriter, "leaderboard-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the writer; changes still queued are dropped with the rest of the in-memory ranking
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Top users by equity and by return, as of the last applied batch; only users holding shares are
+     * ranked by return
+     * @param limit entries per ranking, clamped to 1..trading.leaderboard.max-size
+     */
+    public LeaderboardResponse getLeaderboard(int limit) {
+        int size = Math.max(1, Math.min(limit, maxSize));
+        Rankings current = rankings;
+        return new LeaderboardResponse(head(current.byEquity(), size), head(current.byReturn(), size),
+                current.rankedUsers(), current.timestamp());
+    }
+
+    /**
+     * Queue a user for re-ranking once a change to their account has committed. Only the latest change
+     * per user is kept; a closure is never replaced.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAccountChanged(AccountChangedEvent event) {
+        pendingAccounts.merge(event.userId(), event, LeaderboardService::latest);
+        changesQueued.release();
+    }
+
+    private void onHoldingsChanged(Collection<Long> userIds) {
+        pendingHoldings.addAll(userIds);
+        changesQueued.release();
+    }
+
+    private static AccountChangedEvent latest(AccountChangedEvent queued, AccountChangedEvent event) {
+        if (queued.closed()) {
+            return queued;
+        }
+        return event.closed() || event.sequence() > queued.sequence() ? event : queued;
+    }
+
+    /**
+     * Apply queued changes in batches until stopped
+     */
+    private void runWriter() {
+        while (running) {
+            try {
+                changesQueued.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            changesQueued.drainPermits();
+            try {
+                applyQueued();
+            } catch (RuntimeException e) {
+                log.error("Failed to re-rank leaderboard", e);
+            }
+        }
+    }
+
+    private void applyQueued() {
+        for (Long userId : pendingAccounts.keySet()) {
+            AccountChangedEvent event = pendingAccounts.remove(userId);
+            if (event != null) {
+                applyAccountChange(event);
+            }
+        }
+        for (Iterator<Long> iterator = pendingHoldings.iterator(); iterator.hasNext(); ) {
+            Long userId = iterator.next();
+            iterator.remove();
+            Standing standing = standings.get(userId);
+            if (standing != null) {
+                reposition(userId, standing, standing.sequence(), standing.username(), standing.cash());
+            }
+        }
+        publishRankings();
+    }
+
+    private void applyAccountChange(AccountChangedEvent event) {
+        if (event.closed()) {
+            closedAccounts.add(event.userId());
+            Standing standing = standings.remove(event.userId());
+            if (standing != null) {
+                byEquity.remove(standing);
+                byReturn.remove(standing);
+            }
+            return;
+        }
+        update(event.sequence(), event.userId(), event.username(), event.balance());
+    }
+
+    /**
+     * Apply a balance as of the given account change; older changes than the standing's are ignored
+     */
+    private void update(long sequence, Long userId, String username, long cash) {
+        if (closedAccounts.contains(userId)) {
+            return;
+        }
+        Standing standing = standings.get(userId);
+        if (standing != null && sequence <= standing.sequence()) {
+            return;
+        }
+        reposition(userId, standing, sequence, username, cash);
+    }
+
+    /**
+     * Replace a user's standing (if any) with one at the given balance and their current holdings value
+     */
+    private void reposition(Long userId, Standing current, long sequence, String username, long cash) {
+        if (current != null) {
+            byEquity.remove(current);
+            byReturn.remove(current);
+        }
+        PnlService.HoldingsValue holdings = pnlService.getHoldingsValue(userId);
+        Standing standing = new Standing(userId, username, sequence, cash, holdings.marketValue(),
+                holdings.investedAmount());
+        standings.put(userId, standing);
+        byEquity.add(standing);
+        if (standing.investedAmount() > 0) {
+            byReturn.add(standing);
+        }
+    }
+
+    /**
+     * Publish the first max-size entries of each ranking for readers
+     */
+    private void publishRankings() {
+        rankings = new Rankings(top(byEquity, maxSize), top(byReturn, maxSize), standings.size(),
+                System.currentTimeMillis());
+    }
+
+    private static List<LeaderboardEntry> head(List<LeaderboardEntry> entries, int limit) {
+        return entries.size() <= limit ? entries : entries.subList(0, limit);
+    }
+
+    private static List<LeaderboardEntry> top(TreeSet<Standing> ranking, int limit) {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.min(limit, ranking.size()));
+        Iterator<Standing> iterator = ranking.iterator();
+        while (entries.size() < limit && iterator.hasNext()) {
+            Standing standing = iterator.next();
+            entries.add(new LeaderboardEntry(
+                    entries.size() + 1,
+                    standing.userId(),
+                    standing.username(),
+                    FixedPoint.toBigDecimal(standing.equity()),
+                    FixedPoint.toBigDecimal(standing.cash()),
+                    FixedPoint.toBigDecimal(standing.holdingsValue()),
+                    FixedPoint.toBigDecimal(standing.holdingsValue() - standing.investedAmount()),
+                    standing.profitPercentage()
+            ));
+        }
+        return List.copyOf(entries);
+    }
+
+    /**
+     * Top entries of both rankings as of one batch. Read without locking, so never modified once published.
+     */
+    private record Rankings(List<LeaderboardEntry> byEquity, List<LeaderboardEntry> byReturn, int rankedUsers,
+                            long timestamp) {
+    }
+
+    /**
+     * One user's ranking inputs. Immutable, since it is a key in the ordered sets: a change replaces it.
+     * Amounts are cents.
+     */
+    private record Standing(long userId, String username, long sequence, long cash, long holdingsValue,
+                            long investedAmount) {
+
+        long equity() {
+            return cash + holdingsValue;
+        }
+
+        double profitPercentage() {
+            return investedAmount > 0 ? FixedPoint.percentage(holdingsValue - investedAmount, investedAmount) : 0.0;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.trading.service;
+
+import com.trading.dto.LotEntry;
+import com.trading.dto.LotPosition;
+import com.trading.dto.LotReport;
+import com.trading.model.Portfolio;
+import com.trading.model.PositionLot;
+import com.trading.model.PositionPnl;
+import com.trading.repository.PortfolioRepository;
+import com.trading.repository.PositionLotRepository;
+import com.trading.repository.PositionPnlRepository;
+import com.trading.repository.UserRepository;
+import com.trading.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Service keeping a lot-level view of every position alongside the portfolio's average price.
+ *
+ * A buy opens a {@link PositionLot}; a sell consumes the seller's lots oldest first and books the difference
+ * between the sale price and each lot's cost as realized P&L. Each position's running totals (open quantity,
+ * FIFO cost basis, realized P&L) are kept in a {@link PositionPnl} row, updated in the trade's own transaction
+ * through {@link PositionService}, so a report reads open lots and totals instead of rescanning the history.
+ *
+ * Holdings that predate lot tracking (or were changed while it was off) are given one lot at their average
+ * purchase price at startup.
+ */
+@Service
+@ConditionalOnProperty(name = "trading.lots.enabled", havingValue = "true", matchIfMissing = true)
+public class LotService {
+
+    private static final Logger log = LoggerFactory.getLogger(LotService.class);
+
+    @Autowired
+    private PositionLotRepository lotRepository;
+
+    @Autowired
+    private PositionPnlRepository pnlRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Bring lots in line with the portfolio before any trade runs: a position whose open lots don't add up
+     * to its quantity gets a single lot at its average purchase price, and lots of sold-out positions are dropped
+     */
+    @PostConstruct
+    void reconcile() {
+        // Read-write: compared against the primary's holdings, never a replica's
+        int rebuilt = new TransactionTemplate(transactionManager).execute(status -> {
+            Map<String, PositionPnl> totals = new HashMap<>();
+            pnlRepository.findAll().forEach(pnl -> totals.put(key(pnl.getUserId(), pnl.getSymbol()), pnl));
+
+            int count = 0;
+            for (Portfolio portfolio : portfolioRepository.findAll()) {
+                PositionPnl pnl = totals.remove(key(portfolio.getUserId(), portfolio.getSymbol()));
+                if (pnl == null) {
+                    pnl = newTotals(portfolio.getUserId(), portfolio.getSymbol());
+                } else if (pnl.getOpenQuantity().equals(portfolio.getQuantity())) {
+                    continue;
+                }
+                long avgPrice = FixedPoint.fromBigDecimal(portfolio.getAvgPurchasePrice());
+                lotRepository.deleteOpenLots(portfolio.getUserId(), portfolio.getSymbol());
+                lotRepository.save(newLot(portfolio.getUserId(), portfolio.getSymbol(), portfolio.getQuantity(), avgPrice));
+                pnl.setOpenQuantity(portfolio.getQuantity());
+                pnl.setOpenCost(FixedPoint.toBigDecimal(FixedPoint.multiply(avgPrice, portfolio.getQuantity())));
+                pnl.setUpdatedAt(LocalDateTime.now());
+                pnlRepository.save(pnl);
+                count++;
+            }
+            for (PositionPnl pnl : totals.values()) {
+                if (pnl.getOpenQuantity() != 0) {
+                    lotRepository.deleteOpenLots(pnl.getUserId(), pnl.getSymbol());
+                    pnl.setOpenQuantity(0);
+                    pnl.setOpenCost(FixedPoint.toBigDecimal(0));
+                    pnl.setUpdatedAt(LocalDateTime.now());
+                    pnlRepository.save(pnl);
+                    count++;
+                }
+            }
+            return count;
+        });
+        if (rebuilt > 0) {
+            log.info("Rebuilt lots of {} positions from the portfolio (one lot at the average purchase price)", rebuilt);
+        }
+    }
+
+    /**
+     * Open a lot for shares just bought
+     */
+    public void openLot(Long userId, String symbol, int quantity, long price, long totalCost) {
+        lotRepository.save(newLot(userId, symbol, quantity, price));
+
+        PositionPnl pnl = pnlRepository.findPosition(userId, symbol).orElseGet(() -> newTotals(userId, symbol));
+        pnl.setOpenQuantity(pnl.getOpenQuantity() + quantity);
+        pnl.setOpenCost(FixedPoint.toBigDecimal(Math.addExact(FixedPoint.fromBigDecimal(pnl.getOpenCost()), totalCost)));
+        pnl.setUpdatedAt(LocalDateTime.now());
+        pnlRepository.save(pnl);
+    }
+
+    /**
+     * Consume the oldest lots for shares just sold, booking the realized P&L
+     */
+    public void closeLots(Long userId, String symbol, int quantity, long price) {
+        int remaining = quantity;
+        long cost = 0;
+        for (PositionLot lot : lotRepository.findOpenLots(userId, symbol)) {
+            if (remaining == 0) {
+                break;
+            }
+            int taken = Math.min(remaining, lot.getRemainingQuantity());
+            cost = Math.addExact(cost, FixedPoint.multiply(FixedPoint.fromBigDecimal(lot.getCostPrice()), taken));
+            remaining -= taken;
+            if (taken == lot.getRemainingQuantity()) {
+                lotRepository.delete(lot);
+            } else {
+                lot.setRemainingQuantity(lot.getRemainingQuantity() - taken);
+                lotRepository.save(lot);
+            }
+        }
+        int sold = quantity - remaining;
+        if (remaining > 0) {
+            // Only possible if lots and portfolio have drifted apart; the next startup rebuilds them
+            log.warn("Open lots of userId={} symbol={} cover {} of {} shares sold", userId, symbol, sold, quantity);
+        }
+
+        PositionPnl pnl = pnlRepository.findPosition(userId, symbol).orElseGet(() -> newTotals(userId, symbol));
+        long proceeds = FixedPoint.multiply(price, sold);
+        pnl.setOpenQuantity(pnl.getOpenQuantity() - sold);
+        pnl.setOpenCost(FixedPoint.toBigDecimal(FixedPoint.fromBigDecimal(pnl.getOpenCost()) - cost));
+        pnl.setRealizedPnl(FixedPoint.toBigDecimal(Math.addExact(FixedPoint.fromBigDecimal(pnl.getRealizedPnl()), proceeds - cost)));
+        pnl.setUpdatedAt(LocalDateTime.now());
+        pnlRepository.save(pnl);
+    }
+
+    /**
+     * A user's open lots and P&L per symbol, with open positions valued at current prices
+     * @param priceLoader fetches current prices (cents) for the symbols given; symbols it can't price are left out
+     */
+    public LotReport getReport(Long userId, Function<List<String>, Map<String, Long>> priceLoader) {
+        // Totals and lots are read in one read-only transaction (served by the replica when one is configured),
+        // finished before prices are fetched
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Snapshot snapshot = readOnly.execute(status -> {
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User with ID " + userId + " not found");
+            }
+            return new Snapshot(pnlRepository.findByUserIdOrderBySymbol(userId), lotRepository.findOpenLotsByUserId(userId));
+        });
+
+        Map<String, List<LotEntry>> lotsBySymbol = new HashMap<>();
+        for (PositionLot lot : snapshot.lots()) {
+            lotsBySymbol.computeIfAbsent(lot.getSymbol(), symbol -> new ArrayList<>()).add(new LotEntry(
+                    lot.getId(), lot.getOpenedAt(), lot.getQuantity(), lot.getRemainingQuantity(), lot.getCostPrice()));
+        }
+        Map<String, Long> prices = priceLoader.apply(snapshot.totals().stream()
+                .filter(pnl -> pnl.getOpenQuantity() > 0)
+                .map(PositionPnl::getSymbol)
+                .toList());
+
+        List<LotPosition> positions = new ArrayList<>();
+        long realizedTotal = 0;
+        long unrealizedTotal = 0;
+        for (PositionPnl pnl : snapshot.totals()) {
+            long costBasis = FixedPoint.fromBigDecimal(pnl.getOpenCost());
+            long realized = FixedPoint.fromBigDecimal(pnl.getRealizedPnl());
+            Long price = pnl.getOpenQuantity() > 0 ? prices.get(pnl.getSymbol()) : null;
+            long marketValue = price == null ? costBasis : FixedPoint.multiply(price, pnl.getOpenQuantity());
+            long unrealized = marketValue - costBasis;
+            realizedTotal += realized;
+            unrealizedTotal += unrealized;
+            positions.add(new LotPosition(
+                    pnl.getSymbol(),
+                    pnl.getOpenQuantity(),
+                    FixedPoint.toBigDecimal(costBasis),
+                    price == null ? null : FixedPoint.toBigDecimal(price),
+                    FixedPoint.toBigDecimal(marketValue),
+                    FixedPoint.toBigDecimal(unrealized),
+                    FixedPoint.toBigDecimal(realized),
+                    lotsBySymbol.getOrDefault(pnl.getSymbol(), List.of())
+            ));
+        }
+        return new LotReport(userId, positions, FixedPoint.toBigDecimal(realizedTotal),
+                FixedPoint.toBigDecimal(unrealizedTotal), System.currentTimeMillis());
+    }
+
+    private static PositionLot newLot(Long userId, String symbol, int quantity, long price) {
+        PositionLot lot = new PositionLot();
+        lot.setUserId(userId);
+        lot.setSymbol(symbol);
+        lot.setQuantity(quantity);
+        lot.setRemainingQuantity(quantity);
+        lot.setCostPrice(FixedPoint.toBigDecimal(price));
+        lot.setOpenedAt(LocalDateTime.now());
+        return lot;
+    }
+
+    private static PositionPnl newTotals(Long userId, String symbol) {
+        PositionPnl pnl = new PositionPnl();
+        pnl.setUserId(userId);
+        pnl.setSymbol(symbol);
+        return pnl;
+    }
+
+    private static String key(Long userId, String symbol) {
+        return userId + ":" + symbol;
+    }
+
+    private record Snapshot(List<PositionPnl> totals, List<PositionLot> lots) {
+    }
+}
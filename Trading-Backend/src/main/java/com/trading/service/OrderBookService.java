@@ -0,0 +1,257 @@
+package com.trading.service;
+
+import com.trading.dto.LimitOrderRequest;
+import com.trading.dto.OrderBookSnapshot;
+import com.trading.dto.OrderFill;
+import com.trading.dto.OrderResponse;
+import com.trading.engine.BookOrder;
+import com.trading.engine.Fill;
+import com.trading.engine.OrderBook;
+import com.trading.engine.OrderSide;
+import com.trading.engine.PriceLevel;
+import com.trading.util.FixedPoint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for limit order trading through per-symbol in-memory order books.
+ *
+ * Requires the trade journal (trading.journal.enabled=true): order entry reserves the user's cash or shares
+ * against the journal's in-memory ledger, then matches the order in memory under the symbol's book lock, so
+ * no database transaction or row lock is taken on the order path. The order's fills are appended to the
+ * journal and acknowledged only once it has forced them to disk, so a fill reported to the client survives
+ * a crash; the database catches up through journal projection.
+ *
+ * A fill the ledger refuses (e.g. an account closed while its order rested) has already left the book, so it
+ * is kept as unsettled (reservations still held), logged and counted in trading.orderbook.fills.unsettled.
+ */
+@Service
+@ConditionalOnProperty(name = "trading.journal.enabled", havingValue = "true")
+public class OrderBookService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBookService.class);
+
+    /**
+     * Prices in the book are longs in ticks of 0.01, i.e. {@link FixedPoint} cents
+     */
+    public static final int PRICE_SCALE = FixedPoint.SCALE;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, OrderBook> books = new ConcurrentHashMap<>();
+    private final AtomicLong orderIds = new AtomicLong();
+    private final Queue<Fill> unsettledFills = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    void registerMeters() {
+        Gauge.builder("trading.orderbook.fills.unsettled", unsettledFills, Queue::size)
+                .description("Fills the journal refused to settle, which need settling by hand")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Submit a limit order: match it against the book and rest any unfilled remainder
+     */
+    public OrderResponse submitOrder(LimitOrderRequest request) {
+        String symbol = request.getSymbol().toUpperCase();
+        long price = toTicks(request.getPrice());
+        int quantity = request.getQuantity();
+        OrderSide side = request.getSide();
+
+        Long userId = request.getUserId();
+
+        // Reserve everything the order could consume so its fills can always settle
+        reserve(userId, symbol, side, price, quantity);
+
+        long orderId = orderIds.incrementAndGet();
+        List<Fill> fills = new ArrayList<>();
+        OrderBook book = books.computeIfAbsent(symbol, OrderBook::new);
+        BookOrder resting;
+        synchronized (book) {
+            resting = book.submit(orderId, userId, side, price, quantity, fills);
+        }
+
+        int filledQuantity = 0;
+        for (Fill fill : fills) {
+            filledQuantity += fill.quantity();
+        }
+        int restingQuantity = resting == null ? 0 : resting.getRemainingQuantity();
+
+        // Quantity neither filled nor resting was cancelled by self-trade prevention
+        int cancelledQuantity = quantity - filledQuantity - restingQuantity;
+        if (cancelledQuantity > 0) {
+            release(userId, symbol, side, price, cancelledQuantity);
+        }
+
+        int unsettled = settle(fills);
+
+        OrderResponse.OrderStatus status;
+        String message;
+        if (filledQuantity == quantity) {
+            status = OrderResponse.OrderStatus.FILLED;
+            message = "Order filled";
+        } else if (restingQuantity == 0) {
+            status = OrderResponse.OrderStatus.CANCELLED;
+            message = "Order would trade against your own resting order; unfilled quantity cancelled";
+        } else if (filledQuantity > 0) {
+            status = OrderResponse.OrderStatus.PARTIALLY_FILLED;
+            message = "Order partially filled; remainder resting in the book";
+        } else {
+            status = OrderResponse.OrderStatus.OPEN;
+            message = "Order resting in the book";
+        }
+        if (unsettled > 0) {
+            message += "; " + unsettled + " fill(s) could not be settled and are held for review";
+        }
+
+        return new OrderResponse(orderId, symbol, side, request.getPrice(), quantity,
+                filledQuantity, restingQuantity, status, message, toOrderFills(fills, side));
+    }
+
+    /**
+     * Cancel a resting order and release its reservation
+     */
+    public OrderResponse cancelOrder(String symbol, Long orderId, Long userId) {
+        String upperSymbol = symbol.toUpperCase();
+        OrderBook book = books.get(upperSymbol);
+        if (book == null) {
+            throw new RuntimeException("Order " + orderId + " not found");
+        }
+
+        BookOrder cancelled;
+        synchronized (book) {
+            BookOrder order = book.getOrder(orderId);
+            if (order == null) {
+                throw new RuntimeException("Order " + orderId + " not found or already filled");
+            }
+            if (order.getUserId() != userId) {
+                throw new RuntimeException("Order " + orderId + " does not belong to user " + userId);
+            }
+            cancelled = book.cancel(orderId);
+        }
+
+        release(userId, upperSymbol, cancelled.getSide(), cancelled.getPrice(), cancelled.getRemainingQuantity());
+
+        return new OrderResponse(orderId, upperSymbol, cancelled.getSide(), toPrice(cancelled.getPrice()),
+                cancelled.getOriginalQuantity(), cancelled.getOriginalQuantity() - cancelled.getRemainingQuantity(),
+                0, OrderResponse.OrderStatus.CANCELLED, "Order cancelled", List.of());
+    }
+
+    /**
+     * Get aggregated depth for a symbol's order book
+     */
+    public OrderBookSnapshot getOrderBook(String symbol, int levels) {
+        String upperSymbol = symbol.toUpperCase();
+        OrderBook book = books.get(upperSymbol);
+        if (book == null) {
+            return new OrderBookSnapshot(upperSymbol, List.of(), List.of());
+        }
+        synchronized (book) {
+            return new OrderBookSnapshot(upperSymbol,
+                    toLevels(book.getLevels(OrderSide.BUY, levels)),
+                    toLevels(book.getLevels(OrderSide.SELL, levels)));
+        }
+    }
+
+    /**
+     * Journal the fills, waiting for one flush covering all of them, and release the reservations they used
+     * @return number of fills left unsettled
+     */
+    private int settle(List<Fill> fills) {
+        if (fills.isEmpty()) {
+            return 0;
+        }
+        List<JournalService.Outcome> outcomes = journalService.settleFills(fills);
+        int unsettled = 0;
+        for (int i = 0; i < fills.size(); i++) {
+            Fill fill = fills.get(i);
+            if (outcomes.get(i).success()) {
+                releaseSettled(fill);
+            } else {
+                log.error("Fill {} could not be settled and is left unsettled: {}", fill, outcomes.get(i).message());
+                unsettledFills.add(fill);
+                unsettled++;
+            }
+        }
+        return unsettled;
+    }
+
+    private void releaseSettled(Fill fill) {
+        reservationService.releaseCash(fill.buyUserId(), toAmount(fill.buyLimitPrice(), fill.quantity()));
+        reservationService.releaseShares(fill.sellUserId(), fill.symbol(), fill.quantity());
+    }
+
+    /**
+     * Reserve under the ledger account's monitor, which market buys and sells hold while checking reservations,
+     * so neither can spend the same cash or shares between the balance read and the reservation
+     */
+    private void reserve(Long userId, String symbol, OrderSide side, long price, int quantity) {
+        if (side == OrderSide.BUY) {
+            journalService.reserveCash(userId, toAmount(price, quantity));
+        } else {
+            journalService.reserveShares(userId, symbol, quantity);
+        }
+    }
+
+    private void release(Long userId, String symbol, OrderSide side, long price, int quantity) {
+        if (side == OrderSide.BUY) {
+            reservationService.releaseCash(userId, toAmount(price, quantity));
+        } else {
+            reservationService.releaseShares(userId, symbol, quantity);
+        }
+    }
+
+    private static List<OrderFill> toOrderFills(List<Fill> fills, OrderSide side) {
+        return fills.stream()
+                .map(fill -> new OrderFill(
+                        side == OrderSide.BUY ? fill.sellOrderId() : fill.buyOrderId(),
+                        toPrice(fill.price()),
+                        fill.quantity()))
+                .toList();
+    }
+
+    private static List<OrderBookSnapshot.Level> toLevels(List<PriceLevel> levels) {
+        return levels.stream()
+                .map(level -> new OrderBookSnapshot.Level(
+                        toPrice(level.getPrice()), level.getTotalQuantity(), level.getOrderCount()))
+                .toList();
+    }
+
+    static long toTicks(BigDecimal price) {
+        try {
+            return price.setScale(PRICE_SCALE).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Limit price supports at most " + PRICE_SCALE + " decimal places");
+        }
+    }
+
+    static BigDecimal toPrice(long ticks) {
+        return FixedPoint.toBigDecimal(ticks);
+    }
+
+    static long toAmount(long priceTicks, int quantity) {
+        return FixedPoint.multiply(priceTicks, quantity);
+    }
+}
@@ -0,0 +1,269 @@
+package com.trading.service;
+
+import com.trading.dto.PnlUpdate;
+import com.trading.engine.PnlChange;
+import com.trading.engine.SymbolHolders;
+import com.trading.model.Portfolio;
+import com.trading.repository.PortfolioRepository;
+import com.trading.repository.UserRepository;
+import com.trading.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Service computing live profit/loss as prices move, and pushing it to subscribed users.
+ *
+ * Keeps a reverse index from each symbol to its holders (see {@link SymbolHolders}), built from the
+ * portfolio table at startup and kept current from the {@link PositionChangedEvent}s of committed trades.
+ * A {@link PriceTickEvent} revalues only the ticked symbol's holders, and each user's totals are adjusted
+ * by the change in value instead of being re-summed.
+ *
+ * Like the portfolio view, only trades made through this application instance are seen.
+ */
+@Service
+@Profile("!reactive")
+@ConditionalOnProperty(name = "trading.pnl.enabled", havingValue = "true", matchIfMissing = true)
+public class PnlService {
+
+    private static final Logger log = LoggerFactory.getLogger(PnlService.class);
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private QuoteStreamService quoteStreamService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, SymbolHolders> index = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> symbolsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, Totals> totals = new ConcurrentHashMap<>();
+    private final Map<Long, UserStream> streams = new ConcurrentHashMap<>();
+    private final List<Consumer<Collection<Long>>> holdingsListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Build the index before the application starts taking trades
+     * Changes numbered after the load are applied on top of it
+     */
+    @PostConstruct
+    void buildIndex() {
+        long sequence = positionService.lastChangeSequence();
+        // In a read-write transaction: the index is kept current from here on, so it must start from the primary
+        List<Portfolio> portfolios = new TransactionTemplate(transactionManager)
+                .execute(status -> portfolioRepository.findAll());
+        for (Portfolio portfolio : portfolios) {
+            applyPosition(sequence, portfolio.getUserId(), portfolio.getSymbol(), portfolio.getQuantity(),
+                    FixedPoint.fromBigDecimal(portfolio.getAvgPurchasePrice()));
+        }
+        log.info("P&L index built: {} holdings across {} symbols", portfolios.size(), index.size());
+    }
+
+    /**
+     * Market value and invested amount (cents) of all of a user's holdings; zero if they hold nothing
+     * Holdings of a symbol that hasn't ticked yet are valued at their average purchase price
+     */
+    public HoldingsValue getHoldingsValue(Long userId) {
+        Totals userTotals = totals.get(userId);
+        return userTotals == null ? new HoldingsValue(0, 0) : userTotals.get();
+    }
+
+    /**
+     * Register a callback for users whose holdings value changed, called once per trade or tick with every
+     * affected user, after their totals have been updated (see {@link #getHoldingsValue})
+     */
+    public void addHoldingsListener(Consumer<Collection<Long>> listener) {
+        holdingsListeners.add(listener);
+    }
+
+    /**
+     * Stream a user's P&L: their current holdings first, then an update whenever one of them ticks or is traded.
+     * While the stream is open, the user's symbols (as of subscribing) are polled so their prices keep moving.
+     * A slow client misses intermediate updates rather than buffering them.
+     */
+    public Flux<PnlUpdate> subscribe(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User with ID " + userId + " not found");
+        }
+        return Flux.defer(() -> {
+            UserStream stream = streams.compute(userId, (id, existing) -> {
+                UserStream subscribed = existing != null ? existing : new UserStream();
+                subscribed.subscribers++;
+                return subscribed;
+            });
+            Flux<PnlUpdate> current = Flux.defer(() -> Flux.fromIterable(currentPositions(userId)));
+            Flux<PnlUpdate> polling = quoteStreamService.subscribe(symbolsOf(userId)).thenMany(Flux.empty());
+            return Flux.merge(Flux.concat(current, stream.sink.asFlux()), polling)
+                    .doFinally(signal -> release(userId));
+        });
+    }
+
+    /**
+     * Apply a holding change once its trade has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPositionChanged(PositionChangedEvent event) {
+        PnlChange change = applyPosition(event.sequence(), event.userId(), event.symbol(), event.quantity(),
+                event.avgPurchasePrice());
+        if (change != null) {
+            publish(change);
+            notifyHoldingsListeners(List.of(event.userId()));
+        }
+    }
+
+    /**
+     * Revalue the ticked symbol's holders
+     */
+    @EventListener
+    public void onPriceTick(PriceTickEvent tick) {
+        SymbolHolders holders = index.get(tick.symbol());
+        if (holders == null) {
+            return;
+        }
+        List<PnlChange> changes = new ArrayList<>();
+        synchronized (holders) {
+            holders.tick(tick.price(), changes);
+        }
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (PnlChange change : changes) {
+            totals.computeIfAbsent(change.userId(), id -> new Totals()).add(change);
+            publish(change);
+            userIds.add(change.userId());
+        }
+        if (!userIds.isEmpty()) {
+            notifyHoldingsListeners(userIds);
+        }
+    }
+
+    private void notifyHoldingsListeners(Collection<Long> userIds) {
+        holdingsListeners.forEach(listener -> listener.accept(userIds));
+    }
+
+    private PnlChange applyPosition(long sequence, Long userId, String symbol, int quantity, long avgPurchasePrice) {
+        SymbolHolders holders = index.computeIfAbsent(symbol, SymbolHolders::new);
+        PnlChange change;
+        synchronized (holders) {
+            change = holders.setPosition(sequence, userId, quantity, avgPurchasePrice);
+            if (change == null) {
+                return null;
+            }
+            // Under the symbol's lock, so changes to one holding update the user's symbols in order
+            Set<String> symbols = symbolsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet());
+            if (quantity > 0) {
+                symbols.add(symbol);
+            } else {
+                symbols.remove(symbol);
+            }
+        }
+        totals.computeIfAbsent(userId, id -> new Totals()).add(change);
+        return change;
+    }
+
+    private List<String> symbolsOf(Long userId) {
+        return List.copyOf(symbolsByUser.getOrDefault(userId, Set.of()));
+    }
+
+    private List<PnlUpdate> currentPositions(Long userId) {
+        List<PnlUpdate> positions = new ArrayList<>();
+        for (String symbol : symbolsOf(userId)) {
+            SymbolHolders holders = index.get(symbol);
+            PnlChange position;
+            synchronized (holders) {
+                position = holders.get(userId);
+            }
+            if (position != null) {
+                positions.add(toUpdate(position));
+            }
+        }
+        return positions;
+    }
+
+    private void publish(PnlChange change) {
+        UserStream stream = streams.get(change.userId());
+        if (stream != null) {
+            // The sink needs serialized emission; ticks and trades for one user can arrive on different threads
+            synchronized (stream) {
+                stream.sink.tryEmitNext(toUpdate(change));
+            }
+        }
+    }
+
+    private PnlUpdate toUpdate(PnlChange change) {
+        HoldingsValue userTotals = getHoldingsValue(change.userId());
+        long netProfit = change.netProfit();
+        return new PnlUpdate(
+                change.userId(),
+                change.symbol(),
+                change.quantity(),
+                FixedPoint.toBigDecimal(change.price()),
+                FixedPoint.toBigDecimal(change.avgPurchasePrice()),
+                FixedPoint.toBigDecimal(change.currentValue()),
+                FixedPoint.toBigDecimal(netProfit),
+                change.investedAmount() > 0 ? FixedPoint.percentage(netProfit, change.investedAmount()) : 0.0,
+                FixedPoint.toBigDecimal(userTotals.marketValue()),
+                FixedPoint.toBigDecimal(userTotals.marketValue() - userTotals.investedAmount()),
+                System.currentTimeMillis()
+        );
+    }
+
+    /**
+     * Drop the user's stream once its last subscriber is gone
+     */
+    private void release(Long userId) {
+        streams.computeIfPresent(userId, (id, stream) -> --stream.subscribers > 0 ? stream : null);
+    }
+
+    /**
+     * @param marketValue    cents
+     * @param investedAmount cents
+     */
+    public record HoldingsValue(long marketValue, long investedAmount) {
+    }
+
+    private static final class Totals {
+        private long marketValue;
+        private long investedAmount;
+
+        synchronized void add(PnlChange change) {
+            marketValue += change.valueDelta();
+            investedAmount += change.investedDelta();
+        }
+
+        synchronized HoldingsValue get() {
+            return new HoldingsValue(marketValue, investedAmount);
+        }
+    }
+
+    private static final class UserStream {
+        private final Sinks.Many<PnlUpdate> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+}
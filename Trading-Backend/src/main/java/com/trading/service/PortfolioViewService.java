@@ -0,0 +1,247 @@
+package com.trading.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.trading.dto.PortfolioResponse;
+import com.trading.model.Portfolio;
+import com.trading.repository.PortfolioRepository;
+import com.trading.util.FixedPoint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Service keeping an in-memory, per-user materialized view of portfolio valuations.
+ *
+ * A user's view is loaded from the database on their first portfolio read, then kept current from the
+ * {@link PositionChangedEvent}s of committed trades, so later reads don't touch the portfolio table.
+ * Each position keeps its PortfolioResponse: a trade rebuilds that one position, and a price change
+ * only recomputes its price-dependent fields. Prices are shared by all views, updated by every
+ * {@link PriceTickEvent}, and refetched on read only if no tick has arrived within the quote cache TTL.
+ * At most trading.portfolio.view.max-users views are held; a view unread for idle-expiry-ms, or the least
+ * recently used one past the limit, is dropped and loaded again on the user's next read.
+ *
+ * Holdings written outside this application instance (another instance, the reactive profile) are
+ * not seen; set trading.portfolio.view.enabled=false for such deployments.
+ */
+@Service
+@ConditionalOnProperty(name = "trading.portfolio.view.enabled", havingValue = "true", matchIfMissing = true)
+public class PortfolioViewService {
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private AccountLockService accountLockService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trading.portfolio.view.max-users:10000}")
+    private long maxUsers;
+
+    @Value("${trading.portfolio.view.idle-expiry-ms:1800000}")
+    private long idleExpiryMillis;
+
+    @Value("${trading.portfolio.view.price-max-age-ms:${finnhub.cache.ttl-ms:60000}}")
+    private long priceMaxAgeMillis;
+
+    private Cache<Long, UserView> views;
+    private final Map<String, MarketPrice> prices = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        views = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMillis(idleExpiryMillis))
+                .build();
+        Gauge.builder("trading.portfolio.views", views, Cache::estimatedSize)
+                .description("Users with a portfolio view in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a user's portfolio valued at the latest known prices
+     * @param priceLoader fetches current prices (cents) for the symbols given, which have no recent price;
+     *                    symbols it can't price in time are left out of its result
+     */
+    public List<PortfolioResponse> getPortfolio(Long userId, Function<List<String>, Map<String, Long>> priceLoader) {
+        UserView view = views.getIfPresent(userId);
+        if (view == null) {
+            view = load(userId);
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> unpriced = view.symbols().stream()
+                .filter(symbol -> {
+                    MarketPrice price = prices.get(symbol);
+                    return price == null || now - price.updatedAt() >= priceMaxAgeMillis;
+                })
+                .toList();
+        if (!unpriced.isEmpty()) {
+            priceLoader.apply(unpriced).forEach(this::updatePrice);
+        }
+        return view.snapshot(prices);
+    }
+
+    /**
+     * Record a symbol's current price (cents); views pick it up on their next read
+     */
+    public void updatePrice(String symbol, long price) {
+        prices.put(symbol, new MarketPrice(price, System.currentTimeMillis()));
+    }
+
+    /**
+     * Take every price loaded from upstream, so reads of a symbol that is quoted elsewhere don't refetch it
+     */
+    @EventListener
+    public void onPriceTick(PriceTickEvent tick) {
+        prices.put(tick.symbol(), new MarketPrice(tick.price(), tick.timestamp()));
+    }
+
+    /**
+     * Drop a user's view, e.g. when the account is deleted
+     */
+    public void evict(Long userId) {
+        views.invalidate(userId);
+    }
+
+    /**
+     * Apply a holding change once its trade has committed (a rolled back trade never reaches the view)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPositionChanged(PositionChangedEvent event) {
+        UserView view = views.getIfPresent(event.userId());
+        if (view != null) {
+            view.apply(event);
+        }
+    }
+
+    /**
+     * Load a view under the user's row lock and publish it before the lock is released. No trade of the user's
+     * can then be between changing a holding and committing while the rows are read: changes already made are in
+     * the rows, and later ones are numbered above the view's sequence and are applied on top of it.
+     */
+    private UserView load(Long userId) {
+        return accountLockService.executeWithRetry(() -> {
+            accountLockService.lockUser(userId)
+                    .orElseThrow(() -> new RuntimeException("User with ID " + userId + " not found"));
+            UserView existing = views.getIfPresent(userId);
+            if (existing != null) {
+                return existing;
+            }
+            UserView view = new UserView(positionService.lastChangeSequence(), portfolioRepository.findByUserId(userId));
+            views.put(userId, view);
+            return view;
+        });
+    }
+
+    private record MarketPrice(long price, long updatedAt) {
+    }
+
+    /**
+     * One user's positions by symbol (the order portfolio rows are listed in).
+     * A sold-out position is kept at quantity 0, with its sequence, so a late change can't revive it.
+     */
+    private static final class UserView {
+        private final long baseSequence;
+        private final Map<String, Position> positions = new TreeMap<>();
+
+        UserView(long baseSequence, List<Portfolio> portfolios) {
+            this.baseSequence = baseSequence;
+            for (Portfolio portfolio : portfolios) {
+                Position position = new Position();
+                position.update(baseSequence, portfolio.getId(), portfolio.getUserId(), portfolio.getSymbol(),
+                        portfolio.getQuantity(), FixedPoint.fromBigDecimal(portfolio.getAvgPurchasePrice()));
+                positions.put(portfolio.getSymbol(), position);
+            }
+        }
+
+        synchronized void apply(PositionChangedEvent event) {
+            Position position = positions.get(event.symbol());
+            long current = position == null ? baseSequence : position.sequence;
+            if (event.sequence() <= current) {
+                return; // already reflected in the view
+            }
+            if (position == null) {
+                position = new Position();
+                positions.put(event.symbol(), position);
+            }
+            position.update(event.sequence(), event.portfolioId(), event.userId(), event.symbol(),
+                    event.quantity(), event.avgPurchasePrice());
+        }
+
+        synchronized List<String> symbols() {
+            return positions.values().stream()
+                    .filter(position -> position.response.getQuantity() > 0)
+                    .map(position -> position.response.getSymbol())
+                    .toList();
+        }
+
+        /**
+         * Copies of the held positions, repriced where the symbol's price has moved since they were last valued
+         * A symbol with no known price is valued at its average purchase price
+         */
+        synchronized List<PortfolioResponse> snapshot(Map<String, MarketPrice> prices) {
+            List<PortfolioResponse> snapshot = new ArrayList<>(positions.size());
+            for (Position position : positions.values()) {
+                PortfolioResponse response = position.response;
+                if (response.getQuantity() == 0) {
+                    continue;
+                }
+                MarketPrice marketPrice = prices.get(response.getSymbol());
+                long price = marketPrice != null ? marketPrice.price() : position.avgPurchasePrice;
+                if (!position.valued || price != position.valuedAt) {
+                    response.applyPrice(price, position.investedAmount);
+                    position.valued = true;
+                    position.valuedAt = price;
+                }
+                snapshot.add(new PortfolioResponse(response.getId(), response.getUserId(), response.getSymbol(),
+                        response.getQuantity(), response.getAvgPurchasePrice(), response.getCurrentPrice(),
+                        response.getCurrentValue(), response.getInvestedAmount(), response.getNetProfit(),
+                        response.getProfitPercentage()));
+            }
+            return snapshot;
+        }
+    }
+
+    private static final class Position {
+        private final PortfolioResponse response = new PortfolioResponse();
+        private long sequence;
+        private long avgPurchasePrice;
+        private long investedAmount;
+        private boolean valued;
+        private long valuedAt;
+
+        void update(long sequence, Long portfolioId, Long userId, String symbol, int quantity, long avgPurchasePrice) {
+            this.sequence = sequence;
+            this.avgPurchasePrice = avgPurchasePrice;
+            this.investedAmount = FixedPoint.multiply(avgPurchasePrice, quantity);
+            this.valued = false;
+            response.setId(portfolioId);
+            response.setUserId(userId);
+            response.setSymbol(symbol);
+            response.setQuantity(quantity);
+            response.setAvgPurchasePrice(FixedPoint.toBigDecimal(avgPurchasePrice));
+            response.setInvestedAmount(FixedPoint.toBigDecimal(investedAmount));
+        }
+    }
+}
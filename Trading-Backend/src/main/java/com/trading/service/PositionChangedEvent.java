@@ -0,0 +1,19 @@
+package com.trading.service;
+
+/**
+ * Published by PositionService whenever a holding changes, from inside the trade's transaction.
+ * Carries the holding's state after the change (quantity 0 once it has been sold out).
+ * Every change to a user's holdings is made under that user's row lock, so sequence orders the
+ * changes to any one holding even though listeners may see them in a different order.
+ *
+ * @param avgPurchasePrice average purchase price in cents
+ */
+public record PositionChangedEvent(
+        long sequence,
+        Long portfolioId,
+        Long userId,
+        String symbol,
+        int quantity,
+        long avgPurchasePrice
+) {
+}
@@ -0,0 +1,146 @@
+package com.trading.service;
+
+import com.trading.model.Portfolio;
+import com.trading.model.Transaction;
+import com.trading.repository.PortfolioRepository;
+import com.trading.repository.TransactionRepository;
+import com.trading.util.FixedPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for the portfolio and transaction updates shared by every trade path
+ * (market buys, peer-to-peer sells and order book settlement).
+ * Callers are expected to run inside a transaction, holding the row lock of every user whose holdings they change.
+ * Each holding change is published as a {@link PositionChangedEvent}, and mirrored in the position's FIFO lots
+ * (see {@link LotService}) when lot tracking is on.
+ * Prices and amounts are cents (see {@link FixedPoint}); they become BigDecimal only on the entities.
+ */
+@Service
+public class PositionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PositionService.class);
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Absent when trading.lots.enabled=false
+    @Autowired(required = false)
+    private LotService lotService;
+
+    private final AtomicLong changeSequence = new AtomicLong();
+
+    /**
+     * Add shares to a user's holding, creating it if needed
+     * The average purchase price is re-weighted with the cost of the new shares
+     */
+    public Portfolio addShares(Long userId, String symbol, int quantity, long price, long totalCost) {
+        return addShares(portfolioRepository.findByUserIdAndSymbol(userId, symbol), userId, symbol, quantity, price, totalCost);
+    }
+
+    /**
+     * Add shares to a holding the caller has already loaded (empty if the user doesn't hold the symbol yet)
+     * Loading holdings up front, before any entity is modified, avoids a query that would force an early flush
+     * and split the trade's writes into more than one JDBC batch
+     */
+    public Portfolio addShares(Optional<Portfolio> existingPortfolio, Long userId, String symbol,
+                               int quantity, long price, long totalCost) {
+        Portfolio savedPortfolio;
+        if (existingPortfolio.isPresent()) {
+            Portfolio portfolio = existingPortfolio.get();
+
+            // Calculate new average purchase price
+            long newAvgPrice = FixedPoint.averagePrice(FixedPoint.fromBigDecimal(portfolio.getAvgPurchasePrice()),
+                    portfolio.getQuantity(), totalCost, quantity);
+
+            portfolio.setQuantity(portfolio.getQuantity() + quantity);
+            portfolio.setAvgPurchasePrice(FixedPoint.toBigDecimal(newAvgPrice));
+            portfolio.setUpdatedAt(LocalDateTime.now());
+            savedPortfolio = portfolioRepository.save(portfolio);
+            log.debug("Updated portfolio: userId={}, symbol={}, quantity={}", savedPortfolio.getUserId(), savedPortfolio.getSymbol(), savedPortfolio.getQuantity());
+        } else {
+            Portfolio portfolio = new Portfolio();
+            portfolio.setUserId(userId);
+            portfolio.setSymbol(symbol);
+            portfolio.setQuantity(quantity);
+            portfolio.setAvgPurchasePrice(FixedPoint.toBigDecimal(price));
+            portfolio.setCreatedAt(LocalDateTime.now());
+            portfolio.setUpdatedAt(LocalDateTime.now());
+            savedPortfolio = portfolioRepository.save(portfolio);
+            log.debug("Created new portfolio: userId={}, symbol={}, quantity={}", savedPortfolio.getUserId(), savedPortfolio.getSymbol(), savedPortfolio.getQuantity());
+        }
+        if (lotService != null) {
+            lotService.openLot(userId, symbol, quantity, price, totalCost);
+        }
+        publishChange(savedPortfolio, savedPortfolio.getQuantity());
+        return savedPortfolio;
+    }
+
+    /**
+     * Remove shares from a holding, deleting the holding when its quantity reaches 0
+     * @param price the sale price, against which the oldest lots' cost is booked as realized P&L
+     */
+    public void removeShares(Portfolio portfolio, int quantity, long price) {
+        int newQuantity = portfolio.getQuantity() - quantity;
+        if (newQuantity < 0) {
+            throw new RuntimeException("Insufficient stock quantity. Available: " + portfolio.getQuantity());
+        }
+
+        if (newQuantity == 0) {
+            portfolioRepository.delete(portfolio);
+            log.debug("Portfolio deleted as quantity reached 0: userId={}, symbol={}", portfolio.getUserId(), portfolio.getSymbol());
+        } else {
+            portfolio.setQuantity(newQuantity);
+            portfolio.setUpdatedAt(LocalDateTime.now());
+            portfolioRepository.save(portfolio);
+            log.debug("Portfolio updated with new quantity: userId={}, symbol={}, quantity={}", portfolio.getUserId(), portfolio.getSymbol(), newQuantity);
+        }
+        if (lotService != null) {
+            lotService.closeLots(portfolio.getUserId(), portfolio.getSymbol(), quantity, price);
+        }
+        publishChange(portfolio, newQuantity);
+    }
+
+    /**
+     * Sequence number of the latest published holding change
+     * Read under a user's row lock, every later change to that user's holdings is numbered higher
+     */
+    public long lastChangeSequence() {
+        return changeSequence.get();
+    }
+
+    private void publishChange(Portfolio portfolio, int quantity) {
+        eventPublisher.publishEvent(new PositionChangedEvent(changeSequence.incrementAndGet(), portfolio.getId(),
+                portfolio.getUserId(), portfolio.getSymbol(), quantity, FixedPoint.fromBigDecimal(portfolio.getAvgPurchasePrice())));
+    }
+
+    /**
+     * Record a buy/sell transaction in the user's history
+     */
+    public Transaction recordTransaction(Long userId, String symbol, Transaction.TransactionType type,
+                                         int quantity, long price, long totalAmount, String sellerName) {
+        Transaction transaction = new Transaction();
+        transaction.setUserId(userId);
+        transaction.setSymbol(symbol);
+        transaction.setType(type);
+        transaction.setQuantity(quantity);
+        transaction.setPrice(FixedPoint.toBigDecimal(price));
+        transaction.setTotalAmount(FixedPoint.toBigDecimal(totalAmount));
+        transaction.setSellerName(sellerName);
+        transaction.setTransactionDate(LocalDateTime.now());
+        return transactionRepository.save(transaction);
+    }
+}
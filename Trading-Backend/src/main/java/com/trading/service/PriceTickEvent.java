@@ -0,0 +1,11 @@
+package com.trading.service;
+
+/**
+ * Published by FinnhubService each time a quote is loaded into the quote cache, i.e. at most once per
+ * symbol per cache TTL, however many callers read the quote. Listeners run on the single tick executor
+ * thread, never on the loading thread; a tick not yet delivered is replaced by a newer one for its symbol.
+ *
+ * @param price current price in cents
+ */
+public record PriceTickEvent(String symbol, long price, long timestamp) {
+}
@@ -0,0 +1,193 @@
+package com.trading.service;
+
+import com.trading.dto.QuoteCacheStats;
+import com.trading.dto.StockQuote;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-symbol TTL cache for stock quotes with single-flight loading.
+ * Concurrent misses for the same symbol wait on one in-flight upstream call
+ * instead of each issuing their own request.
+ * Expired quotes are kept (until evicted for space) so they can be served stale within a bound.
+ */
+public class QuoteCache {
+
+    private final long ttlMillis;
+    private final int maxSize;
+    private final long maxStaleMillis;
+    private final boolean staleWhileRevalidate;
+
+    private final Map<String, CachedQuote> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<StockQuote>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+
+    /**
+     * @param maxStaleMillis       oldest quote (age since fetched) served when a fresh one can't be loaded;
+     *                             at or below ttlMillis, nothing is served stale
+     * @param staleWhileRevalidate serve an expired quote within maxStaleMillis at once and reload it in the background
+     */
+    public QuoteCache(long ttlMillis, int maxSize, long maxStaleMillis, boolean staleWhileRevalidate) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+        this.maxStaleMillis = maxStaleMillis;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    /**
+     * Blocking variant of {@link #getAsync}
+     */
+    public StockQuote get(String symbol, Function<String, CompletableFuture<StockQuote>> loader) {
+        return await(getAsync(symbol, loader));
+    }
+
+    /**
+     * Return the cached quote for a symbol, loading it with the given loader (which starts an asynchronous fetch)
+     * on a miss. Only one caller per symbol runs the loader; the others share its result.
+     *
+     * If the load fails, a quote fetched within maxStaleMillis is served instead. With staleWhileRevalidate,
+     * such a quote is also served as soon as it expires, without waiting, while it is reloaded in the background.
+     */
+    public CompletableFuture<StockQuote> getAsync(String symbol, Function<String, CompletableFuture<StockQuote>> loader) {
+        CachedQuote cached = entries.get(symbol);
+        long now = System.currentTimeMillis();
+        if (cached != null && !cached.isExpired(now, ttlMillis)) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached.quote());
+        }
+        if (staleWhileRevalidate && cached != null && !cached.isExpired(now, maxStaleMillis)) {
+            stale.incrementAndGet();
+            if (!inFlight.containsKey(symbol)) {
+                load(symbol, loader);
+            }
+            return CompletableFuture.completedFuture(cached.quote());
+        }
+
+        CompletableFuture<StockQuote> existing = inFlight.get(symbol);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing.copy();
+        }
+        return load(symbol, loader).copy();
+    }
+
+    /**
+     * Start a load unless one is in flight, and return the in-flight future either way
+     */
+    private CompletableFuture<StockQuote> load(String symbol, Function<String, CompletableFuture<StockQuote>> loader) {
+        CompletableFuture<StockQuote> future = new CompletableFuture<>();
+        CompletableFuture<StockQuote> existing = inFlight.putIfAbsent(symbol, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+
+        misses.incrementAndGet();
+        CompletableFuture<StockQuote> loading;
+        try {
+            loading = loader.apply(symbol);
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        // The in-flight entry is removed before completing, so a caller woken by the completion
+        // can't coalesce onto this finished load
+        loading.whenComplete((quote, error) -> {
+            if (error == null) {
+                entries.put(symbol, new CachedQuote(quote, System.currentTimeMillis()));
+                evictIfNeeded();
+                inFlight.remove(symbol, future);
+                future.complete(quote);
+                return;
+            }
+            inFlight.remove(symbol, future);
+            CachedQuote last = entries.get(symbol);
+            if (last != null && !last.isExpired(System.currentTimeMillis(), maxStaleMillis)) {
+                stale.incrementAndGet();
+                future.complete(last.quote());
+            } else {
+                future.completeExceptionally(error);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Drop a symbol from the cache so the next read goes upstream
+     */
+    public void invalidate(String symbol) {
+        entries.remove(symbol);
+    }
+
+    public QuoteCacheStats getStats() {
+        return new QuoteCacheStats(
+                hits.get(),
+                misses.get(),
+                coalesced.get(),
+                evictions.get(),
+                stale.get(),
+                entries.size(),
+                maxSize,
+                ttlMillis
+        );
+    }
+
+    /**
+     * Keep the cache within maxSize: entries too old to be served even stale go first, then the oldest fetched ones.
+     * Only runs when the cache is over capacity, so the scan cost is off the hit path.
+     */
+    private void evictIfNeeded() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long keepMillis = Math.max(ttlMillis, maxStaleMillis);
+        entries.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue().isExpired(now, keepMillis);
+            if (expired) {
+                evictions.incrementAndGet();
+            }
+            return expired;
+        });
+        while (entries.size() > maxSize) {
+            String oldest = null;
+            long oldestFetchedAt = Long.MAX_VALUE;
+            for (Map.Entry<String, CachedQuote> entry : entries.entrySet()) {
+                if (entry.getValue().fetchedAt() < oldestFetchedAt) {
+                    oldestFetchedAt = entry.getValue().fetchedAt();
+                    oldest = entry.getKey();
+                }
+            }
+            if (oldest == null || entries.remove(oldest) == null) {
+                break;
+            }
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static StockQuote await(CompletableFuture<StockQuote> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record CachedQuote(StockQuote quote, long fetchedAt) {
+        boolean isExpired(long now, long ttlMillis) {
+            return now - fetchedAt >= ttlMillis;
+        }
+    }
+}
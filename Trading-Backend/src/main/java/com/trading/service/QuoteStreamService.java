@@ -0,0 +1,94 @@
+package com.trading.service;
+
+import com.trading.dto.StockQuote;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Fan-out hub for live quote streaming.
+ * Each symbol has one shared upstream poll no matter how many clients subscribe to it;
+ * the poll starts with the first subscriber and stops when the last one leaves.
+ */
+@Service
+public class QuoteStreamService {
+
+    @Autowired
+    private FinnhubService finnhubService;
+
+    @Value("${trading.stream.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    // A symbol's feed and its subscriber count change together, in one compute, so a subscriber can't join a feed
+    // its last subscriber is removing
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribe to live quotes for a set of symbols
+     * @return merged stream of quote updates for all requested symbols
+     */
+    public Flux<StockQuote> subscribe(Collection<String> symbols) {
+        return Flux.merge(symbols.stream()
+                .map(String::toUpperCase)
+                .distinct()
+                .map(this::subscribeToSymbol)
+                .toList());
+    }
+
+    /**
+     * Number of active subscribers per symbol
+     */
+    public Map<String, Integer> getSubscriberCounts() {
+        return feeds.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> entry.getValue().subscribers()));
+    }
+
+    private Flux<StockQuote> subscribeToSymbol(String symbol) {
+        return Flux.defer(() -> acquireFeed(symbol).doFinally(signal -> releaseSubscriber(symbol)));
+    }
+
+    /**
+     * The symbol's feed, counting one more subscriber; created if the symbol has none
+     */
+    private Flux<StockQuote> acquireFeed(String symbol) {
+        return feeds.compute(symbol, (s, feed) -> feed == null
+                ? new Feed(createFeed(s), 1)
+                : new Feed(feed.quotes(), feed.subscribers() + 1)).quotes();
+    }
+
+    /**
+     * One upstream poll per symbol, shared by all subscribers.
+     * Ticks are dropped while a fetch is still running so a slow upstream never queues up polls,
+     * and the latest quote is replayed to late subscribers so they don't wait a full interval.
+     */
+    private Flux<StockQuote> createFeed(String symbol) {
+        return Flux.interval(Duration.ZERO, Duration.ofMillis(pollIntervalMillis))
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromCallable(() -> finnhubService.getStockQuote(symbol))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .onErrorResume(e -> Mono.empty()), 1)
+                .replay(1)
+                .refCount();
+    }
+
+    /**
+     * Drop the symbol's feed once its last subscriber is gone so idle symbols don't accumulate
+     */
+    private void releaseSubscriber(String symbol) {
+        feeds.computeIfPresent(symbol, (s, feed) -> feed.subscribers() > 1
+                ? new Feed(feed.quotes(), feed.subscribers() - 1)
+                : null);
+    }
+
+    private record Feed(Flux<StockQuote> quotes, int subscribers) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.trading.service;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Id generator for rows inserted through R2DBC, drawing from the same pooled sequences Hibernate uses
+ * (see IdSequenceInitializer), so ids never collide with rows written through JPA.
+ *
+ * Like Hibernate's pooled optimizer, each sequence round trip reserves a block of ALLOCATION_SIZE ids:
+ * a sequence value v hands out (v - ALLOCATION_SIZE, v]. On MySQL the sequence is a *_seq table,
+ * advanced in its own transaction so the row lock isn't held for the rest of a trade.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveIdGenerator {
+
+    // Must match allocationSize on the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator newTransaction;
+    private final boolean tableSequences;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public ReactiveIdGenerator(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newTransaction = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory), definition);
+        this.tableSequences = connectionFactory.getMetadata().getName().toLowerCase().contains("mysql");
+    }
+
+    /**
+     * Next id from a sequence, e.g. "portfolio_seq"
+     */
+    public Mono<Long> nextId(String sequence) {
+        Block block = blocks.get(sequence);
+        if (block != null) {
+            long id = block.next.getAndIncrement();
+            if (id <= block.last) {
+                return Mono.just(id);
+            }
+        }
+        return nextSequenceValue(sequence)
+                // A fresh sequence starts at 1, which Hibernate doesn't treat as a block of its own
+                .flatMap(value -> value < ALLOCATION_SIZE ? nextSequenceValue(sequence) : Mono.just(value))
+                .map(last -> {
+                    Block fresh = new Block(last - ALLOCATION_SIZE + 1, last);
+                    long id = fresh.next.getAndIncrement();
+                    blocks.put(sequence, fresh);
+                    return id;
+                });
+    }
+
+    private Mono<Long> nextSequenceValue(String sequence) {
+        if (!tableSequences) {
+            return databaseClient.sql("SELECT NEXT VALUE FOR " + sequence)
+                    .map(row -> row.get(0, Long.class))
+                    .one();
+        }
+        return databaseClient.sql("SELECT next_val FROM " + sequence + " FOR UPDATE")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(value -> databaseClient.sql("UPDATE " + sequence + " SET next_val = :next")
+                        .bind("next", value + ALLOCATION_SIZE)
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(value))
+                .as(newTransaction::transactional);
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
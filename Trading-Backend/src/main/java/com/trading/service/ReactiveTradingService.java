@@ -0,0 +1,375 @@
+package com.trading.service;
+
+import com.trading.dto.PortfolioResponse;
+import com.trading.dto.SellRequest;
+import com.trading.dto.StockQuote;
+import com.trading.dto.TradeRequest;
+import com.trading.dto.TradeResponse;
+import com.trading.model.Portfolio;
+import com.trading.model.Transaction;
+import com.trading.model.User;
+import com.trading.repository.ReactivePortfolioRepository;
+import com.trading.repository.ReactiveTransactionRepository;
+import com.trading.repository.ReactiveUserRepository;
+import com.trading.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Non-blocking trading for the "reactive" profile: the same rules as TradingService
+ * (row locks in user id order, reservations, fixed-point money), on R2DBC and the Mono quote path.
+ * Writes go straight to the database; the trade journal is not supported in this mode.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTradingService {
+
+    @Autowired
+    private FinnhubService finnhubService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private TradeMetrics tradeMetrics;
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private ReactivePortfolioRepository portfolioRepository;
+
+    @Autowired
+    private ReactiveTransactionRepository transactionRepository;
+
+    @Autowired
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Autowired
+    private ReactiveIdGenerator idGenerator;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired(required = false)
+    private JournalService journalService;
+
+    // Absent when trading.candles.enabled=false
+    @Autowired(required = false)
+    private CandleService candleService;
+
+    @Value("${trading.locking.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${trading.locking.retry-backoff-ms:10}")
+    private long retryBackoffMillis;
+
+    @Value("${trading.portfolio.quote-timeout-ms:2000}")
+    private long quoteTimeoutMillis;
+
+    @PostConstruct
+    public void checkJournalDisabled() {
+        if (journalService != null) {
+            throw new IllegalStateException("trading.journal.enabled=true is not supported with the reactive profile");
+        }
+    }
+
+    /**
+     * Buy stocks at the current market price
+     */
+    public Mono<TradeResponse> buyStock(TradeRequest request) {
+        String symbol = request.getSymbol().toUpperCase();
+        return finnhubService.getStockQuoteReactive(symbol)
+                .flatMap(quote -> {
+                    long currentPrice = FixedPoint.fromDouble(quote.getCurrentPrice());
+                    long totalCost = FixedPoint.multiply(currentPrice, request.getQuantity());
+                    return inTransactionWithRetry(TradeMetrics.BUY, executeBuy(request, symbol, currentPrice, totalCost));
+                })
+                .doOnNext(response -> recordSuccess(TradeMetrics.BUY, response))
+                .doOnError(e -> tradeMetrics.failed(TradeMetrics.BUY));
+    }
+
+    private Mono<TradeResponse> executeBuy(TradeRequest request, String symbol, long currentPrice, long totalCost) {
+        return userRepository.findAllByIdForUpdate(List.of(request.getUserId()))
+                .next()
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("User not found")))
+                .flatMap(user -> {
+                    // Check if user has sufficient balance (cash reserved by open limit orders is not available)
+                    long balance = FixedPoint.fromBigDecimal(user.getBalance());
+                    long availableBalance = balance - reservationService.getReservedCash(user.getId());
+                    if (availableBalance < totalCost) {
+                        tradeMetrics.rejected(TradeMetrics.BUY, "insufficient_balance");
+                        return Mono.just(new TradeResponse(false, "Insufficient balance", request.getSymbol(),
+                                request.getQuantity(), FixedPoint.toBigDecimal(currentPrice),
+                                FixedPoint.toBigDecimal(totalCost), user.getBalance()));
+                    }
+
+                    BigDecimal newBalance = FixedPoint.toBigDecimal(balance - totalCost);
+                    return userRepository.updateBalance(user.getId(), newBalance, LocalDateTime.now())
+                            .then(portfolioRepository.findByUserIdAndSymbol(user.getId(), symbol)
+                                    .map(Optional::of)
+                                    .defaultIfEmpty(Optional.empty()))
+                            .flatMap(existing -> addShares(existing, user.getId(), symbol, request.getQuantity(), currentPrice, totalCost))
+                            .then(recordTransaction(user.getId(), symbol, Transaction.TransactionType.BUY,
+                                    request.getQuantity(), currentPrice, totalCost, null))
+                            .thenReturn(new TradeResponse(true, "Stock purchased successfully", symbol,
+                                    request.getQuantity(), FixedPoint.toBigDecimal(currentPrice),
+                                    FixedPoint.toBigDecimal(totalCost), newBalance));
+                });
+    }
+
+    /**
+     * Sell stocks to another registered user, who pays the current market price
+     */
+    public Mono<TradeResponse> sellStock(SellRequest request) {
+        String symbol = request.getSymbol().toUpperCase();
+        return finnhubService.getStockQuoteReactive(symbol)
+                .flatMap(quote -> {
+                    long currentPrice = FixedPoint.fromDouble(quote.getCurrentPrice());
+                    long totalAmount = FixedPoint.multiply(currentPrice, request.getQuantity());
+                    return inTransactionWithRetry(TradeMetrics.SELL, executeSell(request, symbol, currentPrice, totalAmount));
+                })
+                .doOnNext(response -> recordSuccess(TradeMetrics.SELL, response))
+                .doOnError(e -> tradeMetrics.failed(TradeMetrics.SELL));
+    }
+
+    private Mono<TradeResponse> executeSell(SellRequest request, String symbol, long currentPrice, long totalAmount) {
+        String buyerNotRegistered = "Buyer '" + request.getSellerName() + "' is not registered in the system. All buyers must be verified users.";
+        return userRepository.findIdByUsername(request.getSellerName())
+                .switchIfEmpty(Mono.error(() -> new RuntimeException(buyerNotRegistered)))
+                // Lock seller and buyer in id order so crossing trades can't deadlock
+                .flatMap(buyerId -> userRepository.findAllByIdForUpdate(List.of(request.getUserId(), buyerId).stream().distinct().sorted().toList())
+                        .collectMap(User::getId)
+                        .flatMap(locked -> {
+                            User seller = locked.get(request.getUserId());
+                            User buyer = locked.get(buyerId);
+                            if (seller == null) {
+                                return Mono.error(new RuntimeException("Seller user not found"));
+                            }
+                            if (buyer == null) {
+                                return Mono.error(new RuntimeException(buyerNotRegistered));
+                            }
+                            return transfer(request, symbol, seller, buyer, currentPrice, totalAmount);
+                        }));
+    }
+
+    private Mono<TradeResponse> transfer(SellRequest request, String symbol, User seller, User buyer,
+                                         long currentPrice, long totalAmount) {
+        // Validation: Prevent self-trading (cannot sell to yourself)
+        if (seller.getId().equals(buyer.getId())) {
+            tradeMetrics.rejected(TradeMetrics.SELL, "self_trade");
+            return Mono.just(new TradeResponse(false,
+                    "Invalid transaction: You cannot sell stocks to yourself. Please specify a different buyer.",
+                    request.getSymbol(), request.getQuantity(), null, null, seller.getBalance()));
+        }
+        if (seller.getUsername().equalsIgnoreCase(request.getSellerName())) {
+            tradeMetrics.rejected(TradeMetrics.SELL, "self_trade");
+            return Mono.just(new TradeResponse(false,
+                    "Invalid transaction: Seller and buyer cannot be the same person (" + request.getSellerName() + ").",
+                    request.getSymbol(), request.getQuantity(), null, null, seller.getBalance()));
+        }
+
+        // Load seller's and buyer's holdings of the symbol in one query
+        return portfolioRepository.findByUserIdInAndSymbol(List.of(seller.getId(), buyer.getId()), symbol)
+                .collectMap(Portfolio::getUserId, Function.identity())
+                .flatMap(holdings -> {
+                    Portfolio sellerPortfolio = holdings.get(seller.getId());
+                    if (sellerPortfolio == null) {
+                        return Mono.error(new RuntimeException("Stock not found in seller's portfolio"));
+                    }
+
+                    // Check if seller has sufficient quantity (shares reserved by open limit orders are not available)
+                    int availableQuantity = sellerPortfolio.getQuantity()
+                            - reservationService.getReservedShares(seller.getId(), symbol);
+                    if (availableQuantity < request.getQuantity()) {
+                        tradeMetrics.rejected(TradeMetrics.SELL, "insufficient_quantity");
+                        return Mono.just(new TradeResponse(false, "Insufficient stock quantity. Available: " + availableQuantity,
+                                request.getSymbol(), request.getQuantity(), null, null, seller.getBalance()));
+                    }
+
+                    // Check if buyer has sufficient balance
+                    long buyerBalance = FixedPoint.fromBigDecimal(buyer.getBalance());
+                    long buyerAvailableBalance = buyerBalance - reservationService.getReservedCash(buyer.getId());
+                    if (buyerAvailableBalance < totalAmount) {
+                        tradeMetrics.rejected(TradeMetrics.SELL, "insufficient_buyer_balance");
+                        return Mono.just(new TradeResponse(false,
+                                "Buyer '" + buyer.getUsername() + "' has insufficient balance. Required: " + FixedPoint.toBigDecimal(totalAmount)
+                                        + ", Available: " + FixedPoint.toBigDecimal(buyerAvailableBalance),
+                                request.getSymbol(), request.getQuantity(), FixedPoint.toBigDecimal(currentPrice),
+                                FixedPoint.toBigDecimal(totalAmount), seller.getBalance()));
+                    }
+
+                    // Transfer money: Buyer pays Seller, then move the shares
+                    LocalDateTime now = LocalDateTime.now();
+                    BigDecimal sellerBalance = FixedPoint.toBigDecimal(
+                            Math.addExact(FixedPoint.fromBigDecimal(seller.getBalance()), totalAmount));
+                    return userRepository.updateBalance(buyer.getId(), FixedPoint.toBigDecimal(buyerBalance - totalAmount), now)
+                            .then(userRepository.updateBalance(seller.getId(), sellerBalance, now))
+                            .then(removeShares(sellerPortfolio, request.getQuantity()))
+                            .then(addShares(Optional.ofNullable(holdings.get(buyer.getId())), buyer.getId(), symbol,
+                                    request.getQuantity(), currentPrice, totalAmount))
+                            .then(recordTransaction(seller.getId(), symbol, Transaction.TransactionType.SELL,
+                                    request.getQuantity(), currentPrice, totalAmount, request.getSellerName() + " (sold to)"))
+                            .then(recordTransaction(buyer.getId(), symbol, Transaction.TransactionType.BUY,
+                                    request.getQuantity(), currentPrice, totalAmount, "(bought from userId " + seller.getId() + ")"))
+                            .thenReturn(new TradeResponse(true,
+                                    "Stock sold successfully to " + request.getSellerName() + ". Stocks transferred to buyer's portfolio.",
+                                    symbol, request.getQuantity(), FixedPoint.toBigDecimal(currentPrice),
+                                    FixedPoint.toBigDecimal(totalAmount), sellerBalance));
+                });
+    }
+
+    /**
+     * Get user's portfolio with profit/loss calculations; every distinct symbol is quoted concurrently
+     */
+    public Flux<PortfolioResponse> getUserPortfolio(Long userId) {
+        return requireUser(userId)
+                .thenMany(portfolioRepository.findByUserId(userId))
+                .collectList()
+                .flatMapMany(portfolios -> Flux.fromIterable(portfolios.stream().map(Portfolio::getSymbol).distinct().toList())
+                        .flatMap(symbol -> finnhubService.getStockQuoteReactive(symbol)
+                                .timeout(Duration.ofMillis(quoteTimeoutMillis))
+                                .map(quote -> Map.entry(symbol, quote))
+                                .onErrorResume(e -> Mono.empty()))
+                        .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                        .flatMapIterable(quotes -> portfolios.stream().map(portfolio -> value(portfolio, quotes.get(portfolio.getSymbol()))).toList()));
+    }
+
+    private static PortfolioResponse value(Portfolio portfolio, StockQuote stockQuote) {
+        PortfolioResponse response = new PortfolioResponse();
+        response.setId(portfolio.getId());
+        response.setUserId(portfolio.getUserId());
+        response.setSymbol(portfolio.getSymbol());
+        response.setQuantity(portfolio.getQuantity());
+
+        long avgPurchasePrice = FixedPoint.fromBigDecimal(portfolio.getAvgPurchasePrice());
+        // If unable to fetch current price in time, use purchase price as fallback
+        long currentPrice = stockQuote != null && stockQuote.getCurrentPrice() != null
+                ? FixedPoint.fromDouble(stockQuote.getCurrentPrice())
+                : avgPurchasePrice;
+        response.calculateProfitLoss(currentPrice, avgPurchasePrice);
+        return response;
+    }
+
+    /**
+     * Get user's transaction history ordered by date (newest first), streamed as rows arrive
+     */
+    public Flux<Transaction> getUserTransactions(Long userId) {
+        return requireUser(userId).thenMany(transactionRepository.findByUserId(userId));
+    }
+
+    /**
+     * Completes empty if the user exists, with an error otherwise
+     */
+    public Mono<Void> requireUser(Long userId) {
+        return userRepository.existsById(userId)
+                .flatMap(exists -> exists
+                        ? Mono.<Void>empty()
+                        : Mono.error(new RuntimeException("User with ID " + userId + " not found")));
+    }
+
+    /**
+     * Add shares to a holding (empty if the user doesn't hold the symbol yet),
+     * re-weighting the average purchase price as PositionService does
+     */
+    private Mono<Void> addShares(Optional<Portfolio> existingPortfolio, Long userId, String symbol,
+                                 int quantity, long price, long totalCost) {
+        if (existingPortfolio.isPresent()) {
+            Portfolio portfolio = existingPortfolio.get();
+            long newAvgPrice = FixedPoint.averagePrice(FixedPoint.fromBigDecimal(portfolio.getAvgPurchasePrice()),
+                    portfolio.getQuantity(), totalCost, quantity);
+            return portfolioRepository.updatePosition(portfolio.getId(), portfolio.getQuantity() + quantity,
+                    FixedPoint.toBigDecimal(newAvgPrice), LocalDateTime.now()).then();
+        }
+        return idGenerator.nextId("portfolio_seq")
+                .flatMap(id -> {
+                    Portfolio portfolio = new Portfolio();
+                    portfolio.setId(id);
+                    portfolio.setUserId(userId);
+                    portfolio.setSymbol(symbol);
+                    portfolio.setQuantity(quantity);
+                    portfolio.setAvgPurchasePrice(FixedPoint.toBigDecimal(price));
+                    portfolio.setCreatedAt(LocalDateTime.now());
+                    portfolio.setUpdatedAt(LocalDateTime.now());
+                    return entityTemplate.insert(portfolio);
+                })
+                .then();
+    }
+
+    /**
+     * Remove shares from a holding, deleting the holding when its quantity reaches 0
+     */
+    private Mono<Void> removeShares(Portfolio portfolio, int quantity) {
+        int newQuantity = portfolio.getQuantity() - quantity;
+        if (newQuantity < 0) {
+            return Mono.error(new RuntimeException("Insufficient stock quantity. Available: " + portfolio.getQuantity()));
+        }
+        if (newQuantity == 0) {
+            return portfolioRepository.deleteById(portfolio.getId());
+        }
+        return portfolioRepository.updatePosition(portfolio.getId(), newQuantity, portfolio.getAvgPurchasePrice(),
+                LocalDateTime.now()).then();
+    }
+
+    private Mono<Void> recordTransaction(Long userId, String symbol, Transaction.TransactionType type,
+                                         int quantity, long price, long totalAmount, String sellerName) {
+        return idGenerator.nextId("transactions_seq")
+                .flatMap(id -> {
+                    Transaction transaction = new Transaction();
+                    transaction.setId(id);
+                    transaction.setUserId(userId);
+                    transaction.setSymbol(symbol);
+                    transaction.setType(type);
+                    transaction.setQuantity(quantity);
+                    transaction.setPrice(FixedPoint.toBigDecimal(price));
+                    transaction.setTotalAmount(FixedPoint.toBigDecimal(totalAmount));
+                    transaction.setSellerName(sellerName);
+                    transaction.setTransactionDate(LocalDateTime.now());
+                    return entityTemplate.insert(transaction);
+                })
+                .then();
+    }
+
+    /**
+     * Run trade work in a new transaction, retrying with jittered backoff when it loses a lock
+     * (lock wait timeout or deadlock), as AccountLockService.executeWithRetry does
+     */
+    private Mono<TradeResponse> inTransactionWithRetry(String type, Mono<TradeResponse> work) {
+        return tradeMetrics.timeDb(type, work
+                .as(transactionalOperator::transactional)
+                .retryWhen(Retry.backoff(maxAttempts - 1, Duration.ofMillis(retryBackoffMillis))
+                        .jitter(0.5)
+                        // Deadlocks surface as ConcurrencyFailureException, lock wait timeouts as QueryTimeoutException
+                        .filter(e -> e instanceof ConcurrencyFailureException || e instanceof QueryTimeoutException)
+                        .onRetryExhaustedThrow((spec, signal) -> new RuntimeException(
+                                "Trade could not be completed due to concurrent activity on the account. Please retry.",
+                                signal.failure()))));
+    }
+
+    private void recordSuccess(String type, TradeResponse response) {
+        if (response.isSuccess()) {
+            tradeMetrics.success(type);
+            if (candleService != null) {
+                candleService.recordTrade(response.getSymbol(), FixedPoint.fromBigDecimal(response.getPrice()), response.getQuantity());
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.trading.service;
+
+import com.trading.dto.UserRegistrationRequest;
+import com.trading.model.User;
+import com.trading.repository.ReactiveUserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking user management for the "reactive" profile (see UserService)
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Autowired
+    private ReactiveIdGenerator idGenerator;
+
+    /**
+     * Register a new user
+     */
+    public Mono<User> registerUser(UserRegistrationRequest request) {
+        return userRepository.existsByUsername(request.getUsername())
+                .flatMap(usernameTaken -> usernameTaken
+                        ? Mono.error(new RuntimeException("Username already exists"))
+                        : userRepository.existsByEmail(request.getEmail()))
+                .flatMap(emailTaken -> emailTaken
+                        ? Mono.error(new RuntimeException("Email already exists"))
+                        : idGenerator.nextId("users_seq"))
+                .flatMap(id -> {
+                    User user = new User();
+                    user.setId(id);
+                    user.setUsername(request.getUsername());
+                    user.setEmail(request.getEmail());
+                    user.setPassword(request.getPassword()); // In production, hash the password
+                    user.setBalance(BigDecimal.valueOf(100000)); // Initial balance: $100,000
+                    user.setCreatedAt(LocalDateTime.now());
+                    user.setUpdatedAt(LocalDateTime.now());
+                    return entityTemplate.insert(user);
+                });
+    }
+
+    /**
+     * Get user by ID
+     */
+    public Mono<User> getUserById(Long id) {
+        return userRepository.findById(id);
+    }
+
+    /**
+     * Get user by username
+     */
+    public Mono<User> getUserByUsername(String username) {
+        return userRepository.findByUsername(username);
+    }
+}
@@ -0,0 +1,39 @@
+package com.trading.service;
+
+import com.trading.config.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read routing meters, exported through the Actuator metrics/prometheus endpoints:
+ * - trading.datasource.reads{route}: read-only transactions served by the replica or sent to the primary
+ * - trading.datasource.replica.lag: replication lag in seconds at the last check (-1 while unknown)
+ * - trading.datasource.replica.current: 1 while reads go to the replica, 0 while they fall back
+ * Pool saturation per route is in the hikaricp.connections.* meters of the "primary" and "replica" pools.
+ */
+@Component
+@ConditionalOnProperty(name = "trading.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingMetrics {
+
+    public ReplicaRoutingMetrics(ReplicaRoutingDataSource replicaRoutingDataSource, MeterRegistry meterRegistry) {
+        FunctionCounter.builder("trading.datasource.reads", replicaRoutingDataSource, ReplicaRoutingDataSource::getReplicaReads)
+                .description("Read-only transactions by the database they were routed to")
+                .tag("route", "replica")
+                .register(meterRegistry);
+        FunctionCounter.builder("trading.datasource.reads", replicaRoutingDataSource, ReplicaRoutingDataSource::getPrimaryReads)
+                .description("Read-only transactions by the database they were routed to")
+                .tag("route", "primary")
+                .register(meterRegistry);
+        Gauge.builder("trading.datasource.replica.lag", replicaRoutingDataSource, ReplicaRoutingDataSource::getLagSeconds)
+                .description("Replica lag behind the primary at the last check")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("trading.datasource.replica.current", replicaRoutingDataSource,
+                        dataSource -> dataSource.isReplicaCurrent() ? 1 : 0)
+                .description("Whether read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,78 @@
+package com.trading.service;
+
+import org.springframework.stereotype.Service;
+
+import com.trading.util.FixedPoint;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service tracking cash and shares held back for open limit orders.
+ * A reservation lasts from order entry until the order is cancelled or its fills are settled,
+ * so every other trade path must treat reserved amounts as unavailable.
+ * Cash is in cents (see {@link FixedPoint}).
+ */
+@Service
+public class ReservationService {
+
+    private final Map<Long, Long> reservedCash = new ConcurrentHashMap<>();
+    private final Map<String, Integer> reservedShares = new ConcurrentHashMap<>();
+
+    /**
+     * Reserve cash for a buy order
+     * @param balance the user's current balance, checked against existing reservations
+     */
+    public void reserveCash(Long userId, long amount, long balance) {
+        reservedCash.compute(userId, (id, reserved) -> {
+            long current = reserved == null ? 0 : reserved;
+            long available = balance - current;
+            if (available < amount) {
+                throw new RuntimeException("Insufficient balance. Required: " + FixedPoint.toBigDecimal(amount)
+                        + ", Available: " + FixedPoint.toBigDecimal(available));
+            }
+            return current + amount;
+        });
+    }
+
+    public void releaseCash(Long userId, long amount) {
+        reservedCash.computeIfPresent(userId, (id, reserved) -> {
+            long remaining = reserved - amount;
+            return remaining > 0 ? remaining : null;
+        });
+    }
+
+    /**
+     * Reserve shares for a sell order
+     * @param holding the user's current quantity of the symbol, checked against existing reservations
+     */
+    public void reserveShares(Long userId, String symbol, int quantity, int holding) {
+        reservedShares.compute(key(userId, symbol), (key, reserved) -> {
+            int current = reserved == null ? 0 : reserved;
+            int available = holding - current;
+            if (available < quantity) {
+                throw new RuntimeException("Insufficient stock quantity. Available: " + available);
+            }
+            return current + quantity;
+        });
+    }
+
+    public void releaseShares(Long userId, String symbol, int quantity) {
+        reservedShares.computeIfPresent(key(userId, symbol), (key, reserved) -> {
+            int remaining = reserved - quantity;
+            return remaining > 0 ? remaining : null;
+        });
+    }
+
+    public long getReservedCash(Long userId) {
+        return reservedCash.getOrDefault(userId, 0L);
+    }
+
+    public int getReservedShares(Long userId, String symbol) {
+        return reservedShares.getOrDefault(key(userId, symbol), 0);
+    }
+
+    private static String key(Long userId, String symbol) {
+        return userId + ":" + symbol;
+    }
+}
@@ -0,0 +1,97 @@
+package com.trading.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Trade counters and timers, exported through the Actuator metrics/prometheus endpoints:
+ * - trading.trades{type, result, reason}: completed trades (result=success) and rejections by reason
+ * - trading.trade.db{type}: time spent in the trade's database transaction, including lock waits and retries
+ *   (type=batch for a batch of orders committed together)
+ */
+@Component
+public class TradeMetrics {
+
+    public static final String BUY = "buy";
+    public static final String SELL = "sell";
+    public static final String BATCH = "batch";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer buyDbTimer;
+    private final Timer sellDbTimer;
+    private final Timer batchDbTimer;
+    private final Counter buySuccess;
+    private final Counter sellSuccess;
+
+    public TradeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.buyDbTimer = dbTimer(BUY);
+        this.sellDbTimer = dbTimer(SELL);
+        this.batchDbTimer = dbTimer(BATCH);
+        this.buySuccess = tradeCounter(BUY, "success", "none");
+        this.sellSuccess = tradeCounter(SELL, "success", "none");
+    }
+
+    /**
+     * Run the trade's database work, recording how long it took
+     */
+    public <T> T timeDb(String type, Supplier<T> work) {
+        return dbTimerFor(type).record(work);
+    }
+
+    /**
+     * Reactive variant: the time from subscription until the work completes, fails or is cancelled
+     */
+    public <T> Mono<T> timeDb(String type, Mono<T> work) {
+        Timer timer = dbTimerFor(type);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return work.doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Timer dbTimerFor(String type) {
+        if (BUY.equals(type)) {
+            return buyDbTimer;
+        }
+        return BATCH.equals(type) ? batchDbTimer : sellDbTimer;
+    }
+
+    public void success(String type) {
+        (BUY.equals(type) ? buySuccess : sellSuccess).increment();
+    }
+
+    /**
+     * @param reason short snake_case reason, e.g. insufficient_balance
+     */
+    public void rejected(String type, String reason) {
+        tradeCounter(type, "rejected", reason).increment();
+    }
+
+    /**
+     * A trade that failed with an exception (unknown user, lock retries exhausted, ...)
+     */
+    public void failed(String type) {
+        tradeCounter(type, "error", "exception").increment();
+    }
+
+    private Timer dbTimer(String type) {
+        return Timer.builder("trading.trade.db")
+                .description("Time spent in a trade's database transaction")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private Counter tradeCounter(String type, String result, String reason) {
+        return Counter.builder("trading.trades")
+                .description("Trades by outcome")
+                .tags("type", type, "result", result, "reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -1,23 +1,58 @@
 package com.trading.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.dto.BatchOrder;
+import com.trading.dto.BatchOrderResponse;
+import com.trading.dto.LockStats;
+import com.trading.dto.LotReport;
 import com.trading.dto.PortfolioResponse;
 import com.trading.dto.SellRequest;
+import com.trading.dto.StockQuote;
 import com.trading.dto.TradeRequest;
 import com.trading.dto.TradeResponse;
+import com.trading.dto.TransactionPage;
 import com.trading.model.Portfolio;
 import com.trading.model.Transaction;
 import com.trading.model.User;
 import com.trading.repository.PortfolioRepository;
 import com.trading.repository.TransactionRepository;
 import com.trading.repository.UserRepository;
+import com.trading.util.FixedPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Service for Trading operations (Buy/Sell stocks)
@@ -25,6 +60,8 @@ import java.util.Optional;
 @Service
 public class TradingService {
 
+    private static final Logger log = LoggerFactory.getLogger(TradingService.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -37,88 +74,180 @@ public class TradingService {
     @Autowired
     private FinnhubService finnhubService;
 
+    @Autowired
+    private PositionService positionService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private AccountLockService accountLockService;
+
+    @Autowired
+    private TradeMetrics tradeMetrics;
+
+    // Present only when trading.journal.enabled=true
+    @Autowired(required = false)
+    private JournalService journalService;
+
+    // Absent when trading.portfolio.view.enabled=false
+    @Autowired(required = false)
+    private PortfolioViewService portfolioViewService;
+
+    // Absent when trading.lots.enabled=false
+    @Autowired(required = false)
+    private LotService lotService;
+
+    // Absent when trading.candles.enabled=false
+    @Autowired(required = false)
+    private CandleService candleService;
+
+    @Autowired
+    @Qualifier("quoteExecutor")
+    private Executor quoteExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${trading.portfolio.quote-timeout-ms:2000}")
+    private long quoteTimeoutMillis;
+
+    @Value("${trading.batch.max-orders:500}")
+    private int maxBatchOrders;
+
+    @Value("${trading.transactions.default-page-size:50}")
+    private int defaultTransactionPageSize;
+
+    @Value("${trading.transactions.max-page-size:500}")
+    private int maxTransactionPageSize;
+
+    @Value("${trading.transactions.stream-fetch-size:-2147483648}")
+    private int transactionStreamFetchSize;
+
     /**
      * Buy stocks
+     * Runs in its own transaction, retried if the user's row lock can't be acquired
      */
-    @Transactional
     public TradeResponse buyStock(TradeRequest request) {
-        // Get user
-        User user = userRepository.findById(request.getUserId())
+        return buyStock(request, response -> { });
+    }
+
+    /**
+     * Buy stocks, handing the response to inTransaction before the trade's transaction commits
+     * (not called in journal mode, where the trade isn't a database transaction)
+     */
+    public TradeResponse buyStock(TradeRequest request, Consumer<TradeResponse> inTransaction) {
+        try {
+            // Get current stock price before taking any lock, so the lock isn't held across the quote fetch
+            var stockQuote = finnhubService.getStockQuote(request.getSymbol());
+            long currentPrice = FixedPoint.fromDouble(stockQuote.getCurrentPrice());
+            long totalCost = FixedPoint.multiply(currentPrice, request.getQuantity());
+
+            if (journalService != null) {
+                return traded(buyThroughJournal(request, currentPrice, totalCost));
+            }
+            TradeResponse response = tradeMetrics.timeDb(TradeMetrics.BUY,
+                    () -> accountLockService.executeWithRetry(
+                            () -> completed(executeBuy(request, currentPrice, totalCost), inTransaction)));
+            if (response.isSuccess()) {
+                tradeMetrics.success(TradeMetrics.BUY);
+            }
+            return traded(response);
+        } catch (RuntimeException e) {
+            tradeMetrics.failed(TradeMetrics.BUY);
+            throw e;
+        }
+    }
+
+    /**
+     * Add a completed trade to the candles; called once the trade is committed (or journaled), so a
+     * rolled-back attempt never shows up in them
+     */
+    private TradeResponse traded(TradeResponse response) {
+        if (candleService != null && response.isSuccess()) {
+            candleService.recordTrade(response.getSymbol(), FixedPoint.fromBigDecimal(response.getPrice()), response.getQuantity());
+        }
+        return response;
+    }
+
+    private static TradeResponse completed(TradeResponse response, Consumer<TradeResponse> inTransaction) {
+        inTransaction.accept(response);
+        return response;
+    }
+
+    /**
+     * Journal mode: the buy is acknowledged once it is durable in the trade journal
+     */
+    private TradeResponse buyThroughJournal(TradeRequest request, long currentPrice, long totalCost) {
+        String symbol = request.getSymbol().toUpperCase();
+        JournalService.Outcome outcome = journalService.buy(request.getUserId(), symbol, request.getQuantity(), currentPrice);
+        recordOutcome(TradeMetrics.BUY, outcome);
+        return new TradeResponse(
+                outcome.success(),
+                outcome.message(),
+                symbol,
+                request.getQuantity(),
+                FixedPoint.toBigDecimal(currentPrice),
+                FixedPoint.toBigDecimal(totalCost),
+                FixedPoint.toBigDecimal(outcome.balance())
+        );
+    }
+
+    private TradeResponse executeBuy(TradeRequest request, long currentPrice, long totalCost) {
+        // Get and lock user
+        User user = accountLockService.lockUser(request.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Get current stock price
-        var stockQuote = finnhubService.getStockQuote(request.getSymbol());
-        BigDecimal currentPrice = BigDecimal.valueOf(stockQuote.getCurrentPrice());
-        BigDecimal totalCost = currentPrice.multiply(BigDecimal.valueOf(request.getQuantity()));
+        // Load the existing holding before anything is modified, so all writes go out in one flush at commit
+        Holdings holdings = new Holdings(portfolioRepository
+                .findHolding(request.getUserId(), request.getSymbol().toUpperCase()).stream().toList());
 
-        // Check if user has sufficient balance
-        if (user.getBalance().compareTo(totalCost) < 0) {
+        return applyBuy(request, currentPrice, totalCost, user, holdings);
+    }
+
+    /**
+     * Apply a buy for a user already locked, whose holding of the symbol (if any) is in holdings
+     */
+    private TradeResponse applyBuy(TradeRequest request, long currentPrice, long totalCost, User user, Holdings holdings) {
+        // Check if user has sufficient balance (cash reserved by open limit orders is not available)
+        long balance = FixedPoint.fromBigDecimal(user.getBalance());
+        long availableBalance = balance - reservationService.getReservedCash(user.getId());
+        if (availableBalance < totalCost) {
+            tradeMetrics.rejected(TradeMetrics.BUY, "insufficient_balance");
             return new TradeResponse(
                     false, 
                     "Insufficient balance", 
                     request.getSymbol(), 
                     request.getQuantity(), 
-                    currentPrice, 
-                    totalCost, 
+                    FixedPoint.toBigDecimal(currentPrice), 
+                    FixedPoint.toBigDecimal(totalCost), 
                     user.getBalance()
             );
         }
 
         // Deduct amount from user balance
-        user.setBalance(user.getBalance().subtract(totalCost));
+        user.setBalance(FixedPoint.toBigDecimal(balance - totalCost));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
 
         // Update or create portfolio entry
-        Optional<Portfolio> existingPortfolio = portfolioRepository
-                .findByUserIdAndSymbol(request.getUserId(), request.getSymbol().toUpperCase());
-
-        Portfolio savedPortfolio;
-        if (existingPortfolio.isPresent()) {
-            Portfolio portfolio = existingPortfolio.get();
-            
-            // Calculate new average purchase price
-            BigDecimal totalValue = portfolio.getAvgPurchasePrice()
-                    .multiply(BigDecimal.valueOf(portfolio.getQuantity()))
-                    .add(totalCost);
-            int totalQuantity = portfolio.getQuantity() + request.getQuantity();
-            BigDecimal newAvgPrice = totalValue.divide(BigDecimal.valueOf(totalQuantity), 2, BigDecimal.ROUND_HALF_UP);
-            
-            portfolio.setQuantity(totalQuantity);
-            portfolio.setAvgPurchasePrice(newAvgPrice);
-            portfolio.setUpdatedAt(LocalDateTime.now());
-            savedPortfolio = portfolioRepository.save(portfolio);
-            System.out.println("Updated portfolio: userId=" + savedPortfolio.getUserId() + ", symbol=" + savedPortfolio.getSymbol() + ", quantity=" + savedPortfolio.getQuantity());
-        } else {
-            Portfolio portfolio = new Portfolio();
-            portfolio.setUserId(request.getUserId());
-            portfolio.setSymbol(request.getSymbol().toUpperCase());
-            portfolio.setQuantity(request.getQuantity());
-            portfolio.setAvgPurchasePrice(currentPrice);
-            portfolio.setCreatedAt(LocalDateTime.now());
-            portfolio.setUpdatedAt(LocalDateTime.now());
-            savedPortfolio = portfolioRepository.save(portfolio);
-            System.out.println("Created new portfolio: userId=" + savedPortfolio.getUserId() + ", symbol=" + savedPortfolio.getSymbol() + ", quantity=" + savedPortfolio.getQuantity());
-        }
+        holdings.put(positionService.addShares(holdingToAddTo(holdings, request.getUserId(), request.getSymbol().toUpperCase()),
+                request.getUserId(), request.getSymbol().toUpperCase(), request.getQuantity(), currentPrice, totalCost));
 
         // Record transaction
-        Transaction transaction = new Transaction();
-        transaction.setUserId(request.getUserId());
-        transaction.setSymbol(request.getSymbol().toUpperCase());
-        transaction.setType(Transaction.TransactionType.BUY);
-        transaction.setQuantity(request.getQuantity());
-        transaction.setPrice(currentPrice);
-        transaction.setTotalAmount(totalCost);
-        transaction.setTransactionDate(LocalDateTime.now());
-        transactionRepository.save(transaction);
+        positionService.recordTransaction(request.getUserId(), request.getSymbol().toUpperCase(),
+                Transaction.TransactionType.BUY, request.getQuantity(), currentPrice, totalCost, null);
 
         return new TradeResponse(
                 true, 
                 "Stock purchased successfully", 
                 request.getSymbol().toUpperCase(), 
                 request.getQuantity(), 
-                currentPrice, 
-                totalCost, 
+                FixedPoint.toBigDecimal(currentPrice), 
+                FixedPoint.toBigDecimal(totalCost), 
                 user.getBalance()
         );
     }
@@ -126,19 +255,102 @@ public class TradingService {
     /**
      * Sell stocks with seller validation - transfers stocks to buyer
      * Real-time peer-to-peer trading implementation
+     * Runs in its own transaction, retried if the seller's or buyer's row lock can't be acquired
      */
-    @Transactional
     public TradeResponse sellStock(SellRequest request) {
+        return sellStock(request, response -> { });
+    }
+
+    /**
+     * Sell stocks, handing the response to inTransaction before the trade's transaction commits
+     * (not called in journal mode, where the trade isn't a database transaction)
+     */
+    public TradeResponse sellStock(SellRequest request, Consumer<TradeResponse> inTransaction) {
+        try {
+            // Get current stock price before taking any lock, so locks aren't held across the quote fetch
+            var stockQuote = finnhubService.getStockQuote(request.getSymbol());
+            long currentPrice = FixedPoint.fromDouble(stockQuote.getCurrentPrice());
+            long totalAmount = FixedPoint.multiply(currentPrice, request.getQuantity());
+
+            if (journalService != null) {
+                return traded(sellThroughJournal(request, currentPrice, totalAmount));
+            }
+            TradeResponse response = tradeMetrics.timeDb(TradeMetrics.SELL,
+                    () -> accountLockService.executeWithRetry(
+                            () -> completed(executeSell(request, currentPrice, totalAmount), inTransaction)));
+            if (response.isSuccess()) {
+                tradeMetrics.success(TradeMetrics.SELL);
+            }
+            return traded(response);
+        } catch (RuntimeException e) {
+            tradeMetrics.failed(TradeMetrics.SELL);
+            throw e;
+        }
+    }
+
+    /**
+     * Journal mode: the sale is acknowledged once it is durable in the trade journal
+     */
+    private TradeResponse sellThroughJournal(SellRequest request, long currentPrice, long totalAmount) {
+        Long buyerId = userRepository.findIdByUsername(request.getSellerName())
+                .orElseThrow(() -> unregisteredBuyer(request.getSellerName()));
+
+        String symbol = request.getSymbol().toUpperCase();
+        JournalService.Outcome outcome = journalService.transfer(request.getUserId(), buyerId, symbol,
+                request.getQuantity(), currentPrice);
+        recordOutcome(TradeMetrics.SELL, outcome);
+        return new TradeResponse(
+                outcome.success(),
+                outcome.success()
+                        ? "Stock sold successfully to " + request.getSellerName() + ". Stocks transferred to buyer's portfolio."
+                        : outcome.message(),
+                symbol,
+                request.getQuantity(),
+                FixedPoint.toBigDecimal(currentPrice),
+                FixedPoint.toBigDecimal(totalAmount),
+                FixedPoint.toBigDecimal(outcome.balance())
+        );
+    }
+
+    private void recordOutcome(String type, JournalService.Outcome outcome) {
+        if (outcome.success()) {
+            tradeMetrics.success(type);
+        } else {
+            tradeMetrics.rejected(type, outcome.reason());
+        }
+    }
+
+    private TradeResponse executeSell(SellRequest request, long currentPrice, long totalAmount) {
+        // Validate buyer name exists in system (the person buying from seller)
+        Long buyerId = userRepository.findIdByUsername(request.getSellerName())
+                .orElseThrow(() -> unregisteredBuyer(request.getSellerName()));
+
+        // Lock seller and buyer in id order so crossing trades can't deadlock
+        Map<Long, User> lockedUsers = accountLockService.lockUsers(request.getUserId(), buyerId);
+
         // Get seller (the user selling the stock)
-        User seller = userRepository.findById(request.getUserId())
+        User seller = Optional.ofNullable(lockedUsers.get(request.getUserId()))
                 .orElseThrow(() -> new RuntimeException("Seller user not found"));
+        User buyer = Optional.ofNullable(lockedUsers.get(buyerId))
+                .orElseThrow(() -> unregisteredBuyer(request.getSellerName()));
 
-        // Validate buyer name exists in system (the person buying from seller)
-        User buyer = userRepository.findByUsername(request.getSellerName())
-                .orElseThrow(() -> new RuntimeException("Buyer '" + request.getSellerName() + "' is not registered in the system. All buyers must be verified users."));
+        // Load seller's and buyer's holdings of the symbol (usually from the entity cache), before anything is modified
+        Holdings holdings = new Holdings(Stream.of(seller.getId(), buyer.getId())
+                .distinct()
+                .flatMap(userId -> portfolioRepository.findHolding(userId, request.getSymbol().toUpperCase()).stream())
+                .toList());
+
+        return applySell(request, currentPrice, totalAmount, seller, buyer, holdings);
+    }
 
+    /**
+     * Apply a sale between two users already locked, whose holdings of the symbol (if any) are in holdings
+     */
+    private TradeResponse applySell(SellRequest request, long currentPrice, long totalAmount,
+                                    User seller, User buyer, Holdings holdings) {
         // Validation: Prevent self-trading (cannot sell to yourself)
         if (seller.getId().equals(buyer.getId())) {
+            tradeMetrics.rejected(TradeMetrics.SELL, "self_trade");
             return new TradeResponse(
                     false,
                     "Invalid transaction: You cannot sell stocks to yourself. Please specify a different buyer.",
@@ -152,6 +364,7 @@ public class TradingService {
 
         // Validation: Check username matches
         if (seller.getUsername().equalsIgnoreCase(request.getSellerName())) {
+            tradeMetrics.rejected(TradeMetrics.SELL, "self_trade");
             return new TradeResponse(
                     false,
                     "Invalid transaction: Seller and buyer cannot be the same person (" + request.getSellerName() + ").",
@@ -164,15 +377,17 @@ public class TradingService {
         }
 
         // Check if seller has the stock in portfolio
-        Portfolio sellerPortfolio = portfolioRepository
-                .findByUserIdAndSymbol(request.getUserId(), request.getSymbol().toUpperCase())
+        Portfolio sellerPortfolio = holdings.get(seller.getId(), request.getSymbol().toUpperCase())
                 .orElseThrow(() -> new RuntimeException("Stock not found in seller's portfolio"));
 
-        // Check if seller has sufficient quantity
-        if (sellerPortfolio.getQuantity() < request.getQuantity()) {
+        // Check if seller has sufficient quantity (shares reserved by open limit orders are not available)
+        int availableQuantity = sellerPortfolio.getQuantity()
+                - reservationService.getReservedShares(request.getUserId(), request.getSymbol().toUpperCase());
+        if (availableQuantity < request.getQuantity()) {
+            tradeMetrics.rejected(TradeMetrics.SELL, "insufficient_quantity");
             return new TradeResponse(
                     false, 
-                    "Insufficient stock quantity. Available: " + sellerPortfolio.getQuantity(), 
+                    "Insufficient stock quantity. Available: " + availableQuantity, 
                     request.getSymbol(), 
                     request.getQuantity(), 
                     null, 
@@ -181,169 +396,314 @@ public class TradingService {
             );
         }
 
-        // Get current stock price
-        var stockQuote = finnhubService.getStockQuote(request.getSymbol());
-        BigDecimal currentPrice = BigDecimal.valueOf(stockQuote.getCurrentPrice());
-        BigDecimal totalAmount = currentPrice.multiply(BigDecimal.valueOf(request.getQuantity()));
-
         // Check if buyer has sufficient balance
-        if (buyer.getBalance().compareTo(totalAmount) < 0) {
+        long buyerBalance = FixedPoint.fromBigDecimal(buyer.getBalance());
+        long buyerAvailableBalance = buyerBalance - reservationService.getReservedCash(buyer.getId());
+        if (buyerAvailableBalance < totalAmount) {
+            tradeMetrics.rejected(TradeMetrics.SELL, "insufficient_buyer_balance");
             return new TradeResponse(
                     false, 
-                    "Buyer '" + buyer.getUsername() + "' has insufficient balance. Required: " + totalAmount + ", Available: " + buyer.getBalance(), 
+                    "Buyer '" + buyer.getUsername() + "' has insufficient balance. Required: " + FixedPoint.toBigDecimal(totalAmount) + ", Available: " + FixedPoint.toBigDecimal(buyerAvailableBalance), 
                     request.getSymbol(), 
                     request.getQuantity(), 
-                    currentPrice, 
-                    totalAmount, 
+                    FixedPoint.toBigDecimal(currentPrice), 
+                    FixedPoint.toBigDecimal(totalAmount), 
                     seller.getBalance()
             );
         }
 
         // Transfer money: Buyer pays Seller
-        buyer.setBalance(buyer.getBalance().subtract(totalAmount));
+        buyer.setBalance(FixedPoint.toBigDecimal(buyerBalance - totalAmount));
         buyer.setUpdatedAt(LocalDateTime.now());
         userRepository.save(buyer);
 
-        seller.setBalance(seller.getBalance().add(totalAmount));
+        seller.setBalance(FixedPoint.toBigDecimal(Math.addExact(FixedPoint.fromBigDecimal(seller.getBalance()), totalAmount)));
         seller.setUpdatedAt(LocalDateTime.now());
         userRepository.save(seller);
 
-        System.out.println("Money transfer: " + buyer.getUsername() + " paid " + totalAmount + " to seller userId=" + seller.getId());
+        log.debug("Money transfer: {} paid {} to seller userId={}", buyer.getUsername(), FixedPoint.toBigDecimal(totalAmount), seller.getId());
 
         // Update seller's portfolio (remove stocks)
-        int newSellerQuantity = sellerPortfolio.getQuantity() - request.getQuantity();
-        System.out.println("Seller portfolio: userId=" + request.getUserId() + ", symbol=" + request.getSymbol() + ", selling=" + request.getQuantity() + ", remaining=" + newSellerQuantity);
-        
-        if (newSellerQuantity == 0) {
-            portfolioRepository.delete(sellerPortfolio);
-            System.out.println("Seller portfolio deleted as quantity reached 0");
-        } else {
-            sellerPortfolio.setQuantity(newSellerQuantity);
-            sellerPortfolio.setUpdatedAt(LocalDateTime.now());
-            portfolioRepository.save(sellerPortfolio);
-            System.out.println("Seller portfolio updated with new quantity: " + newSellerQuantity);
+        log.debug("Seller portfolio: userId={}, symbol={}, selling={}, remaining={}", request.getUserId(), request.getSymbol(), request.getQuantity(), sellerPortfolio.getQuantity() - request.getQuantity());
+        if (sellerPortfolio.getQuantity().equals(request.getQuantity())) {
+            holdings.remove(sellerPortfolio);
         }
+        positionService.removeShares(sellerPortfolio, request.getQuantity(), currentPrice);
 
         // Transfer stocks to buyer's portfolio (add stocks)
-        Optional<Portfolio> existingBuyerPortfolio = portfolioRepository
-                .findByUserIdAndSymbol(buyer.getId(), request.getSymbol().toUpperCase());
-
-        if (existingBuyerPortfolio.isPresent()) {
-            Portfolio buyerPortfolio = existingBuyerPortfolio.get();
-            
-            // Calculate new average purchase price for buyer
-            BigDecimal totalValue = buyerPortfolio.getAvgPurchasePrice()
-                    .multiply(BigDecimal.valueOf(buyerPortfolio.getQuantity()))
-                    .add(totalAmount);
-            int totalQuantity = buyerPortfolio.getQuantity() + request.getQuantity();
-            BigDecimal newAvgPrice = totalValue.divide(BigDecimal.valueOf(totalQuantity), 2, BigDecimal.ROUND_HALF_UP);
-            
-            buyerPortfolio.setQuantity(totalQuantity);
-            buyerPortfolio.setAvgPurchasePrice(newAvgPrice);
-            buyerPortfolio.setUpdatedAt(LocalDateTime.now());
-            portfolioRepository.save(buyerPortfolio);
-            System.out.println("Buyer portfolio updated: userId=" + buyer.getId() + ", symbol=" + request.getSymbol() + ", newQuantity=" + totalQuantity);
-        } else {
-            Portfolio buyerPortfolio = new Portfolio();
-            buyerPortfolio.setUserId(buyer.getId());
-            buyerPortfolio.setSymbol(request.getSymbol().toUpperCase());
-            buyerPortfolio.setQuantity(request.getQuantity());
-            buyerPortfolio.setAvgPurchasePrice(currentPrice);
-            buyerPortfolio.setCreatedAt(LocalDateTime.now());
-            buyerPortfolio.setUpdatedAt(LocalDateTime.now());
-            portfolioRepository.save(buyerPortfolio);
-            System.out.println("Buyer portfolio created: userId=" + buyer.getId() + ", symbol=" + request.getSymbol() + ", quantity=" + request.getQuantity());
-        }
+        holdings.put(positionService.addShares(holdingToAddTo(holdings, buyer.getId(), request.getSymbol().toUpperCase()),
+                buyer.getId(), request.getSymbol().toUpperCase(), request.getQuantity(), currentPrice, totalAmount));
 
         // Record transaction for seller
-        Transaction sellerTransaction = new Transaction();
-        sellerTransaction.setUserId(request.getUserId());
-        sellerTransaction.setSymbol(request.getSymbol().toUpperCase());
-        sellerTransaction.setType(Transaction.TransactionType.SELL);
-        sellerTransaction.setQuantity(request.getQuantity());
-        sellerTransaction.setPrice(currentPrice);
-        sellerTransaction.setTotalAmount(totalAmount);
-        sellerTransaction.setSellerName(request.getSellerName() + " (sold to)");
-        sellerTransaction.setTransactionDate(LocalDateTime.now());
-        transactionRepository.save(sellerTransaction);
+        positionService.recordTransaction(request.getUserId(), request.getSymbol().toUpperCase(),
+                Transaction.TransactionType.SELL, request.getQuantity(), currentPrice, totalAmount,
+                request.getSellerName() + " (sold to)");
 
         // Record transaction for buyer
-        Transaction buyerTransaction = new Transaction();
-        buyerTransaction.setUserId(buyer.getId());
-        buyerTransaction.setSymbol(request.getSymbol().toUpperCase());
-        buyerTransaction.setType(Transaction.TransactionType.BUY);
-        buyerTransaction.setQuantity(request.getQuantity());
-        buyerTransaction.setPrice(currentPrice);
-        buyerTransaction.setTotalAmount(totalAmount);
-        buyerTransaction.setSellerName("(bought from userId " + seller.getId() + ")");
-        buyerTransaction.setTransactionDate(LocalDateTime.now());
-        transactionRepository.save(buyerTransaction);
+        positionService.recordTransaction(buyer.getId(), request.getSymbol().toUpperCase(),
+                Transaction.TransactionType.BUY, request.getQuantity(), currentPrice, totalAmount,
+                "(bought from userId " + seller.getId() + ")");
 
         return new TradeResponse(
                 true, 
                 "Stock sold successfully to " + request.getSellerName() + ". Stocks transferred to buyer's portfolio.", 
                 request.getSymbol().toUpperCase(), 
                 request.getQuantity(), 
-                currentPrice, 
-                totalAmount, 
+                FixedPoint.toBigDecimal(currentPrice), 
+                FixedPoint.toBigDecimal(totalAmount), 
                 seller.getBalance()
         );
     }
 
+    /**
+     * The holding new shares go to, or empty to create one
+     * If this transaction deleted the user's previous holding of the symbol, the delete is flushed first: inserts
+     * are flushed before deletes, and the new row can't be inserted while the old one exists ((userId, symbol) is unique)
+     */
+    private Optional<Portfolio> holdingToAddTo(Holdings holdings, Long userId, String symbol) {
+        Optional<Portfolio> holding = holdings.get(userId, symbol);
+        if (holding.isEmpty() && holdings.wasRemoved(userId, symbol)) {
+            portfolioRepository.flush();
+        }
+        return holding;
+    }
+
+    private static RuntimeException unregisteredBuyer(String buyerName) {
+        return new RuntimeException("Buyer '" + buyerName + "' is not registered in the system. All buyers must be verified users.");
+    }
+
+    /**
+     * Execute a batch of buy/sell orders
+     * Each distinct symbol is quoted once, up front and in parallel. Every user the batch touches is then locked
+     * once, in id order, and the orders are applied in sequence in a single transaction (retried as a whole if it
+     * loses a lock). An order that is rejected or invalid fails on its own; the others still go through.
+     */
+    public BatchOrderResponse executeBatch(List<BatchOrder> orders) {
+        if (orders.size() > maxBatchOrders) {
+            throw new RuntimeException("Batch has " + orders.size() + " orders; the maximum is " + maxBatchOrders);
+        }
+
+        Map<String, Long> prices = fetchPrices(
+                orders.stream().map(order -> order.getSymbol().toUpperCase()).distinct().toList());
+
+        List<TradeResponse> results;
+        if (journalService != null) {
+            // Journal mode: each order is appended to the journal on its own; appends share fsyncs anyway
+            results = orders.stream().map(order -> executeBatchOrder(order, prices, null, null, null)).toList();
+        } else {
+            try {
+                results = tradeMetrics.timeDb(TradeMetrics.BATCH,
+                        () -> accountLockService.executeWithRetry(() -> applyBatch(orders, prices)));
+            } catch (RuntimeException e) {
+                tradeMetrics.failed(TradeMetrics.BATCH);
+                throw e;
+            }
+            for (int i = 0; i < orders.size(); i++) {
+                if (results.get(i).isSuccess()) {
+                    tradeMetrics.success(metricType(orders.get(i)));
+                }
+            }
+        }
+
+        results.forEach(this::traded);
+        int succeeded = (int) results.stream().filter(TradeResponse::isSuccess).count();
+        return new BatchOrderResponse(succeeded, results.size() - succeeded, results);
+    }
+
+    private List<TradeResponse> applyBatch(List<BatchOrder> orders, Map<String, Long> prices) {
+        // Resolve the buyers named by sell orders in one query (usernames match case-insensitively, as on MySQL)
+        Map<String, Long> buyerIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<String> buyerNames = orders.stream()
+                .filter(order -> order.getType() == Transaction.TransactionType.SELL && order.getSellerName() != null)
+                .map(BatchOrder::getSellerName)
+                .distinct()
+                .toList();
+        if (!buyerNames.isEmpty()) {
+            userRepository.findByUsernameIn(buyerNames).forEach(user -> buyerIds.put(user.getUsername(), user.getId()));
+        }
+
+        // Lock every user the batch touches, then load all their holdings of the batch's symbols in one query
+        Set<Long> userIds = new HashSet<>(buyerIds.values());
+        orders.forEach(order -> userIds.add(order.getUserId()));
+        Map<Long, User> users = accountLockService.lockUsers(userIds.toArray(Long[]::new));
+        Holdings holdings = new Holdings(users.isEmpty() ? List.of() : portfolioRepository.findByUserIdInAndSymbolIn(
+                users.keySet(), orders.stream().map(order -> order.getSymbol().toUpperCase()).distinct().toList()));
+
+        List<TradeResponse> results = new ArrayList<>(orders.size());
+        for (BatchOrder order : orders) {
+            results.add(executeBatchOrder(order, prices, buyerIds, users, holdings));
+        }
+        return results;
+    }
+
+    /**
+     * Execute one order of a batch, returning a failed response instead of throwing for anything
+     * specific to the order (unknown user, missing quote, ...)
+     * users, buyerIds and holdings are null in journal mode
+     */
+    private TradeResponse executeBatchOrder(BatchOrder order, Map<String, Long> prices, Map<String, Long> buyerIds,
+                                            Map<Long, User> users, Holdings holdings) {
+        String symbol = order.getSymbol().toUpperCase();
+        Supplier<TradeResponse> trade;
+        try {
+            Long price = Optional.ofNullable(prices.get(symbol))
+                    .orElseThrow(() -> new RuntimeException("Unable to fetch a quote for " + symbol));
+            long totalAmount = FixedPoint.multiply(price, order.getQuantity());
+
+            if (order.getType() == Transaction.TransactionType.BUY) {
+                if (users == null) {
+                    return buyThroughJournal(order.toTradeRequest(), price, totalAmount);
+                }
+                User user = Optional.ofNullable(users.get(order.getUserId()))
+                        .orElseThrow(() -> new RuntimeException("User not found"));
+                trade = () -> applyBuy(order.toTradeRequest(), price, totalAmount, user, holdings);
+            } else {
+                SellRequest request = order.toSellRequest();
+                if (request.getSellerName() == null || request.getSellerName().isBlank()) {
+                    throw new RuntimeException("Buyer name is required for trade verification");
+                }
+                if (users == null) {
+                    return sellThroughJournal(request, price, totalAmount);
+                }
+                Long buyerId = Optional.ofNullable(buyerIds.get(request.getSellerName()))
+                        .orElseThrow(() -> unregisteredBuyer(request.getSellerName()));
+                User seller = Optional.ofNullable(users.get(request.getUserId()))
+                        .orElseThrow(() -> new RuntimeException("Seller user not found"));
+                User buyer = Optional.ofNullable(users.get(buyerId))
+                        .orElseThrow(() -> unregisteredBuyer(request.getSellerName()));
+                // The one check applySell makes by throwing; the rest it reports as rejections
+                holdings.get(seller.getId(), symbol)
+                        .orElseThrow(() -> new RuntimeException("Stock not found in seller's portfolio"));
+                trade = () -> applySell(request, price, totalAmount, seller, buyer, holdings);
+            }
+        } catch (DataAccessException e) {
+            // A database error fails the batch's transaction as a whole (and a lock conflict retries it)
+            throw e;
+        } catch (RuntimeException e) {
+            tradeMetrics.failed(metricType(order));
+            return new TradeResponse(false, e.getMessage(), symbol, order.getQuantity(), null, null, null);
+        }
+        // Not caught: once the trade starts changing the locked users and holdings, an exception (e.g. an
+        // overflow) must roll back the whole batch, or its partial changes would commit with the other orders
+        return trade.get();
+    }
+
+    private static String metricType(BatchOrder order) {
+        return order.getType() == Transaction.TransactionType.BUY ? TradeMetrics.BUY : TradeMetrics.SELL;
+    }
+
     /**
      * Get user's portfolio with profit/loss calculations
      * Real-time trading implementation with current market prices
      */
     public List<PortfolioResponse> getUserPortfolio(Long userId) {
-        // Validate user exists
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User with ID " + userId + " not found"));
-        
-        System.out.println("Fetching portfolio for userId: " + userId);
-        List<Portfolio> portfolios = portfolioRepository.findByUserId(userId);
-        System.out.println("Found " + portfolios.size() + " portfolio entries");
+        if (portfolioViewService != null) {
+            return portfolioViewService.getPortfolio(userId, this::fetchPrices);
+        }
+
+        // Read in a read-only transaction (served by the replica when one is configured),
+        // finished before the quotes are fetched so no connection is held while waiting on them
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<Portfolio> portfolios = readOnly.execute(status -> {
+            // Validate user exists
+            userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User with ID " + userId + " not found"));
+
+            log.debug("Fetching portfolio for userId: {}", userId);
+            return portfolioRepository.findByUserId(userId);
+        });
+        log.debug("Found {} portfolio entries", portfolios.size());
         
         if (portfolios.isEmpty()) {
-            System.out.println("No portfolio entries found for userId: " + userId);
+            log.debug("No portfolio entries found for userId: {}", userId);
             return List.of(); // Return empty list instead of null
         }
         
+        // Fetch every distinct symbol's quote at the same time, then value each holding
+        Map<String, CompletableFuture<StockQuote>> quotes = fetchQuotesInParallel(
+                portfolios.stream().map(Portfolio::getSymbol).distinct().toList());
+
         return portfolios.stream().map(portfolio -> {
-            try {
-                PortfolioResponse response = new PortfolioResponse();
-                response.setId(portfolio.getId());
-                response.setUserId(portfolio.getUserId());
-                response.setSymbol(portfolio.getSymbol());
-                response.setQuantity(portfolio.getQuantity());
-                response.setAvgPurchasePrice(portfolio.getAvgPurchasePrice());
-                
-                // Get current market price
-                var stockQuote = finnhubService.getStockQuote(portfolio.getSymbol());
-                response.setCurrentPrice(BigDecimal.valueOf(stockQuote.getCurrentPrice()));
-                
-                // Calculate real-time profit/loss
-                response.calculateProfitLoss();
-                
-                return response;
-            } catch (Exception e) {
-                // If unable to fetch current price, use purchase price as fallback
-                PortfolioResponse response = new PortfolioResponse();
-                response.setId(portfolio.getId());
-                response.setUserId(portfolio.getUserId());
-                response.setSymbol(portfolio.getSymbol());
-                response.setQuantity(portfolio.getQuantity());
-                response.setAvgPurchasePrice(portfolio.getAvgPurchasePrice());
-                response.setCurrentPrice(portfolio.getAvgPurchasePrice());
-                response.calculateProfitLoss();
-                return response;
+            PortfolioResponse response = new PortfolioResponse();
+            response.setId(portfolio.getId());
+            response.setUserId(portfolio.getUserId());
+            response.setSymbol(portfolio.getSymbol());
+            response.setQuantity(portfolio.getQuantity());
+
+            long avgPurchasePrice = FixedPoint.fromBigDecimal(portfolio.getAvgPurchasePrice());
+            long currentPrice;
+            StockQuote stockQuote = quotes.get(portfolio.getSymbol()).join();
+            if (stockQuote != null && stockQuote.getCurrentPrice() != null) {
+                currentPrice = FixedPoint.fromDouble(stockQuote.getCurrentPrice());
+            } else {
+                // If unable to fetch current price in time, use purchase price as fallback
+                currentPrice = avgPurchasePrice;
             }
+
+            // Calculate real-time profit/loss
+            response.calculateProfitLoss(currentPrice, avgPurchasePrice);
+            return response;
         }).toList();
     }
 
+    /**
+     * Get user's open lots and FIFO realized/unrealized P&L per symbol, valued at current market prices
+     */
+    public LotReport getLotReport(Long userId) {
+        if (lotService == null) {
+            throw new RuntimeException("Lot tracking is disabled");
+        }
+        return lotService.getReport(userId, this::fetchPrices);
+    }
+
+    /**
+     * Current prices in cents for the given symbols, fetched in parallel; symbols that can't be quoted in time are left out
+     */
+    private Map<String, Long> fetchPrices(List<String> symbols) {
+        Map<String, Long> prices = new HashMap<>();
+        fetchQuotesInParallel(symbols).forEach((symbol, quote) -> {
+            StockQuote stockQuote = quote.join();
+            if (stockQuote != null && stockQuote.getCurrentPrice() != null) {
+                prices.put(symbol, FixedPoint.fromDouble(stockQuote.getCurrentPrice()));
+            }
+        });
+        return prices;
+    }
+
+    /**
+     * Start one quote fetch per symbol on the quote executor.
+     * Each future completes with null if its fetch fails or exceeds the per-symbol timeout,
+     * so a slow symbol never holds up the rest of the portfolio.
+     */
+    private Map<String, CompletableFuture<StockQuote>> fetchQuotesInParallel(List<String> symbols) {
+        Map<String, CompletableFuture<StockQuote>> quotes = new HashMap<>();
+        for (String symbol : symbols) {
+            CompletableFuture<StockQuote> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> finnhubService.getStockQuote(symbol), quoteExecutor);
+            } catch (RejectedExecutionException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            quotes.put(symbol, future
+                    .completeOnTimeout(null, quoteTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> null));
+        }
+        return quotes;
+    }
+
+    /**
+     * Get account lock wait and retry counters
+     */
+    public LockStats getLockStats() {
+        return accountLockService.getStats();
+    }
+
     /**
      * Get user's transaction history ordered by date (newest first)
      * Real-time trading implementation showing complete transaction history
      */
+    @Transactional(readOnly = true)
     public List<Transaction> getUserTransactions(Long userId) {
         // Validate user exists
         User user = userRepository.findById(userId)
@@ -354,4 +714,125 @@ public class TradingService {
         
         return transactions; // Already ordered by query in repository
     }
+
+    /**
+     * Get one page of a user's transaction history (newest first) using keyset pagination
+     * @param cursor opaque cursor from the previous page, or null for the first page
+     * @param size requested page size, capped at the configured maximum
+     */
+    @Transactional(readOnly = true)
+    public TransactionPage getUserTransactionsPage(Long userId, String cursor, Integer size) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User with ID " + userId + " not found");
+        }
+
+        int pageSize = size == null ? defaultTransactionPageSize : Math.max(1, Math.min(size, maxTransactionPageSize));
+        // Read one extra row to learn whether another page follows
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findPageByUserId(userId, limit);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findPageByUserIdBefore(userId, position.transactionDate(), position.id(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Transaction> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? TransactionCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new TransactionPage(page, nextCursor, hasMore);
+    }
+
+    /**
+     * Write a user's full transaction history (newest first) as a JSON array, row by row as it is read
+     * from the database. Unlike getUserTransactions, memory use doesn't grow with history length.
+     * The user is validated up front so a missing user fails before any output is written.
+     */
+    public StreamingResponseBody streamUserTransactions(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User with ID " + userId + " not found");
+        }
+
+        return outputStream -> {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                readOnly.executeWithoutResult(status -> transactionRepository.forEachByUserId(
+                        userId, transactionStreamFetchSize, transaction -> {
+                            try {
+                                objectMapper.writeValue(generator, transaction);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }));
+                generator.writeEndArray();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    /**
+     * The holdings a trade can touch, loaded before any entity is modified and kept current as shares move
+     * (a holding sold down to 0 is removed, a new one is added), so later orders in a batch see earlier ones
+     */
+    private static final class Holdings {
+        private final Map<String, Portfolio> byUserAndSymbol = new HashMap<>();
+        private final Set<String> removed = new HashSet<>();
+
+        Holdings(List<Portfolio> portfolios) {
+            portfolios.forEach(this::put);
+        }
+
+        Optional<Portfolio> get(Long userId, String symbol) {
+            return Optional.ofNullable(byUserAndSymbol.get(key(userId, symbol)));
+        }
+
+        void put(Portfolio portfolio) {
+            byUserAndSymbol.put(key(portfolio.getUserId(), portfolio.getSymbol()), portfolio);
+        }
+
+        void remove(Portfolio portfolio) {
+            String key = key(portfolio.getUserId(), portfolio.getSymbol());
+            byUserAndSymbol.remove(key);
+            removed.add(key);
+        }
+
+        boolean wasRemoved(Long userId, String symbol) {
+            return removed.contains(key(userId, symbol));
+        }
+
+        private static String key(Long userId, String symbol) {
+            return userId + ":" + symbol;
+        }
+    }
+
+    /**
+     * Position in a user's history: the (transactionDate, id) of the last row of a page
+     */
+    private record TransactionCursor(LocalDateTime transactionDate, Long id) {
+
+        static TransactionCursor of(Transaction transaction) {
+            return new TransactionCursor(transaction.getTransactionDate(), transaction.getId());
+        }
+
+        String encode() {
+            String raw = transactionDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static TransactionCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new TransactionCursor(
+                        LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+    }
 }
@@ -5,6 +5,9 @@ import com.trading.model.User;
 import com.trading.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -20,17 +23,34 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AccountLockService accountLockService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Present only when trading.journal.enabled=true; balances are then owned by the trade journal
+    @Autowired(required = false)
+    private JournalService journalService;
+
+    // Absent when trading.portfolio.view.enabled=false
+    @Autowired(required = false)
+    private PortfolioViewService portfolioViewService;
+
     /**
      * Register a new user
      */
     public User registerUser(UserRegistrationRequest request) {
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username already exists");
-        }
-        
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists");
-        }
+        // Checked on the primary (a read-write transaction), not against a replica that may not have a new user yet
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (userRepository.existsByUsername(request.getUsername())) {
+                throw new RuntimeException("Username already exists");
+            }
+
+            if (userRepository.existsByEmail(request.getEmail())) {
+                throw new RuntimeException("Email already exists");
+            }
+        });
 
         User user = new User();
         user.setUsername(request.getUsername());
@@ -40,12 +60,17 @@ public class UserService {
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        if (journalService != null) {
+            journalService.openAccount(savedUser.getId(), savedUser.getBalance());
+        }
+        return savedUser;
     }
 
     /**
      * Get user by ID
      */
+    @Transactional(readOnly = true)
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }
@@ -53,6 +78,7 @@ public class UserService {
     /**
      * Get user by username
      */
+    @Transactional(readOnly = true)
     public Optional<User> getUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -60,15 +86,21 @@ public class UserService {
     /**
      * Get all users
      */
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
     /**
      * Update user balance
+     * Takes the user's row lock so it can't interleave with a trade on the same account
      */
+    @Transactional
     public User updateBalance(Long userId, BigDecimal newBalance) {
-        User user = userRepository.findById(userId)
+        if (journalService != null) {
+            return updateBalanceThroughJournal(userId, newBalance);
+        }
+        User user = accountLockService.lockUser(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         user.setBalance(newBalance);
@@ -76,10 +108,29 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    /**
+     * Journal mode: the new balance is journaled and reaches the users table through the projection
+     * The returned copy carries the new balance; the managed row is left for the projection to update
+     */
+    private User updateBalanceThroughJournal(Long userId, BigDecimal newBalance) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        journalService.setBalance(userId, newBalance);
+        return new User(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(),
+                newBalance, user.getCreatedAt(), LocalDateTime.now());
+    }
+
     /**
      * Delete user
      */
     public void deleteUser(Long userId) {
-        userRepository.deleteById(userId);
+        if (journalService != null) {
+            journalService.closeAccount(userId);
+        } else {
+            userRepository.deleteById(userId);
+        }
+        if (portfolioViewService != null) {
+            portfolioViewService.evict(userId);
+        }
     }
 }
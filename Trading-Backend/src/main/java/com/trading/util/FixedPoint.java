@@ -0,0 +1,91 @@
+package com.trading.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic for money and prices held as a primitive {@code long} of cents
+ * (the scale stored in the database), so trade and valuation math allocates nothing.
+ *
+ * Rounding rules:
+ * - Converting in ({@link #fromDouble}, {@link #fromBigDecimal}) rounds to the nearest cent, halves away from zero
+ * - {@link #divide} rounds the quotient the same way (BigDecimal's HALF_UP)
+ * - Multiplication and addition are exact and throw ArithmeticException on overflow
+ *
+ * BigDecimal is only for the edges: entity fields, request/response DTOs.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 2;
+    public static final long ONE = 100;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Quote price (e.g. from Finnhub) to cents
+     * Rounds the double's shortest decimal form (Double.toString), as BigDecimal.valueOf does, so 1.005 gives 101;
+     * scaling the double itself would round its binary value, 1.00499999..., down. Called once per quote, so the
+     * BigDecimal stays off the per-share math.
+     */
+    public static long fromDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new ArithmeticException("Not a finite price: " + value);
+        }
+        try {
+            return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Price out of range: " + value);
+        }
+    }
+
+    public static long fromBigDecimal(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Price times share count, e.g. the total cost of a trade
+     */
+    public static long multiply(long cents, int quantity) {
+        return Math.multiplyExact(cents, (long) quantity);
+    }
+
+    /**
+     * Divide and round the quotient half away from zero
+     */
+    public static long divide(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        // Compare |2 * remainder| with |divisor| without overflowing
+        long absRemainder = Math.abs(remainder);
+        long absDivisor = Math.abs(divisor);
+        if (absRemainder >= absDivisor - absRemainder) {
+            return (dividend < 0) == (divisor < 0) ? quotient + 1 : quotient - 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Average price per share of a holding after adding shares: (avg * held + cost) / (held + added)
+     */
+    public static long averagePrice(long avgPrice, int heldQuantity, long addedCost, int addedQuantity) {
+        long totalValue = Math.addExact(multiply(avgPrice, heldQuantity), addedCost);
+        return divide(totalValue, (long) heldQuantity + addedQuantity);
+    }
+
+    /**
+     * part / whole as a percentage. The ratio is rounded to 4 decimal places first,
+     * so the result has at most 2 decimal places.
+     */
+    public static double percentage(long part, long whole) {
+        long ratioTenThousandths = divide(Math.multiplyExact(part, 10_000L), whole);
+        return ratioTenThousandths / 100.0;
+    }
+}
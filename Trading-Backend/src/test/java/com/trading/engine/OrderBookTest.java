@@ -0,0 +1,191 @@
+package com.trading.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderBookTest {
+
+    private OrderBook book;
+    private List<Fill> fills;
+    private long nextOrderId;
+
+    @BeforeEach
+    void setUp() {
+        book = new OrderBook("AAPL");
+        fills = new ArrayList<>();
+        nextOrderId = 0;
+    }
+
+    @Test
+    void matchesBestPriceFirst() {
+        long expensive = submit(2, OrderSide.SELL, 10_100, 5);
+        long cheap = submit(3, OrderSide.SELL, 10_000, 5);
+
+        BookOrder resting = submit(1, OrderSide.BUY, 10_100, 7, fills);
+
+        assertThat(resting).isNull();
+        assertThat(fills).extracting(Fill::sellOrderId).containsExactly(cheap, expensive);
+        assertThat(fills).extracting(Fill::quantity).containsExactly(5, 2);
+        assertThat(book.getBestAsk()).isEqualTo(10_100L);
+        assertThat(book.getOrder(expensive).getRemainingQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void matchesEarliestOrderFirstAtTheSamePrice() {
+        long first = submit(2, OrderSide.BUY, 10_000, 4);
+        long second = submit(3, OrderSide.BUY, 10_000, 4);
+
+        submit(1, OrderSide.SELL, 10_000, 6, fills);
+
+        assertThat(fills).extracting(Fill::buyOrderId).containsExactly(first, second);
+        assertThat(fills).extracting(Fill::quantity).containsExactly(4, 2);
+        assertThat(book.getOrder(first)).isNull();
+        assertThat(book.getOrder(second).getRemainingQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void fillsAtTheRestingOrdersPriceAndKeepsTheBuyLimit() {
+        long ask = submit(2, OrderSide.SELL, 9_900, 5);
+
+        long bid = nextOrderId + 1;
+        submit(1, OrderSide.BUY, 10_000, 5, fills);
+
+        assertThat(fills).singleElement().satisfies(fill -> {
+            assertThat(fill.price()).isEqualTo(9_900);
+            assertThat(fill.buyLimitPrice()).isEqualTo(10_000);
+            assertThat(fill.buyOrderId()).isEqualTo(bid);
+            assertThat(fill.buyUserId()).isEqualTo(1);
+            assertThat(fill.sellOrderId()).isEqualTo(ask);
+            assertThat(fill.sellUserId()).isEqualTo(2);
+            assertThat(fill.takerSide()).isEqualTo(OrderSide.BUY);
+        });
+    }
+
+    @Test
+    void restsTheUnfilledRemainderAtItsLimitPrice() {
+        submit(2, OrderSide.SELL, 10_000, 4);
+
+        BookOrder resting = submit(1, OrderSide.BUY, 10_050, 10, fills);
+
+        assertThat(fills).extracting(Fill::quantity).containsExactly(4);
+        assertThat(resting.getPrice()).isEqualTo(10_050);
+        assertThat(resting.getOriginalQuantity()).isEqualTo(6);
+        assertThat(resting.getRemainingQuantity()).isEqualTo(6);
+        assertThat(book.getBestAsk()).isNull();
+        assertThat(book.getBestBid()).isEqualTo(10_050L);
+        assertThat(book.getLevels(OrderSide.BUY, 10)).singleElement().satisfies(level -> {
+            assertThat(level.getTotalQuantity()).isEqualTo(6);
+            assertThat(level.getOrderCount()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void doesNotMatchAcrossTheLimitPrice() {
+        submit(2, OrderSide.SELL, 10_100, 5);
+
+        BookOrder resting = submit(1, OrderSide.BUY, 10_000, 5, fills);
+
+        assertThat(fills).isEmpty();
+        assertThat(resting.getRemainingQuantity()).isEqualTo(5);
+        assertThat(book.getBestBid()).isEqualTo(10_000L);
+        assertThat(book.getBestAsk()).isEqualTo(10_100L);
+    }
+
+    @Test
+    void selfTradePreventionCancelsTheIncomingRemainder() {
+        long own = submit(1, OrderSide.SELL, 10_000, 5);
+
+        BookOrder resting = submit(1, OrderSide.BUY, 10_000, 5, fills);
+
+        assertThat(resting).isNull();
+        assertThat(fills).isEmpty();
+        assertThat(book.getOrder(own).getRemainingQuantity()).isEqualTo(5);
+        assertThat(book.getBestBid()).isNull();
+    }
+
+    @Test
+    void selfTradePreventionKeepsFillsMadeBeforeReachingTheOwnOrder() {
+        long other = submit(2, OrderSide.SELL, 10_000, 3);
+        long own = submit(1, OrderSide.SELL, 10_000, 5);
+
+        BookOrder resting = submit(1, OrderSide.BUY, 10_000, 10, fills);
+
+        assertThat(resting).isNull();
+        assertThat(fills).extracting(Fill::sellOrderId).containsExactly(other);
+        assertThat(fills).extracting(Fill::quantity).containsExactly(3);
+        assertThat(book.getOrder(own).getRemainingQuantity()).isEqualTo(5);
+        assertThat(book.getOrderCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelRemovesTheOrderAndItsEmptyLevel() {
+        long bid = submit(1, OrderSide.BUY, 10_000, 5);
+
+        BookOrder cancelled = book.cancel(bid);
+
+        assertThat(cancelled.getRemainingQuantity()).isEqualTo(5);
+        assertThat(book.getOrder(bid)).isNull();
+        assertThat(book.getBestBid()).isNull();
+        assertThat(book.getLevels(OrderSide.BUY, 10)).isEmpty();
+        assertThat(book.cancel(bid)).isNull();
+    }
+
+    @Test
+    void cancelInTheMiddleOfALevelKeepsTimePriorityOfTheRest() {
+        long first = submit(2, OrderSide.SELL, 10_000, 1);
+        long middle = submit(3, OrderSide.SELL, 10_000, 2);
+        long last = submit(4, OrderSide.SELL, 10_000, 3);
+
+        book.cancel(middle);
+        assertThat(book.getLevels(OrderSide.SELL, 10)).singleElement().satisfies(level -> {
+            assertThat(level.getTotalQuantity()).isEqualTo(4);
+            assertThat(level.getOrderCount()).isEqualTo(2);
+        });
+
+        submit(1, OrderSide.BUY, 10_000, 4, fills);
+        assertThat(fills).extracting(Fill::sellOrderId).containsExactly(first, last);
+        assertThat(book.getOrderCount()).isZero();
+    }
+
+    @Test
+    void cancelOfAPartiallyFilledOrderReturnsItsRemainder() {
+        long ask = submit(2, OrderSide.SELL, 10_000, 10);
+        submit(1, OrderSide.BUY, 10_000, 4, fills);
+
+        BookOrder cancelled = book.cancel(ask);
+
+        assertThat(cancelled.getOriginalQuantity()).isEqualTo(10);
+        assertThat(cancelled.getRemainingQuantity()).isEqualTo(6);
+        assertThat(book.getBestAsk()).isNull();
+    }
+
+    @Test
+    void rejectsNonPositiveQuantityAndDuplicateIds() {
+        assertThatThrownBy(() -> book.submit(1, 1, OrderSide.BUY, 10_000, 0, fills))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        book.submit(1, 1, OrderSide.BUY, 10_000, 1, fills);
+        assertThatThrownBy(() -> book.submit(1, 2, OrderSide.SELL, 10_100, 1, fills))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Submit an order expected to rest without matching, returning its id
+     */
+    private long submit(long userId, OrderSide side, long price, int quantity) {
+        List<Fill> none = new ArrayList<>();
+        BookOrder resting = submit(userId, side, price, quantity, none);
+        assertThat(none).isEmpty();
+        return resting.getOrderId();
+    }
+
+    private BookOrder submit(long userId, OrderSide side, long price, int quantity, List<Fill> fills) {
+        return book.submit(++nextOrderId, userId, side, price, quantity, fills);
+    }
+}
@@ -0,0 +1,81 @@
+package com.trading.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SymbolHoldersTest {
+
+    private final SymbolHolders holders = new SymbolHolders("AAPL");
+
+    @Test
+    void sellingOutRemovesTheHolder() {
+        holders.setPosition(1, 1, 10, 1_000);
+        holders.setPosition(2, 2, 5, 1_000);
+
+        PnlChange soldOut = holders.setPosition(3, 1, 0, 1_000);
+
+        assertThat(soldOut.quantity()).isZero();
+        assertThat(soldOut.valueDelta()).isEqualTo(-10_000);
+        assertThat(soldOut.investedDelta()).isEqualTo(-10_000);
+        assertThat(holders.getHolderCount()).isEqualTo(1);
+        assertThat(holders.get(1)).isNull();
+
+        List<PnlChange> changes = new ArrayList<>();
+        holders.tick(1_100, changes);
+        assertThat(changes).extracting(PnlChange::userId).containsExactly(2L);
+    }
+
+    @Test
+    void aLateUpdateCannotRecreateASoldOutHolding() {
+        holders.setPosition(1, 1, 10, 1_000);
+        holders.setPosition(3, 1, 0, 1_000);
+
+        assertThat(holders.setPosition(2, 1, 4, 1_000)).isNull();
+        assertThat(holders.getHolderCount()).isZero();
+
+        PnlChange rebought = holders.setPosition(4, 1, 2, 1_200);
+        assertThat(rebought.quantity()).isEqualTo(2);
+        assertThat(holders.getHolderCount()).isEqualTo(1);
+        assertThat(holders.getTombstoneCount()).isZero();
+    }
+
+    @Test
+    void ignoresAnOlderUpdateForACurrentHolder() {
+        holders.setPosition(5, 1, 10, 1_000);
+
+        assertThat(holders.setPosition(4, 1, 3, 1_000)).isNull();
+        assertThat(holders.get(1).quantity()).isEqualTo(10);
+    }
+
+    @Test
+    void tombstonesAreDroppedOnceOutOfTheWindow() {
+        for (long userId = 1; userId <= 100; userId++) {
+            holders.setPosition(userId, userId, 1, 1_000);
+            holders.setPosition(1_000 + userId, userId, 0, 1_000);
+        }
+        assertThat(holders.getHolderCount()).isZero();
+        assertThat(holders.getTombstoneCount()).isEqualTo(100);
+
+        holders.setPosition(1_100 + SymbolHolders.TOMBSTONE_WINDOW + 1, 999, 1, 1_000);
+        assertThat(holders.getTombstoneCount()).isZero();
+        assertThat(holders.getHolderCount()).isEqualTo(1);
+    }
+
+    @Test
+    void valuesHoldersAtTheirAveragePriceUntilTheFirstTick() {
+        holders.setPosition(1, 1, 10, 1_000);
+        assertThat(holders.get(1).currentValue()).isEqualTo(10_000);
+
+        List<PnlChange> changes = new ArrayList<>();
+        holders.tick(1_250, changes);
+        assertThat(changes).singleElement().satisfies(change -> {
+            assertThat(change.currentValue()).isEqualTo(12_500);
+            assertThat(change.valueDelta()).isEqualTo(2_500);
+            assertThat(change.netProfit()).isEqualTo(2_500);
+        });
+    }
+}
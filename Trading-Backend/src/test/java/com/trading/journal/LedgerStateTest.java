@@ -0,0 +1,160 @@
+package com.trading.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LedgerStateTest {
+
+    private static final List<String> SYMBOLS = List.of("AAPL", "MSFT", "GOOG");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appliesTradesToBalancesAndHoldings() {
+        LedgerState ledger = new LedgerState();
+        ledger.apply(event(JournalEvent.EventType.ACCOUNT_OPENED, 1, 0, null, 0, 0, 100_000));
+        ledger.apply(event(JournalEvent.EventType.ACCOUNT_OPENED, 2, 0, null, 0, 0, 50_000));
+        ledger.apply(event(JournalEvent.EventType.BUY, 1, 0, "AAPL", 3, 1_000, 3_000));
+        ledger.apply(event(JournalEvent.EventType.BUY, 1, 0, "AAPL", 1, 1_001, 1_001));
+        ledger.apply(event(JournalEvent.EventType.FILL, 1, 2, "AAPL", 2, 1_500, 3_000));
+
+        LedgerState.Account seller = ledger.getAccount(1);
+        LedgerState.Account buyer = ledger.getAccount(2);
+        assertThat(seller.getBalance()).isEqualTo(100_000 - 4_001 + 3_000);
+        // (3 x 10.00 + 10.01) / 4 = 10.0025, rounded half up to 10.00
+        assertThat(seller.getPosition("AAPL")).isEqualTo(new LedgerState.Position(2, 1_000));
+        assertThat(buyer.getBalance()).isEqualTo(47_000);
+        assertThat(buyer.getPosition("AAPL")).isEqualTo(new LedgerState.Position(2, 1_500));
+    }
+
+    @Test
+    void removesASoldOutPositionAndRefusesToOversell() {
+        LedgerState ledger = new LedgerState();
+        ledger.apply(event(JournalEvent.EventType.ACCOUNT_OPENED, 1, 0, null, 0, 0, 0));
+        ledger.apply(event(JournalEvent.EventType.ACCOUNT_OPENED, 2, 0, null, 0, 0, 10_000));
+        ledger.apply(event(JournalEvent.EventType.POSITION_SNAPSHOT, 1, 0, "AAPL", 2, 900, 0));
+
+        ledger.apply(event(JournalEvent.EventType.TRANSFER, 1, 2, "AAPL", 2, 1_000, 2_000));
+        assertThat(ledger.getAccount(1).getPosition("AAPL")).isNull();
+        assertThat(ledger.getAccount(1).getQuantity("AAPL")).isZero();
+
+        assertThatThrownBy(() -> ledger.apply(event(JournalEvent.EventType.TRANSFER, 1, 2, "AAPL", 1, 1_000, 1_000)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void closedAccountsAreRemovedAndBalancesCanBeOverwritten() {
+        LedgerState ledger = new LedgerState();
+        ledger.apply(event(JournalEvent.EventType.ACCOUNT_OPENED, 1, 0, null, 0, 0, 100));
+        ledger.apply(event(JournalEvent.EventType.BALANCE_SET, 1, 0, null, 0, 0, 250));
+        assertThat(ledger.getAccount(1).getBalance()).isEqualTo(250);
+
+        ledger.apply(event(JournalEvent.EventType.ACCOUNT_CLOSED, 1, 0, null, 0, 0, 0));
+        assertThat(ledger.hasAccount(1)).isFalse();
+        assertThatThrownBy(() -> ledger.apply(event(JournalEvent.EventType.BUY, 1, 0, "AAPL", 1, 100, 100)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Trades applied live by concurrent writers, each holding its accounts' monitors (in id order, as
+     * JournalService does) across append and apply, must leave the same ledger as replaying the journal
+     */
+    @Test
+    void replayRebuildsTheLiveLedger() throws Exception {
+        Path path = dir.resolve("journal.dat");
+        int users = 6;
+        LedgerState live = new LedgerState();
+        try (TradeJournal journal = TradeJournal.open(path, 1 << 20, false, 0, event -> { })) {
+            for (long userId = 1; userId <= users; userId++) {
+                append(journal, live, event(JournalEvent.EventType.ACCOUNT_OPENED, userId, 0, null, 0, 0, 1_000_000));
+                for (String symbol : SYMBOLS) {
+                    append(journal, live, event(JournalEvent.EventType.POSITION_SNAPSHOT, userId, 0, symbol, 1_000, 5_000, 0));
+                }
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> writers = new ArrayList<>();
+                for (int w = 0; w < 4; w++) {
+                    long seed = w;
+                    writers.add(executor.submit(() -> trade(journal, live, users, new Random(seed), 500)));
+                }
+                for (Future<?> writer : writers) {
+                    writer.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            append(journal, live, event(JournalEvent.EventType.BALANCE_SET, 1, 0, null, 0, 0, 42));
+            append(journal, live, event(JournalEvent.EventType.ACCOUNT_CLOSED, users, 0, null, 0, 0, 0));
+        }
+
+        LedgerState replayed = new LedgerState();
+        try (TradeJournal ignored = TradeJournal.open(path, 1 << 20, false, 0, replayed::apply)) {
+            for (long userId = 1; userId <= users; userId++) {
+                assertThat(replayed.hasAccount(userId)).isEqualTo(live.hasAccount(userId));
+                if (!live.hasAccount(userId)) {
+                    continue;
+                }
+                assertThat(replayed.getAccount(userId).getBalance()).isEqualTo(live.getAccount(userId).getBalance());
+                for (String symbol : SYMBOLS) {
+                    assertThat(replayed.getAccount(userId).getPosition(symbol))
+                            .isEqualTo(live.getAccount(userId).getPosition(symbol));
+                }
+            }
+        }
+        assertThat(replayed.hasAccount(users)).isFalse();
+        assertThat(replayed.getAccount(1).getBalance()).isEqualTo(42);
+    }
+
+    private static void trade(TradeJournal journal, LedgerState ledger, int users, Random random, int trades) {
+        for (int i = 0; i < trades; i++) {
+            long userId = 1 + random.nextInt(users);
+            String symbol = SYMBOLS.get(random.nextInt(SYMBOLS.size()));
+            int quantity = 1 + random.nextInt(3);
+            long price = 4_000 + random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                append(journal, ledger, event(JournalEvent.EventType.BUY, userId, 0, symbol, quantity, price, price * quantity));
+            } else {
+                long buyerId = 1 + (userId + random.nextInt(users - 1)) % users;
+                append(journal, ledger, event(JournalEvent.EventType.FILL, userId, buyerId, symbol, quantity, price, price * quantity));
+            }
+        }
+    }
+
+    /**
+     * Append and apply holding the monitors of the accounts the event touches, lowest id first
+     */
+    private static void append(TradeJournal journal, LedgerState ledger, JournalEvent event) {
+        if (event.type() == JournalEvent.EventType.ACCOUNT_OPENED) {
+            ledger.apply(event.withSequence(journal.append(event)));
+            return;
+        }
+        long other = event.counterpartyId() == 0 ? event.userId() : event.counterpartyId();
+        LedgerState.Account first = ledger.getAccount(Math.min(event.userId(), other));
+        LedgerState.Account second = ledger.getAccount(Math.max(event.userId(), other));
+        synchronized (first) {
+            synchronized (second) {
+                ledger.apply(event.withSequence(journal.append(event)));
+            }
+        }
+    }
+
+    private static JournalEvent event(JournalEvent.EventType type, long userId, long counterpartyId, String symbol,
+                                      int quantity, long price, long amount) {
+        return new JournalEvent(0, type, 1_700_000_000_000L, userId, counterpartyId, symbol, quantity, price, amount);
+    }
+}
@@ -0,0 +1,202 @@
+package com.trading.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeJournalTest {
+
+    private static final long WINDOW_SIZE = 64 * 1024;
+    private static final int HEADER_SIZE = 8;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysEveryAppendedEventAndContinuesTheSequence() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        List<JournalEvent> appended = new ArrayList<>();
+        try (TradeJournal journal = open(path, new ArrayList<>())) {
+            for (int i = 0; i < 3; i++) {
+                JournalEvent event = buy(1, "AAPL", i + 1);
+                long sequence = journal.append(event);
+                appended.add(event.withSequence(sequence));
+            }
+            journal.awaitDurable(3);
+        }
+
+        List<JournalEvent> replayed = new ArrayList<>();
+        try (TradeJournal journal = open(path, replayed)) {
+            assertThat(replayed).containsExactlyElementsOf(appended);
+            assertThat(journal.getLastSequence()).isEqualTo(3);
+            assertThat(journal.append(buy(1, "MSFT", 1))).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void recoversUpToATornRecordAndOverwritesItAndWhatFollows() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        // A crash can reach the disk with a later record written and an earlier one torn
+        writeEvents(path, buy(1, "AAPL", 1), buy(1, "MSFT", 2), buy(1, "TSLA", 3), buy(1, "NVDA", 4));
+
+        // The length was written but the payload wasn't all there: the checksum no longer matches
+        long torn = recordOffset(path, 2);
+        corrupt(path, torn + HEADER_SIZE + 20);
+
+        List<JournalEvent> replayed = new ArrayList<>();
+        try (TradeJournal journal = open(path, replayed)) {
+            assertThat(replayed).extracting(JournalEvent::symbol).containsExactly("AAPL", "MSFT");
+            // Same length as the torn record, so the stale one after it would line up as the next record
+            assertThat(journal.append(buy(1, "GOOG", 5))).isEqualTo(3);
+            journal.awaitDurable(3);
+        }
+
+        replayed.clear();
+        try (TradeJournal journal = open(path, replayed)) {
+            assertThat(replayed).extracting(JournalEvent::symbol).containsExactly("AAPL", "MSFT", "GOOG");
+            assertThat(replayed).extracting(JournalEvent::sequence).containsExactly(1L, 2L, 3L);
+            assertThat(journal.getLastSequence()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void treatsACorruptLengthAsTheEndOfTheJournal() throws IOException {
+        Path path = dir.resolve("journal.dat");
+        writeEvents(path, buy(1, "AAPL", 1), buy(1, "MSFT", 2));
+
+        long second = recordOffset(path, 1);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 1 << 20), second);
+        }
+
+        List<JournalEvent> replayed = new ArrayList<>();
+        try (TradeJournal journal = open(path, replayed)) {
+            assertThat(replayed).extracting(JournalEvent::symbol).containsExactly("AAPL");
+            assertThat(journal.append(buy(1, "GOOG", 3))).isEqualTo(2);
+            journal.awaitDurable(2);
+        }
+
+        replayed.clear();
+        try (TradeJournal ignored = open(path, replayed)) {
+            assertThat(replayed).extracting(JournalEvent::symbol).containsExactly("AAPL", "GOOG");
+        }
+    }
+
+    @Test
+    void awaitDurableWaitsForTheFlushCoveringTheRecord() throws Exception {
+        Path path = dir.resolve("journal.dat");
+        // A long group commit delay keeps the flush pending while the writer is checked
+        try (TradeJournal journal = TradeJournal.open(path, WINDOW_SIZE, true, 300_000, event -> { })) {
+            long sequence = journal.append(buy(1, "AAPL", 1));
+            CountDownLatch durable = new CountDownLatch(1);
+            Thread writer = new Thread(() -> {
+                journal.awaitDurable(sequence);
+                durable.countDown();
+            });
+            writer.start();
+
+            assertThat(durable.await(100, TimeUnit.MILLISECONDS)).isFalse();
+            assertThat(journal.getDurableSequence()).isLessThan(sequence);
+
+            assertThat(durable.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(journal.getDurableSequence()).isGreaterThanOrEqualTo(sequence);
+        }
+    }
+
+    @Test
+    void concurrentWritersAreReleasedOnlyOnceEveryEarlierRecordIsDurable() throws Exception {
+        Path path = dir.resolve("journal.dat");
+        int writers = 8;
+        int appendsPerWriter = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try (TradeJournal journal = TradeJournal.open(path, WINDOW_SIZE, true, 200, event -> { })) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                results.add(executor.submit(() -> {
+                    long lastDurable = 0;
+                    for (int i = 0; i < appendsPerWriter; i++) {
+                        long sequence = journal.append(buy(1, "AAPL", 1));
+                        journal.awaitDurable(sequence);
+                        long durable = journal.getDurableSequence();
+                        // Durability covers a prefix of the journal and only moves forward
+                        if (durable < sequence || durable < lastDurable || durable > journal.getLastSequence()) {
+                            return false;
+                        }
+                        lastDurable = durable;
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isTrue();
+            }
+            assertThat(journal.getLastSequence()).isEqualTo((long) writers * appendsPerWriter);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<JournalEvent> replayed = new ArrayList<>();
+        try (TradeJournal ignored = open(path, replayed)) {
+            assertThat(replayed).hasSize(writers * appendsPerWriter);
+            for (int i = 0; i < replayed.size(); i++) {
+                assertThat(replayed.get(i).sequence()).isEqualTo(i + 1);
+            }
+        }
+    }
+
+    private TradeJournal open(Path path, List<JournalEvent> replayed) throws IOException {
+        return TradeJournal.open(path, WINDOW_SIZE, true, 0, replayed::add);
+    }
+
+    private void writeEvents(Path path, JournalEvent... events) throws IOException {
+        try (TradeJournal journal = open(path, new ArrayList<>())) {
+            for (JournalEvent event : events) {
+                journal.awaitDurable(journal.append(event));
+            }
+        }
+    }
+
+    /**
+     * File offset of the index-th record, following the length headers
+     */
+    private static long recordOffset(Path path, int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(4);
+            for (int i = 0; i < index; i++) {
+                header.clear();
+                channel.read(header, position);
+                position += HEADER_SIZE + header.getInt(0);
+            }
+            return position;
+        }
+    }
+
+    private static void corrupt(Path path, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, offset);
+            b.put(0, (byte) ~b.get(0)).rewind();
+            channel.write(b, offset);
+        }
+    }
+
+    private static JournalEvent buy(long userId, String symbol, int quantity) {
+        return new JournalEvent(0, JournalEvent.EventType.BUY, 1_700_000_000_000L, userId, 0, symbol,
+                quantity, 10_000, 10_000L * quantity);
+    }
+}